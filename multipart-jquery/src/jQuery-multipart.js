@@ -3,11 +3,13 @@
     var batch = function (aData, sBoundary) {
         var aBody = [];
 
-        aData.forEach(function(oData) {
+        aData.forEach(function(oData, iIndex) {
             var sType = oData.type.toUpperCase();
 
             aBody.push('--' + sBoundary);
             aBody.push('Content-Type: application/http');
+            /* responses might arrive in any order - they refer to their request by its Content-ID */
+            aBody.push('Content-ID: ' + (iIndex + 1));
             aBody.push('');
             aBody.push(sType + ' ' + oData.url + ' HTTP/1.1');
             aBody.push('Host: ' + location.host);
@@ -27,23 +29,26 @@
     };
 
     var unbatch = function (sData) {
-        sData = sData.replace("\r", "");
+        sData = sData.replace(/\r/g, "");
         var sBoundary = sData.substring(0, sData.indexOf("\n")),
             aBatches = sData.split(sBoundary).filter(function(sBatch) {
                 return !!sBatch && sBatch.indexOf("--") !== 0;
             }),
             aResults = [];
 
-        aBatches.forEach(function (sBatch) {
+        aBatches.forEach(function (sBatch, iPosition) {
             var aParts = sBatch.split("\n\n"),
-                //first part not interesting
+                sPartHeader = aParts[0],
                 sHeader = aParts[1],
-                sContent = aParts.length > 2 ? aParts[2] : null,
+                sContent = aParts.length > 2 ? aParts.slice(2).join("\n\n") : null,
                 iStatus = parseInt((function (sMatch) {
                              return sMatch || 0;
                          })(/HTTP\/1.1 ([0-9]+)/g.exec(sHeader))[1], 10),
+                aContentId = /Content-ID:\s*<?([0-9]+)>?/i.exec(sPartHeader),
+                /* Content-ID is the position of the request (starting with 1) - fall back to the response order */
+                iIndex = aContentId ? parseInt(aContentId[1], 10) - 1 : iPosition,
                 oContent = sContent && JSON.parse(sContent);
-                aResults.push({ status: iStatus, data: oContent });
+                aResults[iIndex] = { status: iStatus, data: oContent };
         });
 
         return jQuery.when.apply(jQuery, aResults);
@@ -57,11 +62,11 @@
             return $.ajax({
                 type: 'POST',
                 url: oParameter.url,
-                dataType: 'json',
+                dataType: 'text',
                 data: batch(oParameter.data, sBoundary),
                 contentType: 'multipart/mixed; boundary="' + sBoundary + '"'
             })
-            .done(unbatch);
+            .then(unbatch);
         }
     });
 })(jQuery);
\ No newline at end of file
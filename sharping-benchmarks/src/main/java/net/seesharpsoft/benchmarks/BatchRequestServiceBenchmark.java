@@ -0,0 +1,94 @@
+package net.seesharpsoft.benchmarks;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import net.seesharpsoft.spring.multipart.batch.BatchRequest;
+import net.seesharpsoft.spring.multipart.batch.BatchResponse;
+import net.seesharpsoft.spring.multipart.batch.services.BatchRequestProperties;
+import net.seesharpsoft.spring.multipart.batch.services.BatchRequestServiceBase;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import jakarta.servlet.ServletException;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the batch processing overhead of {@link BatchRequestServiceBase#process} - single requests are answered
+ * without dispatching them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchRequestServiceBenchmark {
+
+    private static class EchoBatchRequestService extends BatchRequestServiceBase {
+
+        EchoBatchRequestService(BatchRequestProperties batchRequestProperties) {
+            super(batchRequestProperties);
+        }
+
+        @Override
+        protected BatchResponse.Entity processSingleRequest(URI targetUri, HttpMethod httpMethod, HttpHeaders httpHeaders, byte[] body,
+                                                            HttpServletRequest servletRequest, HttpServletResponse servletResponse) {
+            BatchResponse.Entity entity = new BatchResponse.Entity();
+            entity.setStatus(HttpStatus.OK);
+            entity.setHeaders(httpHeaders);
+            entity.setBody(targetUri.toString().getBytes(StandardCharsets.UTF_8));
+            return entity;
+        }
+    }
+
+    @Param({"false", "true"})
+    public boolean parallelProcessing;
+
+    @Param({"10", "100"})
+    public int parts;
+
+    private EchoBatchRequestService service;
+
+    private BatchRequest batchRequest;
+
+    private MockHttpServletRequest servletRequest;
+
+    @Setup
+    public void setup() {
+        BatchRequestProperties properties = new BatchRequestProperties();
+        properties.setParallelProcessing(parallelProcessing);
+        service = new EchoBatchRequestService(properties);
+
+        batchRequest = new BatchRequest();
+        for (int i = 0; i < parts; ++i) {
+            BatchRequest.Entity entity = new BatchRequest.Entity();
+            entity.setMethod(HttpMethod.GET);
+            entity.setUrl("/api/people/" + i + "?filter=age%20gt%20" + i);
+            HttpHeaders headers = new HttpHeaders();
+            headers.add(HttpHeaders.ACCEPT, "application/json");
+            entity.setHeaders(headers);
+            batchRequest.addPart(entity);
+        }
+
+        servletRequest = new MockHttpServletRequest("POST", "/batch");
+        servletRequest.addHeader(HttpHeaders.AUTHORIZATION, "Bearer token");
+        servletRequest.addHeader(HttpHeaders.ACCEPT_LANGUAGE, "en");
+    }
+
+    @TearDown
+    public void tearDown() {
+        service.shutdown();
+    }
+
+    @Benchmark
+    public BatchResponse process() throws ServletException, IOException {
+        return service.process(batchRequest, servletRequest, new MockHttpServletResponse());
+    }
+}
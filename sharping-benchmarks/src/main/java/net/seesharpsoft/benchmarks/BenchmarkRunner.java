@@ -0,0 +1,29 @@
+package net.seesharpsoft.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with allocation profiling ({@link GCProfiler}) enabled. Accepts the regular JMH command line
+ * options, e.g. a benchmark filter:
+ * <pre>
+ * java -jar sharping-benchmarks/target/benchmarks.jar ParserBenchmark -rf json
+ * </pre>
+ */
+public class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+        // static
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,55 @@
+package net.seesharpsoft.benchmarks;
+
+import net.seesharpsoft.commons.util.Lexer;
+import net.seesharpsoft.commons.util.Tokenizer;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.text.ParseException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lexes generated CSV content using the CSV lexer definition shipped with sharping-commons.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LexerBenchmark {
+
+    @Param({"false", "true"})
+    public boolean compiled;
+
+    @Param({"100", "10000"})
+    public int rows;
+
+    private Lexer<String> lexer;
+
+    private String input;
+
+    @Setup
+    public void setup() throws IOException {
+        Tokenizer<String> tokenizer = new Tokenizer<>();
+        tokenizer.setCompiled(compiled);
+        lexer = new Lexer<>(tokenizer);
+        try (InputStream is = LexerBenchmark.class.getResourceAsStream("/lexerdef/csv.lex")) {
+            lexer.init(is, sequence -> sequence);
+        }
+
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < rows; ++i) {
+            builder.append(i).append(",\"Product ").append(i).append(", \"\"special\"\" edition\",Customer ")
+                    .append(i % 13).append(" , ").append(i * 7).append(",").append(i * 1.25).append("\n");
+        }
+        input = builder.toString();
+    }
+
+    @Benchmark
+    public List<Tokenizer.TokenInfo<String>> tokenize() throws ParseException {
+        return lexer.tokenize(input);
+    }
+}
@@ -0,0 +1,77 @@
+package net.seesharpsoft.benchmarks;
+
+import net.seesharpsoft.spring.multipart.MultipartEntity;
+import net.seesharpsoft.spring.multipart.MultipartMessage;
+import net.seesharpsoft.spring.multipart.MultipartRfc2046MessageConverter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads and writes multipart messages with 10, 100 and 1000 parts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MultipartBenchmark {
+
+    private static final String BOUNDARY = "batch_36522ad7-fc75-4b56-8c71-56071383e77b";
+
+    private static final MediaType CONTENT_TYPE = new MediaType("multipart", "mixed", Collections.singletonMap("boundary", BOUNDARY));
+
+    @Param({"10", "100", "1000"})
+    public int parts;
+
+    private MultipartRfc2046MessageConverter converter;
+
+    private byte[] requestBody;
+
+    private MultipartMessage<MultipartEntity> response;
+
+    @Setup
+    public void setup() {
+        converter = new MultipartRfc2046MessageConverter();
+
+        StringBuilder builder = new StringBuilder();
+        response = new MultipartMessage<>();
+        for (int i = 0; i < parts; ++i) {
+            String request = "GET /api/people?filter=age%20gt%20" + i + " HTTP/1.1\r\nHost: localhost\r\nAccept: application/json\r\n\r\n";
+            builder.append("--").append(BOUNDARY).append("\r\n")
+                    .append("Content-Type: application/http\r\n")
+                    .append("Content-Transfer-Encoding: binary\r\n\r\n")
+                    .append(request).append("\r\n");
+
+            MultipartEntity entity = new MultipartEntity();
+            entity.setHeaders(new HttpHeaders());
+            entity.setBody(("HTTP/1.1 200 OK\r\nContent-Type: application/json\r\n\r\n{\"id\":" + i + ",\"name\":\"Person " + i + "\"}").getBytes(StandardCharsets.UTF_8));
+            response.addPart(entity);
+        }
+        builder.append("--").append(BOUNDARY).append("--");
+        requestBody = builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public Object read() throws IOException {
+        MockHttpInputMessage inputMessage = new MockHttpInputMessage(requestBody);
+        inputMessage.getHeaders().setContentType(CONTENT_TYPE);
+        return converter.read(MultipartMessage.class, inputMessage);
+    }
+
+    @Benchmark
+    public int write() throws IOException {
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+        outputMessage.getHeaders().setContentType(CONTENT_TYPE);
+        converter.write(response, CONTENT_TYPE, outputMessage);
+        return outputMessage.getBodyAsBytes().length;
+    }
+}
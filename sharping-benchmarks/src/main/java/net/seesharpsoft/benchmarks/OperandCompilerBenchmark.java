@@ -0,0 +1,62 @@
+package net.seesharpsoft.benchmarks;
+
+import net.seesharpsoft.benchmarks.model.Person;
+import net.seesharpsoft.spring.data.jpa.expression.Dialects;
+import net.seesharpsoft.spring.data.jpa.expression.OperandCompiler;
+import net.seesharpsoft.spring.data.jpa.expression.Operation;
+import org.openjdk.jmh.annotations.*;
+
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Filters in-memory entities with a compiled predicate - for {@link #filter()} one operation is one row tested.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OperandCompilerBenchmark {
+
+    static final int ROWS = 100_000;
+
+    private static final String EXPRESSION = "name = 'Person 42' OR (age >= 30 AND age < 40 AND score > 50.5) OR startsWith(name, 'Person 99')";
+
+    private List<Person> people;
+
+    private Operation operation;
+
+    private Predicate<Person> predicate;
+
+    @Setup
+    public void setup() throws ParseException {
+        people = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; ++i) {
+            people.add(new Person(i, "Person " + i, 18 + i % 60, i % 100 + 0.5));
+        }
+        operation = Dialects.SQL.getParser().parseExpression(EXPRESSION);
+        predicate = new OperandCompiler().compilePredicate(operation, Person.class);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public int filter() {
+        int count = 0;
+        for (Person person : people) {
+            if (predicate.test(person)) {
+                ++count;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public Predicate<Person> compile() {
+        return new OperandCompiler().compilePredicate(operation, Person.class);
+    }
+}
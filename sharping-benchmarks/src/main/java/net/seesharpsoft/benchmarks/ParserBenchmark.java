@@ -0,0 +1,62 @@
+package net.seesharpsoft.benchmarks;
+
+import net.seesharpsoft.spring.data.jpa.expression.Dialect;
+import net.seesharpsoft.spring.data.jpa.expression.Dialects;
+import net.seesharpsoft.spring.data.jpa.expression.Operand;
+import net.seesharpsoft.spring.data.jpa.expression.Parser;
+import net.seesharpsoft.UnhandledSwitchCaseException;
+import org.openjdk.jmh.annotations.*;
+
+import java.text.ParseException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses a typical filter expression of each {@link Dialects} entry.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParserBenchmark {
+
+    @Param({"JAVA", "ODATA", "SHARP", "SQL"})
+    public String dialectName;
+
+    private Parser parser;
+
+    private String expression;
+
+    @Setup
+    public void setup() throws ParseException {
+        Dialect dialect;
+        switch (dialectName) {
+            case "JAVA":
+                dialect = Dialects.JAVA;
+                expression = "name == 'eq < ne' && (age < 30 || score >= 1.5e3 || !(age != score / 4))";
+                break;
+            case "ODATA":
+                dialect = Dialects.ODATA;
+                expression = "name eq 'eq lt ne' and (age lt 30 or score ge 1.5e3 or not (startswith(tolower(name), 'abc'))) and id ne 5L";
+                break;
+            case "SHARP":
+                dialect = Dialects.SHARP;
+                expression = "if(age != (score / 2), upper(name), lower(name)) == 'ABC' && startsWith(name, 'a') || count(id) > 3";
+                break;
+            case "SQL":
+                dialect = Dialects.SQL;
+                expression = "name = 'eq lt ne' AND (age < 30 OR score >= 1.5e3 OR not (type in [test,test2])) AND startsWith(lower(name), 'abc')";
+                break;
+            default:
+                throw new UnhandledSwitchCaseException(dialectName);
+        }
+        parser = new Parser(dialect);
+        parser.parseExpression(expression);
+    }
+
+    @Benchmark
+    public Operand parseExpression() throws ParseException {
+        return parser.parseExpression(expression);
+    }
+}
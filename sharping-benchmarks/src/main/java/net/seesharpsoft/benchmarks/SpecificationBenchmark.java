@@ -0,0 +1,93 @@
+package net.seesharpsoft.benchmarks;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import net.seesharpsoft.benchmarks.model.Person;
+import net.seesharpsoft.spring.data.jpa.OperationSpecification;
+import net.seesharpsoft.spring.data.jpa.ParameterBindings;
+import net.seesharpsoft.spring.data.jpa.expression.Dialects;
+import net.seesharpsoft.spring.data.jpa.expression.Operation;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.*;
+
+import java.text.ParseException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Converts a parsed expression into a JPA predicate (and executes it) against an in-memory Hibernate/H2 setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SpecificationBenchmark {
+
+    private static final String EXPRESSION = "name = 'Person 42' OR (age >= 30 AND age < 40 AND score > 50.5) OR startsWith(lower(name), 'person 99')";
+
+    @Param({"false", "true"})
+    public boolean parameterized;
+
+    private SessionFactory sessionFactory;
+
+    private EntityManager entityManager;
+
+    private OperationSpecification<Person> specification;
+
+    @Setup
+    public void setup() throws ParseException {
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(Person.class)
+                .setProperty("hibernate.connection.url", "jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1")
+                .setProperty("hibernate.hbm2ddl.auto", "create-drop")
+                .buildSessionFactory();
+        entityManager = sessionFactory.createEntityManager();
+        entityManager.getTransaction().begin();
+        for (int i = 0; i < 1000; ++i) {
+            entityManager.persist(new Person(i, "Person " + i, 18 + i % 60, i % 100 + 0.5));
+        }
+        entityManager.getTransaction().commit();
+        entityManager.clear();
+
+        Operation operation = Dialects.SQL.getParser().parseExpression(EXPRESSION);
+        specification = new OperationSpecification<>(operation, parameterized);
+    }
+
+    @TearDown
+    public void tearDown() {
+        entityManager.close();
+        sessionFactory.close();
+    }
+
+    private CriteriaQuery<Person> createQuery() {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Person> query = builder.createQuery(Person.class);
+        Root<Person> root = query.from(Person.class);
+        return query.where(specification.toPredicate(root, query, builder));
+    }
+
+    @Benchmark
+    public Predicate toPredicate() {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Person> query = builder.createQuery(Person.class);
+        Root<Person> root = query.from(Person.class);
+        return specification.toPredicate(root, query, builder);
+    }
+
+    @Benchmark
+    public List<Person> executeQuery() {
+        ParameterBindings parameterBindings = new ParameterBindings();
+        CriteriaQuery<Person> query = parameterBindings.collect(this::createQuery);
+        TypedQuery<Person> typedQuery = parameterBindings.bind(entityManager.createQuery(query));
+        List<Person> result = typedQuery.getResultList();
+        entityManager.clear();
+        return result;
+    }
+}
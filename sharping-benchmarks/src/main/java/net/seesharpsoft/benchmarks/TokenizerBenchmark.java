@@ -0,0 +1,51 @@
+package net.seesharpsoft.benchmarks;
+
+import net.seesharpsoft.commons.util.Tokenizer;
+import org.openjdk.jmh.annotations.*;
+
+import java.text.ParseException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenizerBenchmark {
+
+    @Param({"false", "true"})
+    public boolean compiled;
+
+    @Param({"100", "10000"})
+    public int statements;
+
+    private Tokenizer<String> tokenizer;
+
+    private String input;
+
+    @Setup
+    public void setup() {
+        tokenizer = new Tokenizer<>();
+        tokenizer.setTrimPattern("\n| ");
+        tokenizer.setCompiled(compiled);
+        tokenizer.add("KEYWORD", "(let|in)(?=\\W)");
+        tokenizer.add("IDENTIFIER", "[a-zA-Z_][a-zA-Z0-9_]*");
+        tokenizer.add("NUMBER", "[0-9]+(\\.[0-9]+)?");
+        tokenizer.add("STRING", "'[^']*'");
+        tokenizer.add("OPERATOR", "==|!=|<=|>=|[-+*/=<>]");
+        tokenizer.add("SEPARATOR", "[(),;]");
+
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < statements; ++i) {
+            builder.append("let value").append(i).append(" = (a").append(i % 7).append(" + 12.5) * count(b, 'text ").append(i).append("');\n");
+        }
+        input = builder.toString();
+    }
+
+    @Benchmark
+    public List<Tokenizer.TokenInfo<String>> tokenize() throws ParseException {
+        return tokenizer.tokenize(input);
+    }
+}
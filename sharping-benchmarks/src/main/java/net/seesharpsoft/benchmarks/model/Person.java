@@ -0,0 +1,43 @@
+package net.seesharpsoft.benchmarks.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+
+@Entity
+public class Person {
+
+    @Id
+    private int id;
+
+    private String name;
+
+    private int age;
+
+    private double score;
+
+    public Person() {
+    }
+
+    public Person(int id, String name, int age, double score) {
+        this.id = id;
+        this.name = name;
+        this.age = age;
+        this.score = score;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getAge() {
+        return age;
+    }
+
+    public double getScore() {
+        return score;
+    }
+}
@@ -0,0 +1,193 @@
+package net.seesharpsoft.commons.collection;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * Thread-safe cache limited in size (least recently used entries are evicted first) and optionally in time (entries
+ * expire after a fixed duration since they were added). Hits, misses and evictions are counted.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public class BoundedCache<K, V> {
+
+    private static class Entry<V> {
+        private final V value;
+        private final long created;
+
+        private Entry(V value, long created) {
+            this.value = value;
+            this.created = created;
+        }
+    }
+
+    private final int maxSize;
+    private final long timeToLive;
+    private final LongSupplier nanoTime;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * @param maxSize     maximum number of entries
+     * @param timeToLive  time after which an entry expires - null or zero if entries should not expire
+     * @param nanoTime    source of the current time in nanoseconds
+     */
+    public BoundedCache(int maxSize, Duration timeToLive, LongSupplier nanoTime) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be greater than zero!");
+        }
+        Objects.requireNonNull(nanoTime, "nanoTime must be not null!");
+        this.maxSize = maxSize;
+        this.timeToLive = timeToLive == null ? 0 : timeToLive.toNanos();
+        this.nanoTime = nanoTime;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    public BoundedCache(int maxSize, Duration timeToLive) {
+        this(maxSize, timeToLive, System::nanoTime);
+    }
+
+    public BoundedCache(int maxSize) {
+        this(maxSize, null);
+    }
+
+    private boolean isExpired(Entry<V> entry, long now) {
+        return timeToLive > 0 && now - entry.created >= timeToLive;
+    }
+
+    /**
+     * @param key the key
+     * @return the cached value or null if not cached (or expired)
+     */
+    public V get(K key) {
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && isExpired(entry, nanoTime.getAsLong())) {
+                entries.remove(key);
+                evictions.incrementAndGet();
+                entry = null;
+            }
+            if (entry == null) {
+                misses.incrementAndGet();
+                return null;
+            }
+            hits.incrementAndGet();
+            return entry.value;
+        }
+    }
+
+    /**
+     * Adds the value to the cache. Null values are not cached.
+     * @param key the key
+     * @param value the value
+     */
+    public void put(K key, V value) {
+        if (value == null) {
+            return;
+        }
+        synchronized (entries) {
+            entries.put(key, new Entry<>(value, nanoTime.getAsLong()));
+            Iterator<Entry<V>> iterator = entries.values().iterator();
+            while (entries.size() > maxSize && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Returns the cached value or computes and caches it. The value is computed outside the lock, so it might be
+     * computed more than once for concurrent calls with the same key.
+     * @param key the key
+     * @param valueFunction computes the value if not cached
+     * @return the value
+     */
+    public V get(K key, Function<K, V> valueFunction) {
+        V value = get(key);
+        if (value == null) {
+            value = valueFunction.apply(key);
+            put(key, value);
+        }
+        return value;
+    }
+
+    public void remove(K key) {
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+
+    /**
+     * Removes all entries whose key matches the given filter.
+     * @param keyFilter the filter
+     * @return number of entries removed
+     */
+    public int removeIf(Predicate<K> keyFilter) {
+        synchronized (entries) {
+            int size = entries.size();
+            entries.keySet().removeIf(keyFilter);
+            return size - entries.size();
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * Removes all expired entries.
+     */
+    public void cleanUp() {
+        synchronized (entries) {
+            long now = nanoTime.getAsLong();
+            Iterator<Map.Entry<K, Entry<V>>> iterator = entries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                if (isExpired(iterator.next().getValue(), now)) {
+                    iterator.remove();
+                    evictions.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("BoundedCache(size=%s, maxSize=%s, hits=%s, misses=%s, evictions=%s)", size(), maxSize, getHitCount(), getMissCount(), getEvictionCount());
+    }
+}
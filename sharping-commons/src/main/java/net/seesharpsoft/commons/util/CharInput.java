@@ -0,0 +1,98 @@
+package net.seesharpsoft.commons.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.util.Objects;
+
+/**
+ * Character input that is read in chunks, e.g. to tokenize large inputs without materializing them. Line breaks
+ * "\r\n" are normalized to "\n" while reading - also if they are split between two chunks.
+ */
+public class CharInput implements Closeable {
+
+    public static final int DEFAULT_CHUNK_SIZE = 8192;
+
+    private final Readable source;
+    private final CharBuffer chunk;
+    private boolean pendingCarriageReturn;
+
+    public CharInput(Readable source, int chunkSize) {
+        Objects.requireNonNull(source, "source must be not null!");
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be greater than zero!");
+        }
+        this.source = source;
+        this.chunk = CharBuffer.allocate(chunkSize);
+    }
+
+    public CharInput(Readable source) {
+        this(source, DEFAULT_CHUNK_SIZE);
+    }
+
+    public static CharInput of(Reader reader) {
+        return new CharInput(reader);
+    }
+
+    public static CharInput of(CharBuffer buffer) {
+        return new CharInput(buffer);
+    }
+
+    public static CharInput of(ReadableByteChannel channel, Charset charset) {
+        return new CharInput(Channels.newReader(channel, charset.newDecoder(), -1));
+    }
+
+    public int getChunkSize() {
+        return chunk.capacity();
+    }
+
+    /**
+     * Reads the next chunk and appends it to the target.
+     * @param target the target to append to
+     * @return the number of chars appended or -1 if the end of the input was reached
+     * @throws IOException if reading fails
+     */
+    public int read(StringBuilder target) throws IOException {
+        int length = target.length();
+        int read;
+        do {
+            chunk.clear();
+            read = source.read(chunk);
+        } while (read == 0);
+        if (read == -1) {
+            if (pendingCarriageReturn) {
+                pendingCarriageReturn = false;
+                target.append('\r');
+                return 1;
+            }
+            return -1;
+        }
+        chunk.flip();
+        while (chunk.hasRemaining()) {
+            char current = chunk.get();
+            if (pendingCarriageReturn) {
+                pendingCarriageReturn = false;
+                if (current != '\n') {
+                    target.append('\r');
+                }
+            }
+            if (current == '\r') {
+                pendingCarriageReturn = true;
+            } else {
+                target.append(current);
+            }
+        }
+        return target.length() - length;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (source instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+}
@@ -16,10 +16,12 @@ public class Lexer<T> {
      * @param <T> the token type
      */
     public static class State<T> {
+        private final Lexer<T> lexer;
         private final String name;
         private Map<T, State> nextStates;
 
-        private State(String name) {
+        private State(Lexer<T> lexer, String name) {
+            this.lexer = lexer;
             this.name = name;
             nextStates = new HashMap<>();
         }
@@ -32,6 +34,7 @@ public class Lexer<T> {
                 }
                 nextStates.put(token, state);
             });
+            lexer.invalidateStateTable();
         }
 
         public void addNextState(State state, T... tokens) {
@@ -110,7 +113,7 @@ public class Lexer<T> {
     protected final Tokenizer<T> tokenizer;
     protected Set<State> states;
     protected State initialState;
-    protected State currentState;
+    private volatile StateTable<T> stateTable;
 
     public Lexer(Tokenizer<T> tokenizer) {
         this.states = new HashSet<>();
@@ -127,8 +130,9 @@ public class Lexer<T> {
 
     public State addState(String name) {
         Objects.requireNonNull(name, "state name must not be null!");
-        State state = new State(name);
+        State state = new State(this, name);
         states.add(state);
+        invalidateStateTable();
         if (getInitialState() == null) {
             setInitialState(state);
         }
@@ -146,23 +150,14 @@ public class Lexer<T> {
             throw new IllegalArgumentException(String.format("state '%s' is not defined in this Lexer instance", state.toString()));
         }
         initialState = state;
+        invalidateStateTable();
     }
 
     public State getInitialState() {
         return initialState;
     }
 
-    protected boolean tokenMatcherCallback(T token, String text) {
-        State nextState = currentState.getNextState(token);
-        if (nextState != null) {
-            currentState = nextState;
-        }
-        return nextState != null;
-    }
-
-    public synchronized List<Tokenizer.TokenInfo<T>> tokenize(String input) {
-        currentState = getInitialState();
-
+    protected Map<State, Collection<Tokenizer.Token<T>>> getStateToTokenMap() {
         final Map<State, Collection<Tokenizer.Token<T>>> stateToTokenMap = new HashMap();
         states.stream().forEach(state -> {
             stateToTokenMap.put(state, (Collection)state.nextStates.keySet().stream()
@@ -170,23 +165,140 @@ public class Lexer<T> {
                     .filter(token -> token != null)
                     .collect(Collectors.toList()));
         });
+        return stateToTokenMap;
+    }
+
+    protected void invalidateStateTable() {
+        this.stateTable = null;
+    }
+
+    /**
+     * The state graph compiled into an array based transition table. It is created once on first use and rebuilt only
+     * if states or tokens change.
+     * @return the state table
+     */
+    protected StateTable<T> getStateTable() {
+        StateTable<T> result = this.stateTable;
+        if (result == null || result.tokenizerVersion != tokenizer.getVersion()) {
+            result = new StateTable<>(tokenizer, getStateToTokenMap(), getInitialState());
+            this.stateTable = result;
+        }
+        return result;
+    }
+
+    /**
+     * Tokenizes the input following the lexer states. The current state is kept per call, so the lexer can be used
+     * concurrently as long as its states and tokens are not modified.
+     * @param input the input
+     * @return the tokens
+     */
+    public List<Tokenizer.TokenInfo<T>> tokenize(String input) {
         List<Tokenizer.TokenInfo<T>> tokenInfos = new ArrayList<>(input.length() / 5);
-        CharSequence fullText = input == null ? "" : input.replaceAll("\r\n", "\n");
-        int start = tokenizer.trimStart(fullText);
-        int end = tokenizer.trimEnd(fullText);
-        while (start < end)
-        {
-            Tokenizer.TokenInfo<T> nextToken = tokenizer.findToken(fullText, start, end, stateToTokenMap.get(currentState), this::tokenMatcherCallback);
-            if (nextToken == null) {
-                break;
-            }
-            Tokenizer.CharRange textWithRange = nextToken.textRange();
-            start = textWithRange.end() + tokenizer.trimStart(fullText.subSequence(nextToken.textRange().end(), end));
-            tokenInfos.add(nextToken);
+        TokenCursor<T> cursor = cursor(input);
+        while (cursor.next()) {
+            tokenInfos.add(cursor.toTokenInfo());
         }
         return tokenInfos;
     }
 
+    /**
+     * Creates a cursor to pull the tokens of the given input one by one following the lexer states. The cursor
+     * keeps its own state, so it is independent of other cursors and calls to {@link #tokenize(String)}.
+     * @param input the input
+     * @return the token cursor
+     */
+    public TokenCursor<T> cursor(String input) {
+        CharSequence fullText = Tokenizer.normalizeLineBreaks(input);
+        return new StateTokenCursor<>(tokenizer, fullText, tokenizer.trimStart(fullText), tokenizer.trimEnd(fullText), getStateTable());
+    }
+
+    /**
+     * Creates a cursor that reads the input chunk by chunk while pulling the tokens following the lexer states.
+     * @param input the input
+     * @return the token cursor
+     */
+    public TokenCursor<T> cursor(CharInput input) {
+        return new StateTokenCursor<>(tokenizer, input, getStateTable());
+    }
+
+    /**
+     * Immutable transition table of the lexer states: states and the tokens applicable per state are addressed by their
+     * index, the next state for a token found in a state is a plain array lookup.
+     * @param <T> the token type
+     */
+    protected static class StateTable<T> {
+        private final int tokenizerVersion;
+        private final State[] states;
+        private final Tokenizer.TokenPattern<T>[] tokenPatterns;
+        private final int[][] nextStates;
+        private final int initialState;
+
+        protected StateTable(Tokenizer<T> tokenizer, Map<State, Collection<Tokenizer.Token<T>>> stateToTokenMap, State initialState) {
+            this.tokenizerVersion = tokenizer.getVersion();
+            this.states = stateToTokenMap.keySet().toArray(new State[0]);
+            this.tokenPatterns = new Tokenizer.TokenPattern[states.length];
+            this.nextStates = new int[states.length][];
+            List<State> stateList = Arrays.asList(states);
+            for (int stateIndex = 0; stateIndex < states.length; ++stateIndex) {
+                Tokenizer.TokenPattern<T> tokenPattern = tokenizer.compile(stateToTokenMap.get(states[stateIndex]));
+                List<Tokenizer.Token<T>> tokens = tokenPattern.getTokens();
+                int[] next = new int[tokens.size()];
+                for (int tokenIndex = 0; tokenIndex < next.length; ++tokenIndex) {
+                    next[tokenIndex] = stateList.indexOf(states[stateIndex].getNextState(tokens.get(tokenIndex).token));
+                }
+                tokenPatterns[stateIndex] = tokenPattern;
+                nextStates[stateIndex] = next;
+            }
+            this.initialState = stateList.indexOf(initialState);
+        }
+
+        public int getInitialState() {
+            return initialState;
+        }
+
+        public State getState(int stateIndex) {
+            return stateIndex == -1 ? null : states[stateIndex];
+        }
+
+        public Tokenizer.TokenPattern<T> getTokenPattern(int stateIndex) {
+            return stateIndex == -1 ? null : tokenPatterns[stateIndex];
+        }
+
+        public int getNextState(int stateIndex, int tokenIndex) {
+            return nextStates[stateIndex][tokenIndex];
+        }
+    }
+
+    protected static class StateTokenCursor<T> extends TokenCursor<T> {
+        private final StateTable<T> stateTable;
+        private int state;
+
+        protected StateTokenCursor(Tokenizer<T> tokenizer, CharSequence text, int start, int end, StateTable<T> stateTable) {
+            super(tokenizer, text, start, end, stateTable.getTokenPattern(stateTable.getInitialState()), null);
+            this.stateTable = stateTable;
+            this.state = stateTable.getInitialState();
+        }
+
+        protected StateTokenCursor(Tokenizer<T> tokenizer, CharInput input, StateTable<T> stateTable) {
+            super(tokenizer, input, stateTable.getTokenPattern(stateTable.getInitialState()), null);
+            this.stateTable = stateTable;
+            this.state = stateTable.getInitialState();
+        }
+
+        public State<T> getState() {
+            return stateTable.getState(state);
+        }
+
+        @Override
+        protected void onToken(int tokenIndex) {
+            int nextState = stateTable.getNextState(state, tokenIndex);
+            if (nextState != state) {
+                state = nextState;
+                setTokenPattern(stateTable.getTokenPattern(nextState));
+            }
+        }
+    }
+
     public List<StateInfo<T>> parseStates(List<Tokenizer.TokenInfo<T>> tokenInfos) {
         StateInfo<T> stateInfo = new StateInfo<>(getInitialState());
         List<StateInfo<T>> stateInfos = new ArrayList<>();
@@ -0,0 +1,225 @@
+package net.seesharpsoft.commons.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiFunction;
+import java.util.regex.Matcher;
+
+/**
+ * Pull-style access to the tokens of an input. The cursor holds only the current token (type and range) and reuses
+ * its matchers, so iterating the tokens does not allocate per token.
+ * <pre>
+ * TokenCursor&lt;T&gt; cursor = tokenizer.cursor(input);
+ * while (cursor.next()) {
+ *     handle(cursor.tokenType(), cursor.start(), cursor.end());
+ * }
+ * </pre>
+ * @param <T> the token type
+ */
+public class TokenCursor<T> {
+
+    private final Tokenizer<?> tokenizer;
+    private final CharSequence text;
+    private final CharInput input;
+    private final Matcher trimMatcher;
+    private final Map<Tokenizer.TokenPattern<T>, Matcher> matchers;
+    private final BiFunction<T, String, Boolean> matcherCallback;
+    private Tokenizer.TokenPattern<T> tokenPattern;
+
+    private boolean initialized;
+    private boolean complete;
+    private int offset;
+    private int limit;
+    private int position;
+    private T tokenType;
+    private int start;
+    private int end;
+
+    private TokenCursor(Tokenizer<?> tokenizer, CharSequence text, CharInput input, Tokenizer.TokenPattern<T> tokenPattern, BiFunction<T, String, Boolean> matcherCallback) {
+        Objects.requireNonNull(tokenizer, "tokenizer must be not null!");
+        this.tokenizer = tokenizer;
+        this.text = text;
+        this.input = input;
+        this.trimMatcher = tokenizer.createTrimMatcher(text);
+        this.matchers = new IdentityHashMap<>();
+        this.matcherCallback = matcherCallback;
+        this.tokenPattern = tokenPattern;
+        this.start = -1;
+        this.end = -1;
+    }
+
+    protected TokenCursor(Tokenizer<?> tokenizer, CharSequence text, int start, int end, Tokenizer.TokenPattern<T> tokenPattern, BiFunction<T, String, Boolean> matcherCallback) {
+        this(tokenizer, Objects.requireNonNull(text, "text must be not null!"), null, tokenPattern, matcherCallback);
+        this.position = start;
+        this.limit = end;
+        this.initialized = true;
+        this.complete = true;
+    }
+
+    /**
+     * Creates a cursor reading its text chunk by chunk from the given input. Only the part of the input that is not
+     * consumed yet is buffered - it grows beyond the chunk size only if a single token (or the decision which token
+     * matches) requires more input.
+     */
+    protected TokenCursor(Tokenizer<?> tokenizer, CharInput input, Tokenizer.TokenPattern<T> tokenPattern, BiFunction<T, String, Boolean> matcherCallback) {
+        this(tokenizer, new StringBuilder(2 * Objects.requireNonNull(input, "input must be not null!").getChunkSize()), input, tokenPattern, matcherCallback);
+    }
+
+    protected Tokenizer.TokenPattern<T> getTokenPattern() {
+        return tokenPattern;
+    }
+
+    protected void setTokenPattern(Tokenizer.TokenPattern<T> tokenPattern) {
+        this.tokenPattern = tokenPattern;
+    }
+
+    /**
+     * Called for every token found - can be overridden to react on the token, e.g. to switch the token pattern.
+     * @param tokenIndex the index of the token found within the current token pattern
+     */
+    protected void onToken(int tokenIndex) {
+        // nothing to do by default
+    }
+
+    /**
+     * Moves the cursor to the next token.
+     * @return false if there are no more tokens
+     * @throws UncheckedIOException if reading a chunked input fails
+     */
+    public boolean next() {
+        if (!initialized) {
+            initialized = true;
+            position = trimStart(position);
+        }
+        Tokenizer.TokenPattern<T> currentPattern = getTokenPattern();
+        if (currentPattern == null) {
+            return reachedEnd();
+        }
+        compact();
+        Matcher matcher = matchers.get(currentPattern);
+        if (matcher == null) {
+            matcher = currentPattern.matcher(text);
+            matchers.put(currentPattern, matcher);
+        }
+        int tokenIndex;
+        while (true) {
+            if (position >= limit) {
+                if (complete) {
+                    return reachedEnd();
+                }
+                fill();
+                continue;
+            }
+            tokenIndex = currentPattern.match(matcher, position, limit, matcherCallback, !complete);
+            if (tokenIndex != Tokenizer.TokenPattern.INCOMPLETE) {
+                break;
+            }
+            fill();
+        }
+        if (tokenIndex == -1) {
+            return reachedEnd();
+        }
+        tokenType = currentPattern.getToken(tokenIndex);
+        start = position;
+        end = matcher.end();
+        position = trimStart(end);
+        onToken(tokenIndex);
+        return true;
+    }
+
+    private boolean reachedEnd() {
+        position = limit;
+        tokenType = null;
+        start = -1;
+        end = -1;
+        return false;
+    }
+
+    private int trimStart(int from) {
+        if (trimMatcher == null) {
+            return from;
+        }
+        while (true) {
+            trimMatcher.region(from, limit);
+            boolean found = trimMatcher.lookingAt();
+            if (complete || !trimMatcher.hitEnd()) {
+                return found ? trimMatcher.end() : from;
+            }
+            fill();
+        }
+    }
+
+    private void fill() {
+        try {
+            if (input.read((StringBuilder) text) == -1) {
+                complete = true;
+            }
+        } catch (IOException exc) {
+            throw new UncheckedIOException(exc);
+        }
+        // trailing trim characters are excluded as long as it is unknown whether more tokens follow
+        limit = tokenizer.trimEnd(text);
+    }
+
+    private void compact() {
+        if (input == null || position < input.getChunkSize()) {
+            return;
+        }
+        ((StringBuilder) text).delete(0, position);
+        offset += position;
+        limit -= position;
+        position = 0;
+    }
+
+    public T tokenType() {
+        return tokenType;
+    }
+
+    /**
+     * @return the start of the current token within the whole input
+     */
+    public int start() {
+        return start == -1 ? -1 : offset + start;
+    }
+
+    /**
+     * @return the end of the current token within the whole input
+     */
+    public int end() {
+        return end == -1 ? -1 : offset + end;
+    }
+
+    public int length() {
+        return end - start;
+    }
+
+    /**
+     * Note: for chunked input this is the internal buffer that only contains the part of the input not consumed yet.
+     * @return the text tokenized
+     */
+    public CharSequence source() {
+        return text;
+    }
+
+    /**
+     * Note: creates a new sequence on every call.
+     * @return the text of the current token
+     */
+    public CharSequence text() {
+        return text.subSequence(start, end);
+    }
+
+    /**
+     * Note: for chunked input the char range of the token info refers to a copy of the token text only.
+     * @return the current token as token info
+     */
+    public Tokenizer.TokenInfo<T> toTokenInfo() {
+        if (input != null) {
+            return new Tokenizer.TokenInfo<>(tokenType, text().toString());
+        }
+        return new Tokenizer.TokenInfo<>(tokenType, new Tokenizer.CharRange(text, start, end));
+    }
+}
@@ -2,9 +2,11 @@ package net.seesharpsoft.commons.util;
 
 import java.text.ParseException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiFunction;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 public class Tokenizer<T> {
     public static class Token<T> {
@@ -145,13 +147,271 @@ public class Tokenizer<T> {
         }
     }
 
+    /**
+     * A collection of tokens merged into a single anchored alternation, so that the next token can be determined by one
+     * regex match instead of trying every token pattern in sequence.
+     * @param <T> the token type
+     */
+    public static class TokenPattern<T> {
+        public static final int INCOMPLETE = -2;
+
+        private static final int MERGEABLE_FLAGS = Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE | Pattern.DOTALL | Pattern.UNIX_LINES | Pattern.UNICODE_CHARACTER_CLASS;
+
+        protected final List<Token<T>> tokens;
+        protected final Pattern pattern;
+        protected final int[] groups;
+
+        public TokenPattern(Collection<Token<T>> tokenCollection, boolean merge) {
+            Objects.requireNonNull(tokenCollection, "tokenCollection must be not null!");
+            this.tokens = new ArrayList<>(tokenCollection);
+            this.groups = new int[this.tokens.size()];
+            this.pattern = merge ? merge(this.tokens, this.groups) : null;
+        }
+
+        public TokenPattern(Collection<Token<T>> tokenCollection) {
+            this(tokenCollection, true);
+        }
+
+        private static <T> Pattern merge(List<Token<T>> tokens, int[] groups) {
+            if (tokens.isEmpty()) {
+                return null;
+            }
+            StringBuilder builder = new StringBuilder();
+            int group = 1;
+            for (int i = 0; i < tokens.size(); ++i) {
+                Pattern regex = tokens.get(i).regex;
+                if (!isMergeable(regex)) {
+                    return null;
+                }
+                if (i > 0) {
+                    builder.append('|');
+                }
+                builder.append("((?").append(toInlineFlags(regex.flags())).append(':').append(regex.pattern()).append("))");
+                groups[i] = group;
+                group += 1 + regex.matcher("").groupCount();
+            }
+            try {
+                return Pattern.compile(builder.toString());
+            } catch (PatternSyntaxException exc) {
+                // e.g. named groups defined by multiple tokens
+                return null;
+            }
+        }
+
+        private static String toInlineFlags(int flags) {
+            StringBuilder builder = new StringBuilder();
+            if ((flags & Pattern.CASE_INSENSITIVE) != 0) {
+                builder.append('i');
+            }
+            if ((flags & Pattern.UNICODE_CASE) != 0) {
+                builder.append('u');
+            }
+            if ((flags & Pattern.DOTALL) != 0) {
+                builder.append('s');
+            }
+            if ((flags & Pattern.UNIX_LINES) != 0) {
+                builder.append('d');
+            }
+            if ((flags & Pattern.UNICODE_CHARACTER_CLASS) != 0) {
+                builder.append('U');
+            }
+            return builder.toString();
+        }
+
+        /**
+         * A token regex can be part of the alternation only if it is of the form <code>^(...)</code> - otherwise a
+         * <code>find()</code> could match behind the current position - and does not contain constructs that change
+         * their meaning when embedded (back references, comments).
+         */
+        private static boolean isMergeable(Pattern regex) {
+            if ((regex.flags() & ~MERGEABLE_FLAGS) != 0) {
+                return false;
+            }
+            String pattern = regex.pattern();
+            if (!pattern.startsWith("^(")) {
+                return false;
+            }
+            int depth = 0;
+            int length = pattern.length();
+            for (int i = 1; i < length; ++i) {
+                char current = pattern.charAt(i);
+                switch (current) {
+                    case '\\':
+                        if (++i == length) {
+                            return false;
+                        }
+                        char escaped = pattern.charAt(i);
+                        if (escaped == 'Q') {
+                            int quoteEnd = pattern.indexOf("\\E", i);
+                            if (quoteEnd == -1) {
+                                return false;
+                            }
+                            i = quoteEnd + 1;
+                        } else if (escaped == 'k' || (escaped >= '1' && escaped <= '9')) {
+                            return false;
+                        }
+                        break;
+                    case '[':
+                        i = skipCharacterClass(pattern, i);
+                        if (i == -1) {
+                            return false;
+                        }
+                        break;
+                    case '(':
+                        if (pattern.startsWith("(?", i) && hasCommentsFlag(pattern, i + 2)) {
+                            return false;
+                        }
+                        ++depth;
+                        break;
+                    case ')':
+                        if (--depth == 0 && i != length - 1) {
+                            return false;
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            }
+            return depth == 0;
+        }
+
+        private static boolean hasCommentsFlag(String pattern, int index) {
+            for (int i = index; i < pattern.length(); ++i) {
+                char current = pattern.charAt(i);
+                if (current == 'x') {
+                    return true;
+                }
+                if (!Character.isLetter(current) && current != '-') {
+                    break;
+                }
+            }
+            return false;
+        }
+
+        private static int skipCharacterClass(String pattern, int index) {
+            int depth = 0;
+            int length = pattern.length();
+            for (int i = index; i < length; ++i) {
+                char current = pattern.charAt(i);
+                switch (current) {
+                    case '\\':
+                        ++i;
+                        break;
+                    case '[':
+                        ++depth;
+                        if (i + 1 < length && pattern.charAt(i + 1) == '^') {
+                            ++i;
+                        }
+                        if (i + 1 < length && pattern.charAt(i + 1) == ']') {
+                            ++i;
+                        }
+                        break;
+                    case ']':
+                        if (--depth == 0) {
+                            return i;
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            }
+            return -1;
+        }
+
+        public List<Token<T>> getTokens() {
+            return Collections.unmodifiableList(tokens);
+        }
+
+        public T getToken(int index) {
+            return tokens.get(index).token;
+        }
+
+        /**
+         * Matches the tokens at the beginning of the given region of the matcher input. The end of the match is
+         * available via {@link Matcher#end()} afterwards.
+         * @param matcher the matcher to use - its pattern is switched if required
+         * @param start the region start
+         * @param end the region end
+         * @param matcherCallback optional callback to reject a matching token
+         * @return the index of the matching token or -1 if none matches
+         */
+        public int match(Matcher matcher, int start, int end, BiFunction<T, String, Boolean> matcherCallback) {
+            return match(matcher, start, end, matcherCallback, false);
+        }
+
+        /**
+         * Matches the tokens at the beginning of the given region of the matcher input, which might be only a part of
+         * the whole input.
+         * @param matcher the matcher to use - its pattern is switched if required
+         * @param start the region start
+         * @param end the region end
+         * @param matcherCallback optional callback to reject a matching token
+         * @param partial whether more input may follow the region end
+         * @return the index of the matching token, -1 if none matches or {@link #INCOMPLETE} if the result depends on
+         * input following the region end
+         */
+        public int match(Matcher matcher, int start, int end, BiFunction<T, String, Boolean> matcherCallback, boolean partial) {
+            int tokenIndex = 0;
+            if (isMerged()) {
+                if (matcher.pattern() != pattern) {
+                    matcher.usePattern(pattern);
+                }
+                matcher.region(start, end);
+                boolean found = matcher.lookingAt();
+                if (partial && matcher.hitEnd()) {
+                    return INCOMPLETE;
+                }
+                if (!found) {
+                    return -1;
+                }
+                while (matcher.start(groups[tokenIndex]) == -1) {
+                    ++tokenIndex;
+                }
+                if (matcherCallback == null || matcherCallback.apply(getToken(tokenIndex), matcher.group())) {
+                    return tokenIndex;
+                }
+                // rejected by callback - continue with the remaining tokens one by one
+                ++tokenIndex;
+            }
+            for (; tokenIndex < tokens.size(); ++tokenIndex) {
+                Token<T> info = tokens.get(tokenIndex);
+                matcher.usePattern(info.regex);
+                matcher.region(start, end);
+                boolean found = matcher.find();
+                if (partial && matcher.hitEnd()) {
+                    return INCOMPLETE;
+                }
+                if (found &&
+                        (matcherCallback == null || matcherCallback.apply(info.token, matcher.group()))
+                ) {
+                    return tokenIndex;
+                }
+            }
+            return -1;
+        }
+
+        public Matcher matcher(CharSequence text) {
+            return (isMerged() ? pattern : NO_PATTERN).matcher(text);
+        }
+
+        public boolean isMerged() {
+            return pattern != null;
+        }
+    }
+
+    private static final Pattern NO_PATTERN = Pattern.compile("");
+
     private Map<T, Token<T>> tokenMap;
+    private Map<List<Token<?>>, TokenPattern<?>> tokenPatternCache;
     private Pattern trimPatternStart;
     private Pattern trimPatternEnd;
     private boolean caseSensitive;
+    private boolean compiled;
+    private volatile int version;
 
     public Tokenizer() {
         tokenMap = new HashMap<>();
+        tokenPatternCache = new ConcurrentHashMap<>();
         setCaseSensitive(true);
     }
 
@@ -164,8 +424,28 @@ public class Tokenizer<T> {
         return this;
     }
 
+    public boolean getCompiled() {
+        return this.compiled;
+    }
+
+    /**
+     * In compiled mode all tokens applicable at a position are matched by a single merged regex via one reusable
+     * {@link Matcher} restricted to the remaining input region, instead of matching each token pattern against a copy
+     * of the remaining input. The resulting tokens are the same in both modes.
+     * @param compiled whether to use the compiled mode
+     * @return this tokenizer
+     */
+    public Tokenizer<T> setCompiled(boolean compiled) {
+        this.compiled = compiled;
+        tokenPatternCache.clear();
+        ++version;
+        return this;
+    }
+
     protected Tokenizer<T> add(Token<T> token) {
         tokenMap.put(token.token, token);
+        tokenPatternCache.clear();
+        ++version;
         return this;
     }
 
@@ -181,6 +461,13 @@ public class Tokenizer<T> {
         return this.add(token, regex, getCaseSensitive());
     }
 
+    /**
+     * @return a counter that changes whenever the tokens or the tokenizer mode change
+     */
+    protected int getVersion() {
+        return version;
+    }
+
     public Collection<Token<T>> getTokenCollection() {
         return tokenMap.values();
     }
@@ -216,6 +503,37 @@ public class Tokenizer<T> {
         return matcher.start();
     }
 
+    protected static String normalizeLineBreaks(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.indexOf('\r') == -1 ? text : text.replace("\r\n", "\n");
+    }
+
+    protected Matcher createTrimMatcher(CharSequence text) {
+        return trimPatternStart == null ? null : trimPatternStart.matcher(text);
+    }
+
+    public <T> TokenPattern<T> compile(Collection<Token<T>> tokenCollection) {
+        List<Token<?>> key = new ArrayList<>(tokenCollection);
+        return (TokenPattern<T>) tokenPatternCache.computeIfAbsent(key, tokens -> new TokenPattern<>(tokenCollection, getCompiled()));
+    }
+
+    public <T> TokenInfo<T> findToken(
+            Matcher matcher,
+            CharSequence text,
+            int start,
+            int end,
+            TokenPattern<T> tokenPattern,
+            BiFunction<T, String, Boolean> matcherCallback
+    ) {
+        int tokenIndex = tokenPattern.match(matcher, start, end, matcherCallback);
+        if (tokenIndex == -1) {
+            return null;
+        }
+        return new TokenInfo(tokenPattern.getToken(tokenIndex), new CharRange(text, start, matcher.end()));
+    }
+
     public <T> TokenInfo<T> findToken(
             CharSequence text,
             int start,
@@ -237,9 +555,16 @@ public class Tokenizer<T> {
 
     public <T> List<TokenInfo<T>> tokenize(String str, Collection<Token<T>> tokenCollection, BiFunction<T, String, Boolean> matcherCallback) throws ParseException {
         List<TokenInfo<T>> tokenInfos = new LinkedList<>();
-        CharSequence fullText = str == null ? "" : str.replaceAll("\r\n", "\n");
+        CharSequence fullText = normalizeLineBreaks(str);
         int start = trimStart(fullText);
         int end = trimEnd(fullText);
+        if (getCompiled()) {
+            TokenCursor<T> cursor = new TokenCursor<>(this, fullText, start, end, compile(tokenCollection), matcherCallback);
+            while (cursor.next()) {
+                tokenInfos.add(cursor.toTokenInfo());
+            }
+            return tokenInfos;
+        }
         while (start < end) {
             TokenInfo<T> nextToken = findToken(fullText, start, end, tokenCollection, matcherCallback);
             if (nextToken == null) {
@@ -259,4 +584,23 @@ public class Tokenizer<T> {
     public List<TokenInfo<T>> tokenize(String str) throws ParseException {
         return tokenize(str, tokenMap.values(), null);
     }
+
+    /**
+     * Creates a cursor to pull the tokens of the given input one by one without materializing them.
+     * @param str the input
+     * @return the token cursor
+     */
+    public TokenCursor<T> cursor(String str) {
+        CharSequence fullText = normalizeLineBreaks(str);
+        return new TokenCursor<>(this, fullText, trimStart(fullText), trimEnd(fullText), compile(tokenMap.values()), null);
+    }
+
+    /**
+     * Creates a cursor that reads the input chunk by chunk while pulling the tokens.
+     * @param input the input
+     * @return the token cursor
+     */
+    public TokenCursor<T> cursor(CharInput input) {
+        return new TokenCursor<>(this, input, compile(tokenMap.values()), null);
+    }
 }
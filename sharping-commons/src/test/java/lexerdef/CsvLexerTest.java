@@ -1,18 +1,28 @@
 package lexerdef;
 
+import net.seesharpsoft.commons.util.CharInput;
 import net.seesharpsoft.commons.util.Lexer;
 import net.seesharpsoft.commons.util.SharpIO;
+import net.seesharpsoft.commons.util.TokenCursor;
 import net.seesharpsoft.commons.util.Tokenizer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 
 import java.io.IOException;
+import java.io.StringReader;
 import java.text.ParseException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.lessThan;
 
 public class CsvLexerTest {
 
@@ -61,4 +71,86 @@ public class CsvLexerTest {
 
         assertThat(stateInfo, hasSize(136529));
     }
+
+    @Test
+    public void compiled_should_lex_large_csv_same_as_default_mode() throws IOException, ParseException {
+        String input = SharpIO.readAsString("/lexerdef/csv/large.csv");
+        List<Tokenizer.TokenInfo> expected = csvLexer.tokenize(input);
+
+        Lexer compiledLexer = new Lexer<>(new Tokenizer<>().setCompiled(true));
+        compiledLexer.init("/lexerdef/csv.lex");
+
+        long start = System.currentTimeMillis();
+        List<Tokenizer.TokenInfo> tokenInfos = compiledLexer.tokenize(input);
+        long end = System.currentTimeMillis();
+
+        System.out.println("Elapsed time in s: " + ((end - start) / 1000.0));
+
+        assertThat(tokenInfos, equalTo(expected));
+    }
+
+    @Test
+    public void cursor_should_lex_complex_csv_same_as_tokenize() throws IOException, ParseException {
+        String input = SharpIO.readAsString("/lexerdef/csv/complex.csv");
+        List<Tokenizer.TokenInfo> expected = csvLexer.tokenize(input);
+
+        List<Tokenizer.TokenInfo> tokenInfos = new ArrayList<>();
+        TokenCursor cursor = csvLexer.cursor(input);
+        while (cursor.next()) {
+            tokenInfos.add(cursor.toTokenInfo());
+        }
+
+        assertThat(tokenInfos, equalTo(expected));
+    }
+
+    private void assertConcurrentTokenizeIsStable(Lexer lexer, String input) throws InterruptedException, ExecutionException {
+        List<Tokenizer.TokenInfo> expected = lexer.tokenize(input);
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors());
+        ExecutorService executorService = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<List<Tokenizer.TokenInfo>>> results = new ArrayList<>();
+            for (int i = 0; i < threads * 8; ++i) {
+                results.add(executorService.submit(() -> lexer.tokenize(input)));
+            }
+            for (Future<List<Tokenizer.TokenInfo>> result : results) {
+                assertThat(result.get(), equalTo(expected));
+            }
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    @Test
+    public void tokenize_should_return_identical_output_when_called_concurrently() throws IOException, InterruptedException, ExecutionException {
+        assertConcurrentTokenizeIsStable(csvLexer, SharpIO.readAsString("/lexerdef/csv/complex.csv"));
+    }
+
+    @Test
+    public void compiled_tokenize_should_return_identical_output_when_called_concurrently() throws IOException, InterruptedException, ExecutionException {
+        Lexer compiledLexer = new Lexer<>(new Tokenizer<>().setCompiled(true));
+        compiledLexer.init("/lexerdef/csv.lex");
+
+        assertConcurrentTokenizeIsStable(compiledLexer, SharpIO.readAsString("/lexerdef/csv/large.csv"));
+    }
+
+    @Test
+    public void chunked_cursor_should_lex_large_csv_same_as_tokenize() throws IOException {
+        String input = SharpIO.readAsString("/lexerdef/csv/large.csv");
+        List<Tokenizer.TokenInfo> expected = csvLexer.tokenize(input);
+
+        List<Tokenizer.TokenInfo> tokenInfos = new ArrayList<>();
+        try (CharInput charInput = new CharInput(new StringReader(input), 128)) {
+            TokenCursor cursor = csvLexer.cursor(charInput);
+            while (cursor.next()) {
+                tokenInfos.add(cursor.toTokenInfo());
+            }
+            assertThat(cursor.source().length(), lessThan(1024));
+        }
+
+        assertThat(tokenInfos, hasSize(expected.size()));
+        for (int i = 0; i < expected.size(); ++i) {
+            assertThat(tokenInfos.get(i).token(), equalTo(expected.get(i).token()));
+            assertThat(tokenInfos.get(i).text(), equalTo(expected.get(i).text()));
+        }
+    }
 }
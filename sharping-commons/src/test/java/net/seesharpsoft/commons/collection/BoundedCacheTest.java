@@ -0,0 +1,55 @@
+package net.seesharpsoft.commons.collection;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class BoundedCacheTest {
+
+    @Test
+    public void should_evict_least_recently_used_entry_if_full() {
+        BoundedCache<String, Integer> cache = new BoundedCache<>(2);
+
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.get("a");
+        cache.put("c", 3);
+
+        assertThat(cache.size(), is(2));
+        assertThat(cache.get("a"), is(1));
+        assertThat(cache.get("b"), nullValue());
+        assertThat(cache.get("c"), is(3));
+        assertThat(cache.getEvictionCount(), is(1L));
+    }
+
+    @Test
+    public void should_expire_entries_after_time_to_live() {
+        AtomicLong now = new AtomicLong();
+        BoundedCache<String, Integer> cache = new BoundedCache<>(10, Duration.ofSeconds(1), now::get);
+
+        cache.put("a", 1);
+        now.addAndGet(Duration.ofMillis(999).toNanos());
+        assertThat(cache.get("a"), is(1));
+        now.addAndGet(Duration.ofMillis(1).toNanos());
+        assertThat(cache.get("a"), nullValue());
+        assertThat(cache.size(), is(0));
+        assertThat(cache.getEvictionCount(), is(1L));
+    }
+
+    @Test
+    public void should_count_hits_and_misses() {
+        BoundedCache<String, Integer> cache = new BoundedCache<>(10);
+
+        assertThat(cache.get("a", key -> 1), is(1));
+        assertThat(cache.get("a", key -> 2), is(1));
+        assertThat(cache.get("b"), nullValue());
+
+        assertThat(cache.getHitCount(), is(1L));
+        assertThat(cache.getMissCount(), is(2L));
+    }
+}
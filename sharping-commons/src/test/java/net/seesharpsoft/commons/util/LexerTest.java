@@ -130,4 +130,37 @@ public class LexerTest {
         assertThat(lexer.getTokenizer().getToken(1), equalTo(customTokenizer.createToken(1, "[^ ]+", customTokenizer.getCaseSensitive())));
         assertThat(lexer.getTokenizer().getToken(2), equalTo(customTokenizer.createToken(2, "def|hij", customTokenizer.getCaseSensitive())));
     }
+
+    @Test
+    public void state_table_should_be_reused_until_lexer_changes() throws IOException {
+        Lexer<Integer> lexer = new Lexer<>(tokenizer);
+        lexer.init("/lexer/lexer_init_simple.lex", token -> Integer.parseInt(token));
+
+        Lexer.StateTable<Integer> stateTable = lexer.getStateTable();
+
+        assertThat(lexer.getStateTable(), sameInstance(stateTable));
+        lexer.getState("end").addNextState(lexer.getState("start"), 0);
+        assertThat(lexer.getStateTable(), not(sameInstance(stateTable)));
+        stateTable = lexer.getStateTable();
+        tokenizer.add(3, "xyz");
+        assertThat(lexer.getStateTable(), not(sameInstance(stateTable)));
+    }
+
+    @Test
+    public void tokenize_should_follow_states() throws IOException {
+        Tokenizer<Integer> stateTokenizer = new Tokenizer<>();
+        stateTokenizer.setTrimPattern(" ");
+        stateTokenizer.add(0, "abc");
+        stateTokenizer.add(1, "x+");
+        stateTokenizer.add(2, "def");
+        Lexer<Integer> lexer = new Lexer<>(stateTokenizer);
+        lexer.init("/lexer/lexer_init_simple.lex", token -> Integer.parseInt(token));
+        String input = "abc xxx def abc";
+
+        assertThat(lexer.tokenize(input), contains(
+                new Tokenizer.TokenInfo(0, new Tokenizer.CharRange(input, 0, 3)),
+                new Tokenizer.TokenInfo(1, new Tokenizer.CharRange(input, 4, 7)),
+                new Tokenizer.TokenInfo(2, new Tokenizer.CharRange(input, 8, 11))
+        ));
+    }
 }
@@ -3,7 +3,10 @@ package net.seesharpsoft.commons.util;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.Test;
 
+import java.io.StringReader;
 import java.text.ParseException;
+import java.util.List;
+import java.util.regex.Pattern;
 
 import static org.hamcrest.Matchers.*;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -93,4 +96,108 @@ public class TokenizerTest {
                 new Tokenizer.TokenInfo(0, new Tokenizer.CharRange("def      abc ", 9, 12))));
     }
 
+    @Test
+    public void compiled_tokenize_should_return_same_tokens_as_default_mode() throws ParseException {
+        String input = "def  ABC abcdef\r\nxyz abc";
+        Tokenizer<Integer> tokenizer = new Tokenizer<>();
+        tokenizer.setCaseSensitive(false);
+        tokenizer.setTrimPattern("\n| ");
+
+        tokenizer.add(0, "abc");
+        tokenizer.add(1, "def");
+        tokenizer.add(2, "(x)(y)z");
+
+        List<Tokenizer.TokenInfo<Integer>> expected = tokenizer.tokenize(input);
+        tokenizer.setCompiled(true);
+
+        assertThat(expected, hasSize(6));
+        assertThat(tokenizer.tokenize(input), equalTo(expected));
+        assertThat(tokenizer.compile(tokenizer.getTokenCollection()).isMerged(), is(true));
+    }
+
+    @Test
+    public void compiled_tokenize_should_respect_matcher_callback() throws ParseException {
+        String input = "abc def";
+        Tokenizer<Integer> tokenizer = new Tokenizer<>();
+        tokenizer.setTrimPattern(" ");
+        tokenizer.setCompiled(true);
+
+        tokenizer.add(0, "abc|def");
+        tokenizer.add(1, "[a-z]+");
+
+        assertThat(tokenizer.tokenize(input, (token, text) -> token != 0 || text.equals("abc")), Matchers.contains(
+                new Tokenizer.TokenInfo(0, new Tokenizer.CharRange(input, 0, 3)),
+                new Tokenizer.TokenInfo(1, new Tokenizer.CharRange(input, 4, 7))));
+    }
+
+    @Test
+    public void compiled_tokenize_should_handle_tokens_that_cannot_be_merged() throws ParseException {
+        String input = "a1 b2";
+        Tokenizer<Integer> tokenizer = new Tokenizer<Integer>() {
+            @Override
+            protected Token<Integer> createToken(Integer token, String regex, boolean caseSensitive) {
+                return new Token<>(token, Pattern.compile(regex));
+            }
+        };
+        tokenizer.setTrimPattern(" ");
+
+        tokenizer.add(0, "([a-z])\\d");
+        tokenizer.add(1, "\\d");
+
+        List<Tokenizer.TokenInfo<Integer>> expected = tokenizer.tokenize(input);
+        tokenizer.setCompiled(true);
+
+        assertThat(tokenizer.compile(tokenizer.getTokenCollection()).isMerged(), is(false));
+        assertThat(tokenizer.tokenize(input), equalTo(expected));
+    }
+
+    @Test
+    public void cursor_should_iterate_tokens() {
+        String input = "def      abc ";
+        Tokenizer<Integer> tokenizer = new Tokenizer<>();
+        tokenizer.setTrimPattern(" ");
+
+        tokenizer.add(0, "abc");
+        tokenizer.add(1, "def");
+
+        TokenCursor<Integer> cursor = tokenizer.cursor(input);
+
+        assertThat(cursor.next(), is(true));
+        assertThat(cursor.tokenType(), is(1));
+        assertThat(cursor.start(), is(0));
+        assertThat(cursor.end(), is(3));
+        assertThat(cursor.next(), is(true));
+        assertThat(cursor.tokenType(), is(0));
+        assertThat(cursor.start(), is(9));
+        assertThat(cursor.end(), is(12));
+        assertThat(cursor.text().toString(), is("abc"));
+        assertThat(cursor.next(), is(false));
+        assertThat(cursor.tokenType(), nullValue());
+    }
+
+    @Test
+    public void chunked_cursor_should_return_same_tokens_as_tokenize() throws ParseException {
+        String input = "  abc def\r\nabcdef \r\n xyz\r\rabc  \r\n";
+        Tokenizer<Integer> tokenizer = new Tokenizer<>();
+        tokenizer.setTrimPattern("\n| ");
+
+        tokenizer.add(0, "abc");
+        tokenizer.add(1, "def");
+        tokenizer.add(2, "[^ \n]+");
+
+        List<Tokenizer.TokenInfo<Integer>> expected = tokenizer.tokenize(input);
+
+        for (int chunkSize = 1; chunkSize < input.length() + 2; ++chunkSize) {
+            TokenCursor<Integer> cursor = tokenizer.cursor(new CharInput(new StringReader(input), chunkSize));
+            for (Tokenizer.TokenInfo<Integer> tokenInfo : expected) {
+                assertThat(cursor.next(), is(true));
+                assertThat(cursor.tokenType(), is(tokenInfo.token()));
+                assertThat(cursor.text().toString(), is(tokenInfo.text()));
+                assertThat(cursor.start(), is(tokenInfo.textRange().start()));
+                assertThat(cursor.end(), is(tokenInfo.textRange().end()));
+            }
+            assertThat(cursor.next(), is(false));
+        }
+    }
+
 }
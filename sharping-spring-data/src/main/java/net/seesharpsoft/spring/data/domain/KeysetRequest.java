@@ -0,0 +1,311 @@
+package net.seesharpsoft.spring.data.domain;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.util.Assert;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.*;
+import java.util.*;
+import java.util.function.BiFunction;
+
+/**
+ * Keyset (seek) pagination: instead of skipping an offset, the next page starts after the sort values of the last row
+ * of the previous page. The cost of a page does not depend on how deep it is.
+ * <p>
+ * The sort must be given and should be unique (e.g. end with the id), otherwise rows sharing the sort values of the
+ * last row are skipped. Sort properties must be non-null fields of the selectable.
+ * <p>
+ * The position is passed between requests as opaque continuation token (see {@link KeysetSlice#getContinuationToken()}
+ * and {@link #of(String, int)}).
+ */
+public class KeysetRequest implements Pageable {
+
+    private static final int TOKEN_VERSION = 1;
+
+    private final List<Object> lastValues;
+    private final int limit;
+    private final Sort sort;
+
+    /**
+     * @param lastValues the values of the sort properties (in sort order) of the last row of the previous page - empty
+     *                   for the first page
+     * @param limit      the page size
+     * @param sort       the sort
+     */
+    public KeysetRequest(List<?> lastValues, int limit, Sort sort) {
+        Assert.isTrue(limit > 0, "limit must be greater than 0!");
+        Assert.notNull(sort, "sort must not be null!");
+        Assert.isTrue(sort.isSorted(), "keyset pagination requires a sort!");
+        this.lastValues = lastValues == null ? Collections.emptyList() : Collections.unmodifiableList(new ArrayList<>(lastValues));
+        Assert.isTrue(this.lastValues.isEmpty() || this.lastValues.size() == sort.stream().count(), "a value for each sort property expected!");
+        this.limit = limit;
+        this.sort = sort;
+    }
+
+    public KeysetRequest(int limit, Sort sort) {
+        this(null, limit, sort);
+    }
+
+    /**
+     * Restores a request from a continuation token.
+     * @param continuationToken the token - null or empty for the first page
+     * @param limit the page size
+     * @param sort the sort - must match the sort of the token
+     * @return the request
+     * @throws IllegalArgumentException if the token is invalid or does not match the sort
+     */
+    public static KeysetRequest of(String continuationToken, int limit, Sort sort) {
+        if (continuationToken == null || continuationToken.isEmpty()) {
+            return new KeysetRequest(limit, sort);
+        }
+        KeysetRequest request = of(continuationToken, limit);
+        Assert.isTrue(sort == null || sort.isUnsorted() || sort.equals(request.getSort()), "continuation token does not match sort!");
+        return request;
+    }
+
+    /**
+     * Restores a request (including its sort) from a continuation token.
+     * @param continuationToken the token
+     * @param limit the page size
+     * @return the request
+     * @throws IllegalArgumentException if the token is invalid
+     */
+    public static KeysetRequest of(String continuationToken, int limit) {
+        Assert.hasText(continuationToken, "continuationToken must not be empty!");
+        try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(Base64.getUrlDecoder().decode(continuationToken)))) {
+            Assert.isTrue(input.readUnsignedByte() == TOKEN_VERSION, "unknown continuation token version!");
+            int size = input.readUnsignedShort();
+            List<Sort.Order> orders = new ArrayList<>(size);
+            List<Object> values = new ArrayList<>(size);
+            for (int i = 0; i < size; ++i) {
+                Sort.Direction direction = input.readBoolean() ? Sort.Direction.ASC : Sort.Direction.DESC;
+                orders.add(new Sort.Order(direction, input.readUTF()));
+                values.add(readValue(input));
+            }
+            return new KeysetRequest(values, limit, Sort.by(orders));
+        } catch (IOException | RuntimeException exc) {
+            throw new IllegalArgumentException("invalid continuation token!", exc);
+        }
+    }
+
+    /**
+     * @param row the last row of the current page
+     * @param valueExtractor returns the value of the given property for the row
+     * @return the request for the page following the given row
+     */
+    public <T> KeysetRequest after(T row, BiFunction<T, String, Object> valueExtractor) {
+        List<Object> values = new ArrayList<>();
+        sort.forEach(order -> values.add(valueExtractor.apply(row, order.getProperty())));
+        return new KeysetRequest(values, limit, sort);
+    }
+
+    /**
+     * @return the sort values of the last row of the previous page - empty for the first page
+     */
+    public List<Object> getLastValues() {
+        return lastValues;
+    }
+
+    /**
+     * @return the token representing this request - null for the first page
+     */
+    public String getContinuationToken() {
+        if (lastValues.isEmpty()) {
+            return null;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            output.writeByte(TOKEN_VERSION);
+            output.writeShort(lastValues.size());
+            Iterator<Object> valueIterator = lastValues.iterator();
+            for (Sort.Order order : sort) {
+                output.writeBoolean(order.isAscending());
+                output.writeUTF(order.getProperty());
+                writeValue(output, valueIterator.next());
+            }
+        } catch (IOException exc) {
+            throw new UncheckedIOException(exc);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    private static void writeValue(DataOutputStream output, Object value) throws IOException {
+        if (value == null) {
+            output.writeByte('n');
+        } else if (value instanceof String) {
+            output.writeByte('s');
+            output.writeUTF((String) value);
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            output.writeByte('i');
+            output.writeInt(((Number) value).intValue());
+        } else if (value instanceof Long) {
+            output.writeByte('l');
+            output.writeLong((Long) value);
+        } else if (value instanceof Double || value instanceof Float) {
+            output.writeByte('d');
+            output.writeDouble(((Number) value).doubleValue());
+        } else if (value instanceof Boolean) {
+            output.writeByte('b');
+            output.writeBoolean((Boolean) value);
+        } else if (value instanceof Enum) {
+            output.writeByte('s');
+            output.writeUTF(((Enum<?>) value).name());
+        } else if (value instanceof Date) {
+            output.writeByte('I');
+            output.writeUTF(Instant.ofEpochMilli(((Date) value).getTime()).toString());
+        } else {
+            output.writeByte(typeOf(value));
+            output.writeUTF(value.toString());
+        }
+    }
+
+    private static char typeOf(Object value) {
+        if (value instanceof BigDecimal) {
+            return 'D';
+        }
+        if (value instanceof BigInteger) {
+            return 'B';
+        }
+        if (value instanceof UUID) {
+            return 'u';
+        }
+        if (value instanceof LocalDate) {
+            return 'L';
+        }
+        if (value instanceof LocalDateTime) {
+            return 'T';
+        }
+        if (value instanceof LocalTime) {
+            return 't';
+        }
+        if (value instanceof Instant) {
+            return 'I';
+        }
+        if (value instanceof OffsetDateTime) {
+            return 'O';
+        }
+        if (value instanceof ZonedDateTime) {
+            return 'Z';
+        }
+        return 's';
+    }
+
+    private static Object readValue(DataInputStream input) throws IOException {
+        char type = (char) input.readUnsignedByte();
+        switch (type) {
+            case 'n':
+                return null;
+            case 'i':
+                return input.readInt();
+            case 'l':
+                return input.readLong();
+            case 'd':
+                return input.readDouble();
+            case 'b':
+                return input.readBoolean();
+            default:
+                break;
+        }
+        String value = input.readUTF();
+        switch (type) {
+            case 's':
+                return value;
+            case 'D':
+                return new BigDecimal(value);
+            case 'B':
+                return new BigInteger(value);
+            case 'u':
+                return UUID.fromString(value);
+            case 'L':
+                return LocalDate.parse(value);
+            case 'T':
+                return LocalDateTime.parse(value);
+            case 't':
+                return LocalTime.parse(value);
+            case 'I':
+                return Instant.parse(value);
+            case 'O':
+                return OffsetDateTime.parse(value);
+            case 'Z':
+                return ZonedDateTime.parse(value);
+            default:
+                throw new IllegalArgumentException(String.format("unknown value type '%s'!", type));
+        }
+    }
+
+    @Override
+    public int getPageNumber() {
+        return 0;
+    }
+
+    @Override
+    public int getPageSize() {
+        return limit;
+    }
+
+    /**
+     * @return always 0 - keyset requests do not skip rows
+     */
+    @Override
+    public long getOffset() {
+        return 0;
+    }
+
+    @Override
+    public Sort getSort() {
+        return sort;
+    }
+
+    /**
+     * @throws UnsupportedOperationException the next request depends on the last row - see {@link KeysetSlice#nextPageable()}
+     */
+    @Override
+    public Pageable next() {
+        throw new UnsupportedOperationException("the next keyset request is provided by the result slice!");
+    }
+
+    @Override
+    public Pageable previousOrFirst() {
+        return first();
+    }
+
+    @Override
+    public Pageable first() {
+        return new KeysetRequest(limit, sort);
+    }
+
+    @Override
+    public Pageable withPage(int pageNumber) {
+        if (pageNumber == 0) {
+            return first();
+        }
+        throw new UnsupportedOperationException("keyset requests can not jump to a page!");
+    }
+
+    @Override
+    public boolean hasPrevious() {
+        return !lastValues.isEmpty();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof KeysetRequest)) {
+            return false;
+        }
+        KeysetRequest otherRequest = (KeysetRequest) other;
+        return limit == otherRequest.limit && sort.equals(otherRequest.sort) && lastValues.equals(otherRequest.lastValues);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(lastValues, limit, sort);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Keyset request [after: %s, limit: %d, sort: %s]", getLastValues(), getPageSize(), getSort());
+    }
+}
@@ -0,0 +1,38 @@
+package net.seesharpsoft.spring.data.domain;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+
+import java.util.List;
+
+/**
+ * A slice of a keyset pagination - provides the request (and its continuation token) for the following slice.
+ *
+ * @param <T> the content type
+ */
+public class KeysetSlice<T> extends SliceImpl<T> {
+
+    private final KeysetRequest nextRequest;
+
+    /**
+     * @param content     the content
+     * @param request     the request of this slice
+     * @param nextRequest the request for the next slice - null if there is none
+     */
+    public KeysetSlice(List<T> content, KeysetRequest request, KeysetRequest nextRequest) {
+        super(content, request, nextRequest != null);
+        this.nextRequest = nextRequest;
+    }
+
+    /**
+     * @return the token to request the next slice with or null if there is none
+     */
+    public String getContinuationToken() {
+        return nextRequest == null ? null : nextRequest.getContinuationToken();
+    }
+
+    @Override
+    public Pageable nextPageable() {
+        return nextRequest == null ? Pageable.unpaged() : nextRequest;
+    }
+}
@@ -4,6 +4,8 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.util.Assert;
 
+import java.util.Objects;
+
 public class OffsetLimitRequest implements Pageable {
     
     private final long offset;
@@ -72,6 +74,20 @@ public class OffsetLimitRequest implements Pageable {
         return getOffset() > 0;
     }
 
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof OffsetLimitRequest)) {
+            return false;
+        }
+        OffsetLimitRequest otherRequest = (OffsetLimitRequest) other;
+        return offset == otherRequest.offset && limit == otherRequest.limit && Objects.equals(sort, otherRequest.sort);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(offset, limit, sort);
+    }
+
     @Override
     public String toString() {
         return String.format("Offset-Limit request [offset: %d, limit: %d, sort: %s]", getOffset(), getPageSize(), getSort());
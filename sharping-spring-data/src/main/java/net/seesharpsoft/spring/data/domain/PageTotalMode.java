@@ -0,0 +1,18 @@
+package net.seesharpsoft.spring.data.domain;
+
+/**
+ * Defines how the total number of results of a {@link org.springframework.data.domain.Page} is determined. In any mode
+ * the total is not queried at all if it follows from the page itself (e.g. a first page smaller than the page size).
+ */
+public enum PageTotalMode {
+    /**
+     * A separate count query is executed.
+     */
+    COUNT_QUERY,
+    /**
+     * The total is selected along with the page content by a {@code count(*) over ()} window function, so a page
+     * needs a single round-trip only. Requires window function support of database and JPA vendor - falls back to
+     * {@link #COUNT_QUERY} otherwise and for distinct queries (e.g. filtered by joined operands).
+     */
+    WINDOW_FUNCTION
+}
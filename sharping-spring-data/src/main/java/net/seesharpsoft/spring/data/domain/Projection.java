@@ -0,0 +1,65 @@
+package net.seesharpsoft.spring.data.domain;
+
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+import java.util.*;
+
+/**
+ * The fields (names or aliases) of a selectable to select - see {@link SelectableRepository#select(Projection)}.
+ */
+public class Projection {
+
+    private final Set<String> fields;
+
+    public Projection(Collection<String> fields) {
+        Assert.notEmpty(fields, "fields must not be empty!");
+        Set<String> fieldSet = new TreeSet<>();
+        for (String field : fields) {
+            Assert.hasText(field, "field must not be empty!");
+            fieldSet.add(field.trim());
+        }
+        this.fields = Collections.unmodifiableSet(fieldSet);
+    }
+
+    public static Projection of(String... fields) {
+        return new Projection(Arrays.asList(fields));
+    }
+
+    /**
+     * @param fieldList comma separated field names, e.g. {@code "id,fullName"}
+     * @return the projection or null if no field is given
+     */
+    public static Projection parse(String... fieldList) {
+        List<String> fields = new ArrayList<>();
+        if (fieldList != null) {
+            for (String fieldListEntry : fieldList) {
+                for (String field : StringUtils.commaDelimitedListToStringArray(fieldListEntry)) {
+                    if (StringUtils.hasText(field)) {
+                        fields.add(field);
+                    }
+                }
+            }
+        }
+        return fields.isEmpty() ? null : new Projection(fields);
+    }
+
+    public Set<String> getFields() {
+        return fields;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Projection && fields.equals(((Projection) other).fields);
+    }
+
+    @Override
+    public int hashCode() {
+        return fields.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Projection %s", fields);
+    }
+}
@@ -1,16 +1,27 @@
 package net.seesharpsoft.spring.data.domain;
 
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.OneToOne;
 import jakarta.persistence.Transient;
 import jakarta.persistence.criteria.JoinType;
 import net.seesharpsoft.spring.data.jpa.expression.Operand;
+import net.seesharpsoft.spring.data.jpa.expression.Operands;
 import net.seesharpsoft.spring.data.jpa.expression.Operation;
 import net.seesharpsoft.spring.data.jpa.selectable.*;
 import org.springframework.util.ReflectionUtils;
 
 import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
 public class SelectableInfo<T> {
 
@@ -77,6 +88,52 @@ public class SelectableInfo<T> {
         }
     }
 
+    /**
+     * The associations fetched along with an entity selected by path - instead of loading them per row afterwards.
+     */
+    public class FetchInfo {
+        protected final String path;
+
+        protected final List<FieldInfo> fields = new ArrayList<>();
+
+        protected final Set<String> fetchPaths = new TreeSet<>();
+
+        public FetchInfo(String path) {
+            this.path = path;
+        }
+
+        /**
+         * @return the path of the selected entity, e.g. "country"
+         */
+        public String getPath() {
+            return path;
+        }
+
+        /**
+         * @return the fields selecting the entity
+         */
+        public List<FieldInfo> getFields() {
+            return Collections.unmodifiableList(fields);
+        }
+
+        /**
+         * @return the fetched associations relative to the entity, parents before children, e.g. ["capital", "capital/mayor"]
+         */
+        public Set<String> getFetchPaths() {
+            return Collections.unmodifiableSet(fetchPaths);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Fetch %s %s", path, fetchPaths);
+        }
+    }
+
+    /**
+     * Maximum depth of eager associations fetched along with a selected entity.
+     */
+    public static final int MAX_FETCH_DEPTH = 3;
+
     protected final Class<T> selectableClass;
 
     protected final Class rootClass;
@@ -89,6 +146,8 @@ public class SelectableInfo<T> {
 
     protected final Operation having;
 
+    protected final List<FetchInfo> fetchPlan;
+
     public SelectableInfo(SqlParser parser, Class<T> selectableClass) {
         this.selectableClass = selectableClass;
 
@@ -106,6 +165,7 @@ public class SelectableInfo<T> {
         }
 
         this.fields = createSelectableFields(parser);
+        this.fetchPlan = createFetchPlan();
     }
 
     protected boolean isSelectField(Field field) {
@@ -124,6 +184,56 @@ public class SelectableInfo<T> {
         return selectableFields;
     }
 
+    protected static boolean isEntity(Class<?> type) {
+        return type.isAnnotationPresent(Entity.class);
+    }
+
+    /**
+     * Plans the fetches for all fields selecting an entity by path - fields selecting the same path share the fetches.
+     * @return the fetch plan
+     */
+    protected List<FetchInfo> createFetchPlan() {
+        Map<String, FetchInfo> fetchInfos = new LinkedHashMap<>();
+        for (FieldInfo fieldInfo : fields) {
+            Field field = fieldInfo.getField();
+            if (!isEntity(field.getType()) || !(fieldInfo.getSelection() instanceof Operands.FieldReference)) {
+                continue;
+            }
+            String path = String.join("/", Operands.getPathParts(((Operands.FieldReference) fieldInfo.getSelection()).getValue()));
+            FetchInfo fetchInfo = fetchInfos.computeIfAbsent(path.toLowerCase(), key -> new FetchInfo(path));
+            fetchInfo.fields.add(fieldInfo);
+            collectEagerAssociations(field.getType(), "", new HashSet<>(), fetchInfo.fetchPaths, MAX_FETCH_DEPTH);
+            Select selectAnnotation = field.getAnnotation(Select.class);
+            if (selectAnnotation != null) {
+                for (String fetchPath : selectAnnotation.fetch()) {
+                    String[] parts = Operands.getPathParts(fetchPath);
+                    for (int index = 1; index <= parts.length; ++index) {
+                        fetchInfo.fetchPaths.add(String.join("/", Arrays.copyOf(parts, index)));
+                    }
+                }
+            }
+        }
+        return Collections.unmodifiableList(new ArrayList<>(fetchInfos.values()));
+    }
+
+    private static void collectEagerAssociations(Class<?> entityClass, String parentPath, Set<Class<?>> visited, Set<String> fetchPaths, int depth) {
+        // cycles are fetched only once
+        if (depth == 0 || !visited.add(entityClass)) {
+            return;
+        }
+        ReflectionUtils.doWithFields(entityClass, field -> {
+            ManyToOne manyToOne = field.getAnnotation(ManyToOne.class);
+            OneToOne oneToOne = field.getAnnotation(OneToOne.class);
+            FetchType fetchType = manyToOne != null ? manyToOne.fetch() : oneToOne != null ? oneToOne.fetch() : FetchType.LAZY;
+            if (fetchType == FetchType.EAGER) {
+                String path = parentPath + field.getName();
+                fetchPaths.add(path);
+                collectEagerAssociations(field.getType(), path + "/", visited, fetchPaths, depth - 1);
+            }
+        });
+        visited.remove(entityClass);
+    }
+
     protected List<JoinInfo> createJoinInfos(SqlParser parser, Joins joins) {
         final List<JoinInfo> joinInfos = new ArrayList<>();
         for (Join joinDefinition : joins.value()) {
@@ -155,4 +265,11 @@ public class SelectableInfo<T> {
     public Operation getHaving() {
         return having;
     }
+
+    /**
+     * @return the fetches of the entities selected by path
+     */
+    public List<FetchInfo> getFetchPlan() {
+        return fetchPlan;
+    }
 }
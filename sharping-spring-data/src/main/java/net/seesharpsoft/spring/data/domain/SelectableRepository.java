@@ -2,12 +2,16 @@ package net.seesharpsoft.spring.data.domain;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.repository.NoRepositoryBean;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @NoRepositoryBean
 public interface SelectableRepository<T> extends JpaSpecificationExecutor<T> {
@@ -23,6 +27,92 @@ public interface SelectableRepository<T> extends JpaSpecificationExecutor<T> {
         return findAll(null, sort);
     }
 
+    /**
+     * Keyset (seek) pagination - see {@link KeysetRequest}.
+     * @param spec the specification - can be null
+     * @param request the keyset request
+     * @return the slice providing the continuation token for the next slice
+     */
+    KeysetSlice<T> findAll(Specification<T> spec, KeysetRequest request);
+
+    default KeysetSlice<T> findAll(KeysetRequest request) {
+        return findAll(null, request);
+    }
+
+    /**
+     * Returns a repository selecting only the given fields - all other fields of the selectables stay null (or their
+     * default value if primitive). The results are the same rows as without projection: unselected non-aggregate fields
+     * are still grouped by, only aggregates of unselected fields and the joins they alone need are left out of the
+     * queries. Specifications and sorts can reference the selected fields and the attributes of the root.
+     * @param projection the fields to select - null for all fields
+     * @return the repository
+     * @throws IllegalArgumentException if the projection references an unknown field
+     */
+    SelectableRepository<T> select(Projection projection);
+
+    /**
+     * Returns the requested slice without counting the total number of results - one more row than requested is
+     * fetched to tell if there is a next slice.
+     * @param spec the specification - can be null
+     * @param pageable the page request
+     * @return the slice
+     */
+    Slice<T> findSlice(Specification<T> spec, Pageable pageable);
+
+    default Slice<T> findSlice(Pageable pageable) {
+        return findSlice(null, pageable);
+    }
+
+    /**
+     * Lets the client choose (see {@link SliceRequest}) if the total number of results is counted.
+     * @param spec the specification - can be null
+     * @param pageable the page request
+     * @return a slice for a {@link SliceRequest} or {@link KeysetRequest}, a page otherwise
+     */
+    default Slice<T> findPageOrSlice(Specification<T> spec, Pageable pageable) {
+        if (pageable instanceof SliceRequest || pageable instanceof KeysetRequest) {
+            return findSlice(spec, pageable);
+        }
+        return findAll(spec, pageable);
+    }
+
+    /**
+     * Finds the selectables having one of the given keys - large key sets are split into chunks queried one after the
+     * other, so neither the IN list nor the number of bind parameters of a statement exceed database limits.
+     * @param spec the specification - can be null
+     * @param path field name or alias of the selectable holding the key
+     * @param keys the keys - duplicates and null are ignored
+     * @return the results in the order of the given keys, results of the same key in database order
+     * @throws IllegalArgumentException if the path is not a field of the selectable
+     */
+    List<T> findAllByIds(Specification<T> spec, String path, Collection<?> keys);
+
+    default List<T> findAllByIds(String path, Collection<?> keys) {
+        return findAllByIds(null, path, keys);
+    }
+
+    /**
+     * Streams the results read-only and fetched in batches from the database instead of loading them all at once.
+     * The stream must be consumed within a transaction and closed afterwards (e.g. try-with-resources). Results that
+     * are (or hold) entities are detached from the persistence context as soon as the next result is read, so the
+     * memory used does not depend on the number of results - lazy associations of earlier results can not be loaded
+     * anymore.
+     * @param spec the specification - can be null
+     * @param sort the sort - can be null
+     * @return the result stream
+     */
+    Stream<T> streamAll(Specification<T> spec, Sort sort);
+
+    /**
+     * Passes the results in chunks of the given size to the consumer - each chunk is detached from the persistence
+     * context after being consumed, so the memory used does not depend on the number of results.
+     * @param spec the specification - can be null
+     * @param sort the sort - can be null
+     * @param chunkSize the maximum number of results per chunk (also used as JDBC fetch size)
+     * @param consumer the chunk consumer
+     */
+    void forEachChunk(Specification<T> spec, Sort sort, int chunkSize, Consumer<List<T>> consumer);
+
     default long count() {
         return count(null);
     }
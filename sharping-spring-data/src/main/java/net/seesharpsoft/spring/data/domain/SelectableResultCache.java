@@ -0,0 +1,198 @@
+package net.seesharpsoft.spring.data.domain;
+
+import net.seesharpsoft.commons.collection.BoundedCache;
+import net.seesharpsoft.spring.data.jpa.JpaVendorUtilProxy;
+import org.springframework.util.Assert;
+import org.springframework.util.ReflectionUtils;
+
+import jakarta.persistence.EntityManagerFactory;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Opt-in cache for results of selectable queries - keyed by selectable, projection, specification, sort and page.
+ * Entries are evicted by size and age and invalidated when an entity the selectable is read from changes (see
+ * {@link #listenTo(EntityManagerFactory, JpaVendorUtilProxy)}).
+ * <p>
+ * Only specifications and page requests comparable by value (implementing equals, e.g. {@link net.seesharpsoft.spring.data.jpa.OperationSpecification})
+ * are cached - composed specifications (e.g. {@code spec.and(other)}) bypass the cache. Queries of read-write
+ * transactions bypass the cache as well, as they may see changes not committed yet.
+ */
+public class SelectableResultCache {
+
+    private static final class Key {
+        private final Set<Class<?>> entityClasses;
+        private final List<Object> parts;
+
+        private Key(Set<Class<?>> entityClasses, List<Object> parts) {
+            this.entityClasses = entityClasses;
+            this.parts = parts;
+        }
+
+        private boolean dependsOn(Class<?> entityClass) {
+            for (Class<?> dependency : entityClasses) {
+                if (dependency.isAssignableFrom(entityClass) || entityClass.isAssignableFrom(dependency)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key && parts.equals(((Key) other).parts);
+        }
+
+        @Override
+        public int hashCode() {
+            return parts.hashCode();
+        }
+    }
+
+    private final BoundedCache<Key, Object> entries;
+
+    // incremented on each invalidation - results loaded meanwhile are not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    private final AtomicLong bypasses = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private final Set<EntityManagerFactory> entityManagerFactories = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * @param maxSize    maximum number of cached results
+     * @param timeToLive time after which a result expires - null or zero if results should only expire on changes
+     */
+    public SelectableResultCache(int maxSize, Duration timeToLive) {
+        this.entries = new BoundedCache<>(maxSize, timeToLive);
+    }
+
+    /**
+     * @param keyPart a part of the key, e.g. the specification or page request
+     * @return true if the key part is comparable by value, so results can be cached
+     */
+    public static boolean isCacheable(Object keyPart) {
+        if (keyPart == null) {
+            return true;
+        }
+        Method equals = ReflectionUtils.findMethod(keyPart.getClass(), "equals", Object.class);
+        return equals != null && !Object.class.equals(equals.getDeclaringClass());
+    }
+
+    /**
+     * Invalidates cached results on changes of entities committed via the given entity manager factory. Registering
+     * the same factory again has no effect.
+     * @param entityManagerFactory the entity manager factory
+     * @param jpaVendorUtilProxy   the vendor specific utilities to register the change listener with
+     * @return false if change listeners are not supported by the JPA vendor - results only expire by age then
+     */
+    public boolean listenTo(EntityManagerFactory entityManagerFactory, JpaVendorUtilProxy jpaVendorUtilProxy) {
+        Assert.notNull(entityManagerFactory, "entityManagerFactory must not be null!");
+        synchronized (entityManagerFactories) {
+            if (entityManagerFactories.contains(entityManagerFactory)) {
+                return true;
+            }
+            if (!jpaVendorUtilProxy.registerEntityChangeListener(entityManagerFactory, this::invalidate)) {
+                return false;
+            }
+            entityManagerFactories.add(entityManagerFactory);
+            return true;
+        }
+    }
+
+    /**
+     * Returns the cached result or loads and caches it.
+     * @param entityClasses the entities the result is read from
+     * @param keyParts      the parts identifying the result - must be comparable by value
+     * @param loader        loads the result
+     * @return the result
+     */
+    public <R> R get(Set<Class<?>> entityClasses, List<Object> keyParts, Supplier<R> loader) {
+        Key key = new Key(entityClasses, keyParts);
+        R result = (R) entries.get(key);
+        if (result != null) {
+            return result;
+        }
+        long loadGeneration = generation.get();
+        result = loader.get();
+        entries.put(key, result);
+        if (generation.get() != loadGeneration) {
+            // changed while loading - the result might be outdated already
+            entries.remove(key);
+        }
+        return result;
+    }
+
+    /**
+     * Loads the result without caching it - counted as bypass.
+     * @param loader loads the result
+     * @return the result
+     */
+    public <R> R bypass(Supplier<R> loader) {
+        bypasses.incrementAndGet();
+        return loader.get();
+    }
+
+    /**
+     * Removes all results read from the given entity (or its sub- or superclasses).
+     * @param entityClass the changed entity
+     */
+    public void invalidate(Class<?> entityClass) {
+        generation.incrementAndGet();
+        invalidations.addAndGet(entries.removeIf(key -> key.dependsOn(entityClass)));
+    }
+
+    public void clear() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public int getMaxSize() {
+        return entries.getMaxSize();
+    }
+
+    public long getHitCount() {
+        return entries.getHitCount();
+    }
+
+    public long getMissCount() {
+        return entries.getMissCount();
+    }
+
+    /**
+     * @return number of results evicted by size or age
+     */
+    public long getEvictionCount() {
+        return entries.getEvictionCount();
+    }
+
+    /**
+     * @return number of results removed due to entity changes
+     */
+    public long getInvalidationCount() {
+        return invalidations.get();
+    }
+
+    /**
+     * @return number of queries not cacheable
+     */
+    public long getBypassCount() {
+        return bypasses.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SelectableResultCache(size=%s, maxSize=%s, hits=%s, misses=%s, evictions=%s, invalidations=%s, bypasses=%s)",
+                size(), getMaxSize(), getHitCount(), getMissCount(), getEvictionCount(), getInvalidationCount(), getBypassCount());
+    }
+}
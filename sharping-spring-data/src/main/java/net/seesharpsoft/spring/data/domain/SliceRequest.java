@@ -0,0 +1,91 @@
+package net.seesharpsoft.spring.data.domain;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.util.Assert;
+
+/**
+ * Marks a page request for which only the content and whether there is a next page is of interest - not the total
+ * number of results. See {@link SelectableRepository#findPageOrSlice(org.springframework.data.jpa.domain.Specification, Pageable)}.
+ */
+public class SliceRequest implements Pageable {
+
+    private final Pageable pageable;
+
+    public SliceRequest(Pageable pageable) {
+        Assert.notNull(pageable, "pageable must not be null!");
+        Assert.isTrue(pageable.isPaged(), "pageable must be paged!");
+        this.pageable = pageable instanceof SliceRequest ? ((SliceRequest) pageable).getPageable() : pageable;
+    }
+
+    public static SliceRequest of(Pageable pageable) {
+        return pageable instanceof SliceRequest ? (SliceRequest) pageable : new SliceRequest(pageable);
+    }
+
+    /**
+     * @return the page request this slice request is based on
+     */
+    public Pageable getPageable() {
+        return pageable;
+    }
+
+    @Override
+    public int getPageNumber() {
+        return pageable.getPageNumber();
+    }
+
+    @Override
+    public int getPageSize() {
+        return pageable.getPageSize();
+    }
+
+    @Override
+    public long getOffset() {
+        return pageable.getOffset();
+    }
+
+    @Override
+    public Sort getSort() {
+        return pageable.getSort();
+    }
+
+    @Override
+    public Pageable next() {
+        return of(pageable.next());
+    }
+
+    @Override
+    public Pageable previousOrFirst() {
+        return of(pageable.previousOrFirst());
+    }
+
+    @Override
+    public Pageable first() {
+        return of(pageable.first());
+    }
+
+    @Override
+    public Pageable withPage(int pageNumber) {
+        return of(pageable.withPage(pageNumber));
+    }
+
+    @Override
+    public boolean hasPrevious() {
+        return pageable.hasPrevious();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof SliceRequest && pageable.equals(((SliceRequest) other).pageable);
+    }
+
+    @Override
+    public int hashCode() {
+        return pageable.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Slice request [%s]", pageable);
+    }
+}
@@ -1,7 +1,9 @@
 package net.seesharpsoft.spring.data.domain.impl;
 
+import net.seesharpsoft.spring.data.domain.PageTotalMode;
 import net.seesharpsoft.spring.data.domain.SelectableRepository;
 import net.seesharpsoft.spring.data.domain.SelectableRepositoryFactory;
+import net.seesharpsoft.spring.data.domain.SelectableResultCache;
 import net.seesharpsoft.spring.data.domain.SqlParser;
 import net.seesharpsoft.spring.data.jpa.JpaVendorUtilProxy;
 import org.springframework.util.Assert;
@@ -22,12 +24,44 @@ public class SelectableRepositoryFactoryImpl implements SelectableRepositoryFact
 
     protected final SqlParser sqlParser;
 
+    protected PageTotalMode pageTotalMode = PageTotalMode.COUNT_QUERY;
+
+    protected SelectableResultCache resultCache;
+
     public SelectableRepositoryFactoryImpl(EntityManager entityManager, SqlParser sqlParser) {
         this.jpaVendorUtilProxy = getJpaVendorUtilProxy();
         this.entityManager = entityManager;
         this.sqlParser = sqlParser;
     }
 
+    public PageTotalMode getPageTotalMode() {
+        return pageTotalMode;
+    }
+
+    /**
+     * @param pageTotalMode the mode passed to the created repositories
+     */
+    public void setPageTotalMode(PageTotalMode pageTotalMode) {
+        Assert.notNull(pageTotalMode, "pageTotalMode must not be null!");
+        this.pageTotalMode = pageTotalMode;
+    }
+
+    public SelectableResultCache getResultCache() {
+        return resultCache;
+    }
+
+    /**
+     * Results cached are invalidated on committed changes of the entities they are read from - if supported by the JPA
+     * vendor, otherwise they only expire by age.
+     * @param resultCache the result cache passed to the created repositories - null if results should not be cached
+     */
+    public void setResultCache(SelectableResultCache resultCache) {
+        if (resultCache != null) {
+            resultCache.listenTo(entityManager.getEntityManagerFactory(), jpaVendorUtilProxy);
+        }
+        this.resultCache = resultCache;
+    }
+
     protected JpaVendorUtilProxy getJpaVendorUtilProxy() {
         Iterator<JpaVendorUtilProxy> jpaVendorUtilProxyIterator = jpaVendorUtilProxyServiceLoader.iterator();
         Assert.state(jpaVendorUtilProxyIterator.hasNext(), "no JpaVendorUtilProxy found!");
@@ -38,7 +72,12 @@ public class SelectableRepositoryFactoryImpl implements SelectableRepositoryFact
     public <T> SelectableRepository<T> createRepository(Class<? extends SelectableRepository> implClass, Class<T> selectableClass) {
         try {
             Constructor<? extends SelectableRepository> selectableRepositoryConstructor = implClass.getConstructor(JpaVendorUtilProxy.class, EntityManager.class, SqlParser.class, Class.class);
-            return selectableRepositoryConstructor.newInstance(jpaVendorUtilProxy, entityManager, sqlParser, selectableClass);
+            SelectableRepository<T> repository = selectableRepositoryConstructor.newInstance(jpaVendorUtilProxy, entityManager, sqlParser, selectableClass);
+            if (repository instanceof SelectableRepositoryImpl) {
+                ((SelectableRepositoryImpl<T>) repository).setPageTotalMode(pageTotalMode);
+                ((SelectableRepositoryImpl<T>) repository).setResultCache(resultCache);
+            }
+            return repository;
         } catch (NoSuchMethodException | InstantiationException | IllegalAccessException | InvocationTargetException exc) {
             throw new RuntimeException(exc);
         }
@@ -1,14 +1,33 @@
 package net.seesharpsoft.spring.data.domain.impl;
 
+import net.seesharpsoft.commons.collection.BoundedCache;
+import net.seesharpsoft.spring.data.domain.KeysetRequest;
+import net.seesharpsoft.spring.data.domain.KeysetSlice;
+import net.seesharpsoft.spring.data.domain.PageTotalMode;
+import net.seesharpsoft.spring.data.domain.Projection;
 import net.seesharpsoft.spring.data.domain.SelectableInfo;
 import net.seesharpsoft.spring.data.domain.SelectableRepository;
+import net.seesharpsoft.spring.data.domain.SelectableResultCache;
 import net.seesharpsoft.spring.data.domain.SqlParser;
 import net.seesharpsoft.spring.data.jpa.JpaVendorUtilProxy;
 import net.seesharpsoft.spring.data.jpa.ExpressionHolder;
+import net.seesharpsoft.spring.data.jpa.OperationSpecification;
+import net.seesharpsoft.spring.data.jpa.ParameterBindings;
+import net.seesharpsoft.spring.data.jpa.expression.Operand;
 import net.seesharpsoft.spring.data.jpa.expression.Operands;
+import net.seesharpsoft.spring.data.jpa.expression.Operation;
+import net.seesharpsoft.spring.data.jpa.expression.Operations;
+import net.seesharpsoft.spring.data.jpa.expression.Operators;
+import org.springframework.beans.BeanUtils;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.DefaultConversionService;
 import org.springframework.data.domain.*;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.TupleElement;
@@ -16,11 +35,30 @@ import jakarta.persistence.TypedQuery;
 import jakarta.persistence.criteria.*;
 import jakarta.persistence.metamodel.Attribute;
 import jakarta.persistence.metamodel.SingularAttribute;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class SelectableRepositoryImpl<T> implements SelectableRepository<T> {
 
@@ -55,6 +93,20 @@ public class SelectableRepositoryImpl<T> implements SelectableRepository<T> {
         }
     }
 
+    /**
+     * JDBC fetch size used for streaming if not specified otherwise.
+     */
+    public static final int DEFAULT_STREAM_FETCH_SIZE = 1000;
+
+    // vendor specific hints are ignored by other JPA vendors
+    protected static final String HINT_FETCH_SIZE = "org.hibernate.fetchSize";
+    protected static final String HINT_READ_ONLY = "org.hibernate.readOnly";
+
+    /**
+     * Maximum number of projected repositories kept per repository.
+     */
+    protected static final int PROJECTION_CACHE_SIZE = 64;
+
     protected final EntityManager entityManager;
 
     protected final SqlParser sqlParser;
@@ -63,28 +115,210 @@ public class SelectableRepositoryImpl<T> implements SelectableRepository<T> {
 
     protected final JpaVendorUtilProxy jpaVendorUtilProxy;
 
+    private List<Field> entityFields;
+
+    private final Map<Class<?>, List<String>> singularAttributeNames = new ConcurrentHashMap<>();
+
+    private volatile CriteriaQuery<T> queryTemplate;
+
+    private Constructor<T> selectableConstructor;
+
+    protected PageTotalMode pageTotalMode = PageTotalMode.COUNT_QUERY;
+
+    /**
+     * The cache for query results - null if results are not cached.
+     */
+    protected SelectableResultCache resultCache;
+
+    private volatile Set<Class<?>> entityClasses;
+
+    /**
+     * The selected fields - null if all fields are selected.
+     */
+    protected final Set<SelectableInfo.FieldInfo> selectedFields;
+
+    /**
+     * The non-aggregate fields the results are grouped by - determined lazily.
+     */
+    private volatile Set<SelectableInfo.FieldInfo> groupedFields;
+
+    private final BoundedCache<Projection, SelectableRepository<T>> projectedRepositories = new BoundedCache<>(PROJECTION_CACHE_SIZE);
+
     public SelectableRepositoryImpl(JpaVendorUtilProxy jpaVendorUtilProxy, EntityManager entityManager, SqlParser sqlParser, Class<T> selectableClass) {
         this.jpaVendorUtilProxy = jpaVendorUtilProxy;
         this.entityManager = entityManager;
         this.sqlParser = sqlParser;
         this.selectableInfo = new SelectableInfo(sqlParser, selectableClass);
+        this.selectedFields = null;
+    }
+
+    /**
+     * Creates a repository selecting only the given fields of the selectables of the given repository.
+     * @param repository the repository selecting all fields
+     * @param selectedFields the fields to select
+     */
+    protected SelectableRepositoryImpl(SelectableRepositoryImpl<T> repository, Set<SelectableInfo.FieldInfo> selectedFields) {
+        this.jpaVendorUtilProxy = repository.jpaVendorUtilProxy;
+        this.entityManager = repository.entityManager;
+        this.sqlParser = repository.sqlParser;
+        this.selectableInfo = repository.selectableInfo;
+        this.pageTotalMode = repository.pageTotalMode;
+        this.resultCache = repository.resultCache;
+        this.selectedFields = Collections.unmodifiableSet(selectedFields);
+        this.groupedFields = repository.getGroupedFields();
+    }
+
+    public PageTotalMode getPageTotalMode() {
+        return pageTotalMode;
+    }
+
+    /**
+     * Not a public property - repositories are created as beans with all properties to be satisfied.
+     * @param pageTotalMode the mode to determine the total of pages with
+     */
+    protected void setPageTotalMode(PageTotalMode pageTotalMode) {
+        Assert.notNull(pageTotalMode, "pageTotalMode must not be null!");
+        this.pageTotalMode = pageTotalMode;
+    }
+
+    public SelectableResultCache getResultCache() {
+        return resultCache;
+    }
+
+    /**
+     * Not a public property - see {@link #setPageTotalMode(PageTotalMode)}.
+     * @param resultCache the cache for query results - null if results should not be cached
+     */
+    protected void setResultCache(SelectableResultCache resultCache) {
+        this.resultCache = resultCache;
+    }
+
+    protected SelectableInfo.FieldInfo getFieldInfo(String property) {
+        for (SelectableInfo.FieldInfo fieldInfo : selectableInfo.getFields()) {
+            if (property.equalsIgnoreCase(fieldInfo.getAlias()) || property.equals(fieldInfo.getField().getName())) {
+                return fieldInfo;
+            }
+        }
+        throw new IllegalArgumentException(String.format("'%s' is not a field of %s!", property, selectableInfo.getSelectableClass().getName()));
+    }
+
+    protected boolean isProjection() {
+        return selectedFields != null;
+    }
+
+    protected boolean isSelected(SelectableInfo.FieldInfo fieldInfo) {
+        return selectedFields == null || selectedFields.contains(fieldInfo);
+    }
+
+    /**
+     * The fields whose selection is not an aggregate - the results are grouped by them, whether selected or not.
+     * @return the grouped fields
+     */
+    protected Set<SelectableInfo.FieldInfo> getGroupedFields() {
+        Set<SelectableInfo.FieldInfo> result = groupedFields;
+        if (result == null) {
+            CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+            CriteriaQuery<T> query = builder.createQuery(selectableInfo.getSelectableClass());
+            Root root = query.from(selectableInfo.getRootClass());
+            prepareSelection(root, prepareJoins(root, query, builder), builder);
+            List<Selection<?>> selections = Operands.getAllSelections(query.getSelection(), jpaVendorUtilProxy);
+            List<SelectableInfo<T>.FieldInfo> fields = selectableInfo.getFields();
+            result = new HashSet<>();
+            for (int index = 0; index < fields.size(); ++index) {
+                Selection<?> selection = selections.get(index);
+                if (!isAggregateFunction((Expression) selection) && !(selection instanceof Predicate)) {
+                    result.add(fields.get(index));
+                }
+            }
+            result = Collections.unmodifiableSet(result);
+            groupedFields = result;
+        }
+        return result;
+    }
+
+    protected SelectableRepository<T> createProjectedRepository(Set<SelectableInfo.FieldInfo> selectedFields) {
+        return new SelectableRepositoryImpl<>(this, selectedFields);
+    }
+
+    @Override
+    public SelectableRepository<T> select(Projection projection) {
+        if (projection == null) {
+            return this;
+        }
+        return projectedRepositories.get(projection, key -> {
+            Set<SelectableInfo.FieldInfo> fields = new HashSet<>();
+            key.getFields().forEach(field -> fields.add(getFieldInfo(field)));
+            if (selectedFields == null && fields.size() == selectableInfo.getFields().size()) {
+                return this;
+            }
+            if (selectedFields != null) {
+                fields.retainAll(selectedFields);
+            }
+            return createProjectedRepository(fields);
+        });
+    }
+
+    /**
+     * The references of the selected and grouped fields, where, having and inner joins (which restrict the results) -
+     * only joins providing any of these are needed.
+     * @return the required join infos
+     */
+    protected Set<SelectableInfo.JoinInfo> getRequiredJoins() {
+        Set<String> references = new HashSet<>();
+        Set<SelectableInfo.FieldInfo> grouped = getGroupedFields();
+        selectableInfo.getFields().stream().filter(fieldInfo -> isSelected(fieldInfo) || grouped.contains(fieldInfo)).forEach(fieldInfo -> references.addAll(Operands.getReferences(fieldInfo.getSelection())));
+        references.addAll(Operands.getReferences(selectableInfo.getWhere()));
+        references.addAll(Operands.getReferences(selectableInfo.getHaving()));
+
+        Set<SelectableInfo.JoinInfo> requiredJoins = new HashSet<>();
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (SelectableInfo.JoinInfo joinInfo : selectableInfo.getJoins()) {
+                if (!requiredJoins.contains(joinInfo) && (joinInfo.getJoinType() == JoinType.INNER || isReferenced(joinInfo.getAlias(), references))) {
+                    requiredJoins.add(joinInfo);
+                    references.add(joinInfo.getJoinPath());
+                    references.addAll(Operands.getReferences(joinInfo.getOn()));
+                    changed = true;
+                }
+            }
+        }
+        return requiredJoins;
+    }
+
+    private static boolean isReferenced(String alias, Set<String> references) {
+        String normalizedAlias = String.join("/", Operands.getPathParts(alias));
+        return references.stream()
+                .map(reference -> String.join("/", Operands.getPathParts(reference)))
+                .anyMatch(reference -> reference.equalsIgnoreCase(normalizedAlias) || reference.toLowerCase().startsWith(normalizedAlias.toLowerCase() + "/"));
+    }
+
+    protected List<String> getSingularAttributeNames(Root<?> root) {
+        return singularAttributeNames.computeIfAbsent(root.getJavaType(), javaType -> {
+            List<String> names = new ArrayList<>();
+            root.getModel().getAttributes().forEach((Attribute attribute) -> {
+                if (attribute instanceof SingularAttribute) {
+                    names.add(attribute.getName());
+                }
+            });
+            return names;
+        });
     }
 
     protected List<TupleElement> getAllTupleElements(AbstractQuery<?> query) {
         List<TupleElement> tupleElements = Operands.getContexts(query, jpaVendorUtilProxy);
         query.getRoots().forEach((Root<?> root) ->
-                root.getModel().getAttributes().forEach((Attribute attribute) -> {
-                            if (attribute instanceof SingularAttribute) {
-                                tupleElements.add(new SimpleTupleElement(root.get(attribute.getName()), attribute.getName()));
-                            }
-                        }
-                )
+                getSingularAttributeNames(root).forEach(name -> tupleElements.add(new SimpleTupleElement(root.get(name), name)))
         );
         return tupleElements;
     }
 
     protected CriteriaQuery<T> prepareJoins(Root root, CriteriaQuery query, CriteriaBuilder builder) {
+        Set<SelectableInfo.JoinInfo> requiredJoins = isProjection() ? getRequiredJoins() : null;
         for (SelectableInfo.JoinInfo joinInfo : selectableInfo.getJoins()) {
+            if (requiredJoins != null && !requiredJoins.contains(joinInfo)) {
+                continue;
+            }
             String[] paths = Operands.getPathParts(joinInfo.getJoinPath());
             Path joinPath = (Path) Operands.getPath(root, paths, getAllTupleElements(query));
             Join join = Operands.createJoin((From) joinPath.getParentPath(), paths[paths.length - 1], joinInfo.getJoinType());
@@ -101,12 +335,46 @@ public class SelectableRepositoryImpl<T> implements SelectableRepository<T> {
                 }
             }
         }
+        return prepareFetches(root, query, builder);
+    }
+
+    /**
+     * Joins the entities selected by path and fetches their associations along - see {@link SelectableInfo#getFetchPlan()}.
+     * The selection of the entity resolves to the join then.
+     */
+    protected CriteriaQuery<T> prepareFetches(Root root, CriteriaQuery query, CriteriaBuilder builder) {
+        for (SelectableInfo<T>.FetchInfo fetchInfo : selectableInfo.getFetchPlan()) {
+            if (fetchInfo.getFetchPaths().isEmpty() || fetchInfo.getFields().stream().noneMatch(this::isSelected)) {
+                continue;
+            }
+            String[] paths = Operands.getPathParts(fetchInfo.getPath());
+            TupleElement element = Operands.getPath(root, paths, getAllTupleElements(query));
+            From<?, ?> from;
+            if (element instanceof From) {
+                from = (From<?, ?>) element;
+            } else if (element instanceof Path && ((Path<?>) element).getParentPath() instanceof From) {
+                // inner join - like the implicit join of the path
+                from = Operands.getJoin((From<?, ?>) ((Path<?>) element).getParentPath(), paths[paths.length - 1], JoinType.INNER);
+            } else {
+                continue;
+            }
+            Map<String, FetchParent<?, ?>> fetches = new HashMap<>();
+            for (String fetchPath : fetchInfo.getFetchPaths()) {
+                int separator = fetchPath.lastIndexOf('/');
+                FetchParent<?, ?> parent = separator == -1 ? from : fetches.get(fetchPath.substring(0, separator));
+                fetches.put(fetchPath, parent.fetch(fetchPath.substring(separator + 1), JoinType.LEFT));
+            }
+        }
         return query;
     }
 
     protected AbstractQuery prepareSelection(Root root, CriteriaQuery<T> query, CriteriaBuilder builder) {
         List<Selection<?>> selections = new ArrayList<>();
         for (SelectableInfo.FieldInfo fieldInfo : selectableInfo.getFields()) {
+            if (!isSelected(fieldInfo)) {
+                selections.add(createUnselectedValue(fieldInfo, builder));
+                continue;
+            }
             Selection selection = fieldInfo.getSelection().asExpression(root, query, builder, null);
             if (fieldInfo.getAlias() != null) {
                 selection.alias(fieldInfo.getAlias());
@@ -116,6 +384,25 @@ public class SelectableRepositoryImpl<T> implements SelectableRepository<T> {
         return query.multiselect(selections);
     }
 
+    /**
+     * @param fieldInfo the unselected field
+     * @param builder the criteria builder
+     * @return null - or the default value of primitive fields
+     */
+    protected Expression<?> createUnselectedValue(SelectableInfo.FieldInfo fieldInfo, CriteriaBuilder builder) {
+        Class<?> fieldType = fieldInfo.getField().getType();
+        if (!fieldType.isPrimitive()) {
+            return builder.nullLiteral(fieldType);
+        }
+        if (fieldType == boolean.class) {
+            return builder.literal(false);
+        }
+        if (fieldType == char.class) {
+            return builder.literal('\0');
+        }
+        return builder.literal(DefaultConversionService.getSharedInstance().convert(0, ClassUtils.resolvePrimitiveIfNecessary(fieldType)));
+    }
+
     protected AbstractQuery prepareWhere(Root root, AbstractQuery query, CriteriaBuilder builder) {
         if (selectableInfo.getWhere() != null) {
             return query.where(selectableInfo.getWhere().asExpression(root, query, builder, Boolean.class));
@@ -129,7 +416,17 @@ public class SelectableRepositoryImpl<T> implements SelectableRepository<T> {
 
     protected AbstractQuery prepareGroupBy(Root root, AbstractQuery query, CriteriaBuilder builder) {
         List<Expression> groupBys = new ArrayList<>();
-        for (Selection<?> selection : Operands.getAllSelections(query.getSelection(), jpaVendorUtilProxy)) {
+        List<Selection<?>> selections = Operands.getAllSelections(query.getSelection(), jpaVendorUtilProxy);
+        List<SelectableInfo<T>.FieldInfo> fields = selectableInfo.getFields();
+        for (int index = 0; index < selections.size(); ++index) {
+            Selection<?> selection = selections.get(index);
+            if (index < fields.size() && !isSelected(fields.get(index))) {
+                // constant placeholder - unselected fields still distinguish the results as without projection
+                if (getGroupedFields().contains(fields.get(index))) {
+                    groupBys.add(fields.get(index).getSelection().asExpression(root, query, builder, null));
+                }
+                continue;
+            }
             Assert.isInstanceOf(Expression.class, selection, "selection is expected to be an expression!");
             Expression expression = (Expression) selection;
             if (!isAggregateFunction(expression) && !(expression instanceof Predicate)) {
@@ -172,17 +469,6 @@ public class SelectableRepositoryImpl<T> implements SelectableRepository<T> {
             return query;
         }
 
-        System.out.println("Predicate: " + predicate);
-        if (this.jpaVendorUtilProxy.isAggregateFunction(predicate)) {
-            System.out.println("predicate Aggregate: " + predicate);
-        }
-        for (Expression expression : predicate.getExpressions()) {
-            System.out.println("Expression: " + expression);
-            if (this.jpaVendorUtilProxy.isAggregateFunction(expression)) {
-                System.out.println("Aggregate: " + expression);
-            }
-        }
-
         Predicate restriction = query.getRestriction();
         if (restriction == null) {
             query.where(predicate);
@@ -214,30 +500,270 @@ public class SelectableRepositoryImpl<T> implements SelectableRepository<T> {
         return query;
     }
 
-    protected CriteriaQuery<T> createCriteriaQuery(Specification<T> specification, Sort sort) {
-        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+    /**
+     * Creates the static part of the selectable query (joins, selection, where, group-by and having).
+     * @param builder the criteria builder
+     * @return the selectable query without specification and sort
+     */
+    protected CriteriaQuery<T> createQueryTemplate(CriteriaBuilder builder) {
         CriteriaQuery<T> query = builder.createQuery(selectableInfo.getSelectableClass());
         Root root = query.from(selectableInfo.getRootClass());
-        query = prepareQuery(root, query, builder);
+        return prepareQuery(root, query, builder);
+    }
+
+    /**
+     * The static part of the selectable query is prepared once and copied for each query - if supported by the JPA vendor.
+     * @param builder the criteria builder
+     * @return a new selectable query without specification and sort
+     */
+    protected CriteriaQuery<T> createSelectableQuery(CriteriaBuilder builder) {
+        CriteriaQuery<T> template = queryTemplate;
+        if (template == null) {
+            template = createQueryTemplate(builder);
+            CriteriaQuery<T> copy = jpaVendorUtilProxy.copyQuery(template);
+            if (copy == null) {
+                // copying not supported - prepare each query
+                return template;
+            }
+            queryTemplate = template;
+            return copy;
+        }
+        return jpaVendorUtilProxy.copyQuery(template);
+    }
+
+    protected CriteriaQuery<T> createCriteriaQuery(Specification<T> specification, Sort sort) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = createSelectableQuery(builder);
+        Root root = query.getRoots().iterator().next();
         query = applySpecification(root, query, builder, specification);
         query = applySort(root, query, builder, sort);
         return query;
     }
 
     protected TypedQuery<T> createTypedQuery(Specification<T> spec, Sort sort) {
-        CriteriaQuery<T> query = createCriteriaQuery(spec, sort);
-        return entityManager.createQuery(query);
+        ParameterBindings parameterBindings = new ParameterBindings();
+        CriteriaQuery<T> query = parameterBindings.collect(() -> createCriteriaQuery(spec, sort));
+        return parameterBindings.bind(entityManager.createQuery(query));
+    }
+
+    /**
+     * Counts the results of the selectable query (same joins, where, group-by and having) - grouped queries are
+     * wrapped in a subquery by the JPA vendor.
+     * @param specification the specification to apply
+     * @return the count query or null if not supported by the JPA vendor
+     */
+    protected CriteriaQuery<Long> createCountCriteriaQuery(Specification<T> specification) {
+        return jpaVendorUtilProxy.createCountQuery(createCriteriaQuery(specification, null));
+    }
+
+    protected TypedQuery<Long> createCountTypedQuery(Specification<T> spec) {
+        ParameterBindings parameterBindings = new ParameterBindings();
+        CriteriaQuery<Long> query = parameterBindings.collect(() -> createCountCriteriaQuery(spec));
+        return query == null ? null : parameterBindings.bind(entityManager.createQuery(query));
+    }
+
+    /**
+     * Creates the seek condition for the given request: rows after the last row of the previous page in sort order,
+     * e.g. {@code a > ? OR (a = ? AND b > ?)} for a sort by {@code a, b}.
+     * @param request the keyset request
+     * @return the seek condition or null for the first page
+     */
+    protected Specification<T> createKeysetSpecification(KeysetRequest request) {
+        List<Object> lastValues = request.getLastValues();
+        if (lastValues.isEmpty()) {
+            return null;
+        }
+        List<Sort.Order> orders = request.getSort().toList();
+        Operation condition = null;
+        for (int index = orders.size() - 1; index >= 0; --index) {
+            Sort.Order order = orders.get(index);
+            Operand reference = Operands.asReference(order.getProperty());
+            Object lastValue = lastValues.get(index);
+            Operation after = order.isAscending() ? Operations.greaterThan(reference, lastValue) : Operations.lessThan(reference, lastValue);
+            condition = condition == null ? after : Operations.or(after, Operations.and(Operations.equals(reference, lastValue), condition));
+        }
+        return new OperationSpecification<>(condition, true);
+    }
+
+    protected Specification<T> applyKeyset(Specification<T> spec, KeysetRequest request) {
+        Specification<T> keysetSpecification = createKeysetSpecification(request);
+        if (keysetSpecification == null) {
+            return spec;
+        }
+        return spec == null ? keysetSpecification : spec.and(keysetSpecification);
+    }
+
+    /**
+     * @param row the selectable
+     * @param property field name or alias of the selectable
+     * @return the value of the field
+     */
+    protected Object getFieldValue(T row, String property) {
+        Field field = getFieldInfo(property).getField();
+        ReflectionUtils.makeAccessible(field);
+        return ReflectionUtils.getField(field, row);
     }
 
     protected TypedQuery<T> createTypedQuery(Specification<T> spec, Pageable pageable) {
+        if (pageable instanceof KeysetRequest) {
+            spec = applyKeyset(spec, (KeysetRequest) pageable);
+        }
         TypedQuery<T> typedQuery = createTypedQuery(spec, pageable == null ? null : pageable.getSort());
-        if (pageable != null) {
+        if (pageable != null && pageable.isPaged()) {
             typedQuery.setFirstResult((int) pageable.getOffset());
             typedQuery.setMaxResults(pageable.getPageSize());
         }
         return typedQuery;
     }
 
+    /**
+     * Creates the selectable query selecting the field values (instead of the selectable) plus the total number of
+     * results as last item.
+     * @param specification the specification to apply
+     * @param sort the sort to apply
+     * @return the query or null if not supported by the JPA vendor or the query is distinct
+     */
+    protected CriteriaQuery<Object[]> createWindowTotalCriteriaQuery(Specification<T> specification, Sort sort) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        Expression<Long> totalCount = jpaVendorUtilProxy.createTotalCountExpression(builder);
+        if (totalCount == null) {
+            return null;
+        }
+        CriteriaQuery query = builder.createQuery(Object[].class);
+        Root root = query.from(selectableInfo.getRootClass());
+        query = prepareQuery(root, query, builder);
+        query = applySpecification(root, query, builder, specification);
+        if (query.isDistinct()) {
+            // the window function is evaluated before distinct - it would count duplicates (e.g. of joined operands)
+            return null;
+        }
+        query = applySort(root, query, builder, sort);
+        // added after group-by was prepared - the window function is evaluated on the grouped results
+        List<Selection<?>> selections = new ArrayList<>(query.getSelection().getCompoundSelectionItems());
+        selections.add(totalCount);
+        return query.multiselect(selections);
+    }
+
+    protected TypedQuery<Object[]> createWindowTotalTypedQuery(Specification<T> spec, Pageable pageable) {
+        ParameterBindings parameterBindings = new ParameterBindings();
+        CriteriaQuery<Object[]> query = parameterBindings.collect(() -> createWindowTotalCriteriaQuery(spec, pageable.getSort()));
+        if (query == null) {
+            return null;
+        }
+        TypedQuery<Object[]> typedQuery = parameterBindings.bind(entityManager.createQuery(query));
+        typedQuery.setFirstResult((int) pageable.getOffset());
+        typedQuery.setMaxResults(pageable.getPageSize());
+        return typedQuery;
+    }
+
+    protected Constructor<T> getSelectableConstructor() throws NoSuchMethodException {
+        if (selectableConstructor == null) {
+            Class<?>[] parameterTypes = selectableInfo.getFields().stream()
+                    .map(fieldInfo -> fieldInfo.getField().getType())
+                    .toArray(Class<?>[]::new);
+            Constructor<T> constructor = ReflectionUtils.accessibleConstructor(selectableInfo.getSelectableClass(), parameterTypes);
+            selectableConstructor = constructor;
+        }
+        return selectableConstructor;
+    }
+
+    /**
+     * @param constructor the constructor taking all field values
+     * @param values the field values in field order
+     * @return the selectable
+     */
+    protected T createSelectable(Constructor<T> constructor, Object[] values) {
+        Class<?>[] parameterTypes = constructor.getParameterTypes();
+        ConversionService conversionService = DefaultConversionService.getSharedInstance();
+        Object[] arguments = new Object[parameterTypes.length];
+        for (int index = 0; index < arguments.length; ++index) {
+            arguments[index] = conversionService.convert(values[index], parameterTypes[index]);
+        }
+        return BeanUtils.instantiateClass(constructor, arguments);
+    }
+
+    /**
+     * Selects page content and total in a single query - see {@link PageTotalMode#WINDOW_FUNCTION}.
+     * @return the page or null if not supported by the JPA vendor
+     */
+    protected Page<T> findPageWithWindowTotal(Specification<T> spec, Pageable pageable) {
+        Constructor<T> constructor;
+        try {
+            constructor = getSelectableConstructor();
+        } catch (NoSuchMethodException exc) {
+            // no constructor to create the selectables with
+            return null;
+        }
+        TypedQuery<Object[]> typedQuery = createWindowTotalTypedQuery(spec, pageable);
+        if (typedQuery == null) {
+            return null;
+        }
+        List<Object[]> rows = typedQuery.getResultList();
+        List<T> content = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            content.add(createSelectable(constructor, row));
+        }
+        // an empty page after the last page has no row to take the total from
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> rows.isEmpty() ? count(spec) : ((Number) rows.get(0)[rows.get(0).length - 1]).longValue());
+    }
+
+    /**
+     * @return the entities the selectables are read from (root and joined entities)
+     */
+    protected Set<Class<?>> getEntityClasses() {
+        Set<Class<?>> classes = entityClasses;
+        if (classes == null) {
+            Set<Class<?>> collectedClasses = new HashSet<>();
+            createSelectableQuery(entityManager.getCriteriaBuilder()).getRoots().forEach(root -> collectEntityClasses(root, collectedClasses));
+            classes = Collections.unmodifiableSet(collectedClasses);
+            entityClasses = classes;
+        }
+        return classes;
+    }
+
+    private static void collectEntityClasses(From<?, ?> from, Set<Class<?>> classes) {
+        classes.add(from.getJavaType());
+        from.getJoins().forEach(join -> collectEntityClasses(join, classes));
+    }
+
+    /**
+     * @return true if the current transaction may have changes not committed yet (e.g. a read-write transaction), so
+     * results must neither be read from the cache (the transaction could not read its own writes) nor be cached (other
+     * transactions would read uncommitted and maybe rolled back data)
+     */
+    protected boolean mayHaveUncommittedChanges() {
+        return TransactionSynchronizationManager.isActualTransactionActive() && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    /**
+     * Returns the cached result for the given key or loads and caches it - if a result cache is set, the key parts
+     * are comparable by value (see {@link SelectableResultCache#isCacheable(Object)}) and the current transaction has
+     * no uncommitted changes (see {@link #mayHaveUncommittedChanges()}).
+     * @param loader loads the result
+     * @param keyParts identify the result along with selectable and projection
+     * @return the result
+     */
+    protected <R> R getCached(Supplier<R> loader, Object... keyParts) {
+        SelectableResultCache cache = resultCache;
+        if (cache == null) {
+            return loader.get();
+        }
+        // results holding entities would be shared between persistence contexts
+        boolean cacheable = getEntityFields().isEmpty() && !isEntityClass(selectableInfo.getSelectableClass()) && !mayHaveUncommittedChanges();
+        for (Object keyPart : keyParts) {
+            cacheable &= SelectableResultCache.isCacheable(keyPart);
+        }
+        if (!cacheable) {
+            return cache.bypass(loader);
+        }
+        List<Object> key = new ArrayList<>(keyParts.length + 2);
+        key.add(selectableInfo.getSelectableClass());
+        key.add(selectedFields == null ? null : selectedFields.stream().map(fieldInfo -> fieldInfo.getField().getName()).collect(Collectors.toSet()));
+        key.addAll(Arrays.asList(keyParts));
+        return cache.get(getEntityClasses(), key, loader);
+    }
+
     @Override
     public Optional<T> findOne(Specification spec) {
         List<T> resultList = findAll(spec);
@@ -257,21 +783,218 @@ public class SelectableRepositoryImpl<T> implements SelectableRepository<T> {
 
     @Override
     public Page<T> findAll(Specification<T> spec, Specification<T> countSpec, Pageable pageable) {
+        if (pageable == null || pageable.isUnpaged()) {
+            List<T> resultList = findAll(spec, pageable == null ? null : pageable.getSort());
+            return new PageImpl<>(resultList);
+        }
+        return getCached(() -> findPage(spec, countSpec, pageable), "page", spec, countSpec, pageable);
+    }
+
+    protected Page<T> findPage(Specification<T> spec, Specification<T> countSpec, Pageable pageable) {
+        if (pageTotalMode == PageTotalMode.WINDOW_FUNCTION && Objects.equals(spec, countSpec)) {
+            Page<T> page = findPageWithWindowTotal(spec, pageable);
+            if (page != null) {
+                return page;
+            }
+        }
+        List<T> resultList = createTypedQuery(spec, pageable).getResultList();
+        // the count is skipped if the total follows from offset and page content
+        return PageableExecutionUtils.getPage(resultList, pageable, () -> count(countSpec));
+    }
+
+    @Override
+    public KeysetSlice<T> findAll(Specification<T> spec, KeysetRequest request) {
+        Assert.notNull(request, "request must not be null!");
+        TypedQuery<T> typedQuery = createTypedQuery(applyKeyset(spec, request), request.getSort());
+        // one more row tells if there is a next slice
+        typedQuery.setMaxResults(request.getPageSize() + 1);
+        List<T> resultList = typedQuery.getResultList();
+        if (resultList.size() <= request.getPageSize()) {
+            return new KeysetSlice<>(resultList, request, null);
+        }
+        List<T> content = new ArrayList<>(resultList.subList(0, request.getPageSize()));
+        return new KeysetSlice<>(content, request, request.after(content.get(content.size() - 1), this::getFieldValue));
+    }
+
+    @Override
+    public Slice<T> findSlice(Specification<T> spec, Pageable pageable) {
+        if (pageable instanceof KeysetRequest) {
+            return findAll(spec, (KeysetRequest) pageable);
+        }
+        if (pageable == null || pageable.isUnpaged()) {
+            return new SliceImpl<>(findAll(spec, pageable == null ? null : pageable.getSort()));
+        }
         TypedQuery<T> typedQuery = createTypedQuery(spec, pageable);
+        // one more row tells if there is a next slice
+        typedQuery.setMaxResults(pageable.getPageSize() + 1);
         List<T> resultList = typedQuery.getResultList();
-        return new PageImpl<>(resultList, pageable, spec.equals(countSpec) ? resultList.size() : count(countSpec));
+        boolean hasNext = resultList.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? new ArrayList<>(resultList.subList(0, pageable.getPageSize())) : resultList, pageable, hasNext);
     }
 
     @Override
     public List<T> findAll(Specification spec, Sort sort) {
+        if (resultCache == null) {
+            return createTypedQuery(spec, sort).getResultList();
+        }
+        // the cached list is shared
+        return new ArrayList<>(getCached(() -> createTypedQuery(spec, sort).getResultList(), "list", spec, sort == null ? Sort.unsorted() : sort));
+    }
+
+    /**
+     * @return the maximum number of keys queried at once by {@link #findAllByIds(Specification, String, Collection)}
+     */
+    protected int getKeyChunkSize() {
+        return Operators.In.DEFAULT_CHUNK_SIZE;
+    }
+
+    @Override
+    public List<T> findAllByIds(Specification<T> spec, String path, Collection<?> keys) {
+        Assert.notNull(keys, "keys must not be null!");
+        SelectableInfo.FieldInfo fieldInfo = getFieldInfo(path);
+        Assert.isTrue(isSelected(fieldInfo), String.format("'%s' is not selected!", path));
+        // keys are compared with the values of the selectables
+        Class<?> keyType = ClassUtils.resolvePrimitiveIfNecessary(fieldInfo.getField().getType());
+        ConversionService conversionService = DefaultConversionService.getSharedInstance();
+        Set<Object> distinctKeys = new LinkedHashSet<>();
+        for (Object key : keys) {
+            if (key != null) {
+                distinctKeys.add(conversionService.convert(key, keyType));
+            }
+        }
+        List<Object> keyList = new ArrayList<>(distinctKeys);
+        Map<Object, List<T>> rowsByKey = new HashMap<>();
+        int chunkSize = getKeyChunkSize();
+        for (int start = 0; start < keyList.size(); start += chunkSize) {
+            List<Object> chunk = new ArrayList<>(keyList.subList(start, Math.min(start + chunkSize, keyList.size())));
+            Specification<T> keySpecification = new OperationSpecification<>(Operations.in(Operands.asReference(path), chunk), true);
+            for (T row : findAll(spec == null ? keySpecification : spec.and(keySpecification), (Sort) null)) {
+                rowsByKey.computeIfAbsent(getFieldValue(row, path), key -> new ArrayList<>(1)).add(row);
+            }
+        }
+        List<T> result = new ArrayList<>();
+        keyList.forEach(key -> result.addAll(rowsByKey.getOrDefault(key, Collections.emptyList())));
+        return result;
+    }
+
+    protected TypedQuery<T> createStreamTypedQuery(Specification<T> spec, Sort sort, int fetchSize) {
         TypedQuery<T> typedQuery = createTypedQuery(spec, sort);
-        return typedQuery.getResultList();
+        typedQuery.setHint(HINT_FETCH_SIZE, fetchSize);
+        typedQuery.setHint(HINT_READ_ONLY, true);
+        return typedQuery;
+    }
+
+    protected boolean isEntityClass(Class<?> type) {
+        return entityManager.getMetamodel().getEntities().stream()
+                .anyMatch(entityType -> entityType.getJavaType().isAssignableFrom(type));
+    }
+
+    /**
+     * @return the selectable fields holding entities - these are managed by the persistence context
+     */
+    protected List<Field> getEntityFields() {
+        if (entityFields == null) {
+            List<Field> fields = new ArrayList<>();
+            for (SelectableInfo.FieldInfo fieldInfo : selectableInfo.getFields()) {
+                Field field = fieldInfo.getField();
+                if (isEntityClass(field.getType())) {
+                    ReflectionUtils.makeAccessible(field);
+                    fields.add(field);
+                }
+            }
+            entityFields = fields;
+        }
+        return entityFields;
+    }
+
+    /**
+     * Detaches the given results (and the entities they hold) from the persistence context.
+     * @param rows the results
+     */
+    protected void detach(List<T> rows) {
+        boolean isEntity = isEntityClass(selectableInfo.getSelectableClass());
+        List<Field> fields = getEntityFields();
+        for (T row : rows) {
+            if (isEntity) {
+                entityManager.detach(row);
+            }
+            for (Field field : fields) {
+                Object value = ReflectionUtils.getField(field, row);
+                if (value != null) {
+                    entityManager.detach(value);
+                }
+            }
+        }
+    }
+
+    @Override
+    public Stream<T> streamAll(Specification<T> spec, Sort sort) {
+        Stream<T> stream = createStreamTypedQuery(spec, sort, DEFAULT_STREAM_FETCH_SIZE).getResultStream();
+        if (!isEntityClass(selectableInfo.getSelectableClass()) && getEntityFields().isEmpty()) {
+            // nothing managed by the persistence context
+            return stream;
+        }
+        Iterator<T> iterator = stream.iterator();
+        Iterator<T> detachingIterator = new Iterator<T>() {
+            private T previous;
+
+            @Override
+            public boolean hasNext() {
+                boolean hasNext = iterator.hasNext();
+                if (!hasNext) {
+                    detachPrevious();
+                }
+                return hasNext;
+            }
+
+            @Override
+            public T next() {
+                detachPrevious();
+                previous = iterator.next();
+                return previous;
+            }
+
+            private void detachPrevious() {
+                if (previous != null) {
+                    detach(Collections.singletonList(previous));
+                    previous = null;
+                }
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(detachingIterator, Spliterator.ORDERED), false)
+                .onClose(stream::close);
+    }
+
+    @Override
+    public void forEachChunk(Specification<T> spec, Sort sort, int chunkSize, Consumer<List<T>> consumer) {
+        Assert.isTrue(chunkSize > 0, "chunkSize must be greater than 0!");
+        Assert.notNull(consumer, "consumer must not be null!");
+        try (Stream<T> stream = createStreamTypedQuery(spec, sort, chunkSize).getResultStream()) {
+            Iterator<T> iterator = stream.iterator();
+            List<T> chunk = new ArrayList<>(chunkSize);
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == chunkSize || !iterator.hasNext()) {
+                    consumer.accept(chunk);
+                    detach(chunk);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+        }
     }
 
     @Override
     public long count(Specification spec) {
-        // TODO create count/count-distinct query
-        return findAll(spec).size();
+        return getCached(() -> countResults(spec), "count", spec);
+    }
+
+    protected long countResults(Specification<T> spec) {
+        TypedQuery<Long> countQuery = createCountTypedQuery(spec);
+        if (countQuery == null) {
+            // count query not supported - count the results
+            return findAll(spec).size();
+        }
+        return countQuery.getSingleResult();
     }
 
     @Override
@@ -1,11 +1,15 @@
 package net.seesharpsoft.spring.data.jpa;
 
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
 import jakarta.persistence.criteria.Expression;
 import jakarta.persistence.criteria.Selection;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface JpaVendorUtilProxy {
     boolean isAggregateFunction(Expression<?> expression);
@@ -21,4 +25,54 @@ public interface JpaVendorUtilProxy {
         }
         return Collections.singletonList(selection);
     }
+
+    /**
+     * Creates a query counting the results of the given query. Grouped queries are expected to be wrapped in a
+     * subquery, so the groups (and not the rows) are counted.
+     * @param query the query to count the results of
+     * @return the count query or null if not supported
+     */
+    default CriteriaQuery<Long> createCountQuery(CriteriaQuery<?> query) {
+        return null;
+    }
+
+    /**
+     * Creates a window function counting all results of the query it is selected in, e.g. {@code count(*) over ()}.
+     * @param builder the criteria builder
+     * @return the expression or null if not supported
+     */
+    default Expression<Long> createTotalCountExpression(CriteriaBuilder builder) {
+        return null;
+    }
+
+    /**
+     * Creates a parameter carrying its value, so the query using it can be executed without binding the value
+     * explicitly - e.g. by repositories the criteria query is passed to.
+     * @param builder the criteria builder
+     * @param value the value - must not be null
+     * @return the parameter or null if not supported
+     */
+    default <T> Expression<T> createValueParameter(CriteriaBuilder builder, T value) {
+        return null;
+    }
+
+    /**
+     * Creates a deep copy of the given query, so it can be modified without affecting the original.
+     * @param query the query to copy
+     * @return the copy or null if not supported
+     */
+    default <T> CriteriaQuery<T> copyQuery(CriteriaQuery<T> query) {
+        return null;
+    }
+
+    /**
+     * Registers a listener called with the entity class after a transaction inserting, updating or deleting an entity
+     * of that class was committed.
+     * @param entityManagerFactory the entity manager factory to listen to
+     * @param listener the listener
+     * @return false if not supported
+     */
+    default boolean registerEntityChangeListener(EntityManagerFactory entityManagerFactory, Consumer<Class<?>> listener) {
+        return false;
+    }
 }
@@ -11,9 +11,24 @@ public class OperationSpecification<T> implements Specification<T> {
 
     private Operation operation;
 
-    public OperationSpecification(Operation operation) {
+    private final boolean parameterized;
+
+    /**
+     * @param operation     the operation
+     * @param parameterized true if literal values should become query parameters bound on execution (see {@link ParameterBindings})
+     */
+    public OperationSpecification(Operation operation, boolean parameterized) {
         Assert.notNull(operation, "operation must not be null!");
         this.operation = operation;
+        this.parameterized = parameterized;
+    }
+
+    public OperationSpecification(Operation operation) {
+        this(operation, false);
+    }
+
+    public boolean isParameterized() {
+        return parameterized;
     }
 
     protected Operation getOperation() {
@@ -22,7 +37,9 @@ public class OperationSpecification<T> implements Specification<T> {
 
     @Override
     public Predicate toPredicate(Root root, CriteriaQuery query, CriteriaBuilder cb) {
-        Expression expression = getOperation().asExpression(root, query, cb, null);
+        Expression expression = isParameterized() ?
+                ParameterBindings.parameterize(() -> getOperation().asExpression(root, query, cb, null)) :
+                getOperation().asExpression(root, query, cb, null);
         Assert.isInstanceOf(Predicate.class, expression);
         return (Predicate)expression;
     }
@@ -37,11 +54,11 @@ public class OperationSpecification<T> implements Specification<T> {
         if (!(other instanceof OperationSpecification otherCondition)) {
             return false;
         }
-        return Objects.equals(operation, otherCondition.getOperation());
+        return Objects.equals(operation, otherCondition.getOperation()) && parameterized == otherCondition.isParameterized();
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(operation);
+        return Objects.hash(operation, parameterized);
     }
 }
@@ -0,0 +1,146 @@
+package net.seesharpsoft.spring.data.jpa;
+
+import jakarta.persistence.Query;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.ParameterExpression;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.function.Supplier;
+
+/**
+ * Collects the values of parameters created while building a criteria query, so they can be bound when the query is
+ * executed. Queries differing only in their values are this way identical and can share a compiled query plan.
+ * <pre>
+ * ParameterBindings bindings = new ParameterBindings();
+ * CriteriaQuery&lt;T&gt; criteriaQuery = bindings.collect(() -&gt; createCriteriaQuery(specification));
+ * bindings.bind(entityManager.createQuery(criteriaQuery));
+ * </pre>
+ * Literals are only turned into parameters by parameterized specifications (see {@link OperationSpecification}).
+ * Without collected bindings - e.g. if the specification is passed to a Spring Data repository - the parameters carry
+ * their values themselves, if supported by the JPA vendor (see {@link JpaVendorUtilProxy#createValueParameter}).
+ * Otherwise literals stay inline.
+ */
+public class ParameterBindings {
+
+    private static final ThreadLocal<ParameterBindings> CURRENT = new ThreadLocal<>();
+
+    private static class ValueBinderHolder {
+        private static final JpaVendorUtilProxy VALUE_BINDER = ServiceLoader.load(JpaVendorUtilProxy.class).findFirst().orElse(null);
+    }
+
+    private static class Binding {
+        private final ParameterExpression parameter;
+        private final Object value;
+
+        private Binding(ParameterExpression parameter, Object value) {
+            this.parameter = parameter;
+            this.value = value;
+        }
+    }
+
+    private final List<Binding> bindings = new ArrayList<>();
+
+    // creates parameters carrying their values instead of collecting them - null if collecting
+    private final JpaVendorUtilProxy valueBinder;
+
+    private boolean active;
+
+    public ParameterBindings() {
+        this(null);
+    }
+
+    private ParameterBindings(JpaVendorUtilProxy valueBinder) {
+        this.valueBinder = valueBinder;
+    }
+
+    /**
+     * @return the bindings literals are currently collected in or null if literals should stay inline
+     */
+    public static ParameterBindings current() {
+        ParameterBindings current = CURRENT.get();
+        return current == null || !current.active ? null : current;
+    }
+
+    /**
+     * Offers these bindings to parameterized specifications applied by the given action.
+     * @param action the action building the criteria query
+     * @return the result of the action
+     */
+    public <R> R collect(Supplier<R> action) {
+        ParameterBindings previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Turns literals created by the given action into parameters - collected by the current bindings or, if there
+     * are none, carrying their values.
+     * @param action the action creating expressions
+     * @return the result of the action
+     */
+    public static <R> R parameterize(Supplier<R> action) {
+        ParameterBindings current = CURRENT.get();
+        if (current == null) {
+            JpaVendorUtilProxy valueBinder = ValueBinderHolder.VALUE_BINDER;
+            return valueBinder == null ? action.get() : new ParameterBindings(valueBinder).collect(() -> parameterize(action));
+        }
+        if (current.active) {
+            return action.get();
+        }
+        current.active = true;
+        try {
+            return action.get();
+        } finally {
+            current.active = false;
+        }
+    }
+
+    /**
+     * Creates a parameter for the given value.
+     * @param builder the criteria builder
+     * @param value the value to bind - must not be null
+     * @return the parameter expression (or a literal if the JPA vendor does not support parameters carrying their value)
+     */
+    public <T> Expression<T> parameter(CriteriaBuilder builder, T value) {
+        if (valueBinder != null) {
+            Expression<T> valueParameter = valueBinder.createValueParameter(builder, value);
+            return valueParameter == null ? builder.literal(value) : valueParameter;
+        }
+        ParameterExpression<T> parameter = builder.parameter((Class<T>) value.getClass());
+        bindings.add(new Binding(parameter, value));
+        return parameter;
+    }
+
+    public int size() {
+        return bindings.size();
+    }
+
+    public List<ParameterExpression> getParameters() {
+        List<ParameterExpression> parameters = new ArrayList<>(bindings.size());
+        bindings.forEach(binding -> parameters.add(binding.parameter));
+        return Collections.unmodifiableList(parameters);
+    }
+
+    /**
+     * Binds all collected values to the given query.
+     * @param query the query created for the criteria query
+     * @return the query
+     */
+    public <Q extends Query> Q bind(Q query) {
+        for (Binding binding : bindings) {
+            query.setParameter(binding.parameter, binding.value);
+        }
+        return query;
+    }
+}
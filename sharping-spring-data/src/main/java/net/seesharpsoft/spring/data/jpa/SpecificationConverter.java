@@ -13,14 +13,35 @@ public class SpecificationConverter implements Converter<String, Specification>
 
     private final Parser parser;
 
+    private boolean parameterized;
+
+    public SpecificationConverter(Parser parser) {
+        this.parser = parser;
+    }
+
     public SpecificationConverter(Dialect dialect, ConversionService conversionService) {
-        this.parser = new Parser(dialect, conversionService);
+        this(new Parser(dialect, conversionService));
+    }
+
+    public Parser getParser() {
+        return parser;
     }
-    
+
+    public boolean isParameterized() {
+        return parameterized;
+    }
+
+    /**
+     * @param parameterized true if converted specifications should bind literal values as query parameters
+     */
+    public void setParameterized(boolean parameterized) {
+        this.parameterized = parameterized;
+    }
+
     @Override
     public Specification convert(@Nullable String input) {
         try {
-            return input == null || input.isEmpty() ? StaticSpecification.TRUE : new OperationSpecification(parser.parseExpression(input));
+            return input == null || input.isEmpty() ? StaticSpecification.TRUE : new OperationSpecification(parser.parseExpression(input), isParameterized());
         } catch (ParseException e) {
             e.printStackTrace();
             throw new RuntimeException(e);
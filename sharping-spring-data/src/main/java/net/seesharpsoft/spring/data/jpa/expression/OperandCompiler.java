@@ -0,0 +1,637 @@
+package net.seesharpsoft.spring.data.jpa.expression;
+
+import jakarta.persistence.criteria.Expression;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Compiles operands (e.g. parsed filter expressions) into reusable predicates or functions evaluating them in memory
+ * against objects of a given class.
+ * <pre>
+ * Predicate&lt;Person&gt; filter = new OperandCompiler().compilePredicate(parser.parseExpression("age gt 30"), Person.class);
+ * people.stream().filter(filter)...
+ * </pre>
+ * Field references are resolved once into method handles. Literals are converted to the type of the field they are
+ * compared to (as done for criteria queries) and comparisons of primitive numeric fields do not box.
+ * Other than (not) equals, comparisons with null are false - like in SQL.
+ */
+public class OperandCompiler {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private final ConversionService conversionService;
+
+    public OperandCompiler(ConversionService conversionService) {
+        Assert.notNull(conversionService, "conversionService must not be null!");
+        this.conversionService = conversionService;
+    }
+
+    public OperandCompiler() {
+        this(DefaultConversionService.getSharedInstance());
+    }
+
+    public ConversionService getConversionService() {
+        return conversionService;
+    }
+
+    /**
+     * @param operand    the operand evaluating to a boolean
+     * @param targetType the class of the objects to test
+     * @return a predicate evaluating the operand for a given object
+     * @throws IllegalArgumentException if a referenced field does not exist or the operand can not be evaluated in memory
+     */
+    public <T> Predicate<T> compilePredicate(Object operand, Class<T> targetType) {
+        Node node = compile(operand, targetType);
+        return node::test;
+    }
+
+    /**
+     * @param operand    the operand
+     * @param targetType the class of the objects to evaluate the operand for
+     * @return a function evaluating the operand for a given object
+     * @throws IllegalArgumentException if a referenced field does not exist or the operand can not be evaluated in memory
+     */
+    public <T> Function<T, Object> compileFunction(Object operand, Class<T> targetType) {
+        Node node = compile(operand, targetType);
+        return node::get;
+    }
+
+    private Node compile(Object operand, Class<?> targetType) {
+        if (operand instanceof Operands.FieldReference) {
+            return new FieldNode(targetType, ((Operands.FieldReference) operand).getValue());
+        }
+        if (operand instanceof Operands.Wrapper) {
+            return compile(((Operands.Wrapper) operand).<Object>getValue(), targetType);
+        }
+        if (operand instanceof Operation) {
+            return compileOperation((Operation) operand, targetType);
+        }
+        if (operand instanceof Expression || operand instanceof Specification) {
+            throw new IllegalArgumentException(String.format("%s can not be evaluated in memory!", operand));
+        }
+        if (operand instanceof Operand) {
+            return new OperandNode((Operand) operand);
+        }
+        return new Constant(operand);
+    }
+
+    private Node compileOperation(Operation operation, Class<?> targetType) {
+        Operator operator = operation.getOperator();
+        List<?> operands = operation.getOperands();
+        if (Operators.AND.equals(operator)) {
+            return new And(compile(operands.get(0), targetType), compile(operands.get(1), targetType));
+        }
+        if (Operators.OR.equals(operator)) {
+            return new Or(compile(operands.get(0), targetType), compile(operands.get(1), targetType));
+        }
+        if (Operators.NOT.equals(operator)) {
+            return new Not(compile(operands.get(0), targetType));
+        }
+        if (Operators.AS.equals(operator)) {
+            return compile(operands.get(0), targetType);
+        }
+        if (Operators.IF.equals(operator)) {
+            return new IfElse(compile(operands.get(0), targetType), compile(operands.get(1), targetType), compile(operands.get(2), targetType));
+        }
+        Relation relation = Relation.of(operator);
+        if (relation != null) {
+            return compileComparison(relation, operands.get(0), operands.get(1), targetType);
+        }
+        if (operator instanceof Operators.LikeOperatorBase) {
+            return new Like((Operators.LikeOperatorBase) operator, compile(operands.get(0), targetType), compile(operands.get(1), targetType));
+        }
+        if (Operators.IN.equals(operator)) {
+            Node needle = compile(operands.get(0), targetType);
+            Node collection = compile(operands.get(1), targetType);
+            if (collection instanceof Constant) {
+                return new In(needle, convertAll(((Constant) collection).value, needle.type));
+            }
+            return new OperatorNode(operator, needle, collection);
+        }
+        Node[] nodes = new Node[operands.size()];
+        for (int i = 0; i < nodes.length; ++i) {
+            nodes[i] = compile(operands.get(i), targetType);
+        }
+        return new OperatorNode(operator, nodes);
+    }
+
+    private Node compileComparison(Relation relation, Object leftOperand, Object rightOperand, Class<?> targetType) {
+        Node left = compile(leftOperand, targetType);
+        Node right = compile(rightOperand, targetType);
+        if (left instanceof Constant && !(right instanceof Constant)) {
+            left = new Constant(convert(((Constant) left).value, right.type));
+        } else if (right instanceof Constant && !(left instanceof Constant)) {
+            right = new Constant(convert(((Constant) right).value, left.type));
+        }
+        return new Comparison(relation, left, right);
+    }
+
+    private Object convert(Object value, Class<?> type) {
+        Class<?> boxedType = ClassUtils.resolvePrimitiveIfNecessary(type);
+        if (value == null || Object.class.equals(boxedType) || boxedType.isInstance(value)) {
+            return value;
+        }
+        return conversionService.convert(value, boxedType);
+    }
+
+    private Set<Object> convertAll(Object values, Class<?> type) {
+        Iterable<?> iterable;
+        if (values instanceof Iterable) {
+            iterable = (Iterable<?>) values;
+        } else if (values instanceof Object[]) {
+            iterable = Arrays.asList((Object[]) values);
+        } else {
+            iterable = Collections.singletonList(values);
+        }
+        Set<Object> result = new HashSet<>();
+        iterable.forEach(value -> result.add(convert(value, type)));
+        return result;
+    }
+
+    private static boolean toBoolean(Object value) {
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        if (value instanceof String) {
+            return Boolean.parseBoolean((String) value);
+        }
+        return false;
+    }
+
+    private static boolean isIntegral(Class<?> type) {
+        return Long.class.equals(type) || Integer.class.equals(type) || Short.class.equals(type) || Byte.class.equals(type);
+    }
+
+    private static boolean isFloating(Class<?> type) {
+        return Double.class.equals(type) || Float.class.equals(type);
+    }
+
+    private enum Relation {
+        EQUALS,
+        NOT_EQUALS,
+        GREATER_THAN,
+        GREATER_THAN_OR_EQUALS,
+        LESS_THAN,
+        LESS_THAN_OR_EQUALS;
+
+        static Relation of(Operator operator) {
+            if (Operators.EQUALS.equals(operator)) {
+                return EQUALS;
+            }
+            if (Operators.NOT_EQUALS.equals(operator)) {
+                return NOT_EQUALS;
+            }
+            if (Operators.GREATER_THAN.equals(operator)) {
+                return GREATER_THAN;
+            }
+            if (Operators.GREATER_THAN_OR_EQUALS.equals(operator)) {
+                return GREATER_THAN_OR_EQUALS;
+            }
+            if (Operators.LESS_THAN.equals(operator)) {
+                return LESS_THAN;
+            }
+            if (Operators.LESS_THAN_OR_EQUALS.equals(operator)) {
+                return LESS_THAN_OR_EQUALS;
+            }
+            return null;
+        }
+
+        boolean isEquality() {
+            return this == EQUALS || this == NOT_EQUALS;
+        }
+
+        boolean matches(int comparison) {
+            switch (this) {
+                case EQUALS:
+                    return comparison == 0;
+                case NOT_EQUALS:
+                    return comparison != 0;
+                case GREATER_THAN:
+                    return comparison > 0;
+                case GREATER_THAN_OR_EQUALS:
+                    return comparison >= 0;
+                case LESS_THAN:
+                    return comparison < 0;
+                default:
+                    return comparison <= 0;
+            }
+        }
+    }
+
+    private abstract static class Node {
+        final Class<?> type;
+
+        Node(Class<?> type) {
+            this.type = type == null ? Object.class : type;
+        }
+
+        boolean isNullable() {
+            return true;
+        }
+
+        abstract Object get(Object target);
+
+        boolean test(Object target) {
+            return toBoolean(get(target));
+        }
+
+        long getLong(Object target) {
+            return ((Number) get(target)).longValue();
+        }
+
+        double getDouble(Object target) {
+            return ((Number) get(target)).doubleValue();
+        }
+    }
+
+    private abstract static class Condition extends Node {
+        Condition() {
+            super(Boolean.class);
+        }
+
+        @Override
+        boolean isNullable() {
+            return false;
+        }
+
+        @Override
+        final Object get(Object target) {
+            return test(target);
+        }
+
+        @Override
+        abstract boolean test(Object target);
+    }
+
+    private static class Constant extends Node {
+        private final Object value;
+        private final boolean booleanValue;
+        private final long longValue;
+        private final double doubleValue;
+
+        Constant(Object value) {
+            super(value == null ? Object.class : value.getClass());
+            this.value = value;
+            this.booleanValue = toBoolean(value);
+            this.longValue = value instanceof Number ? ((Number) value).longValue() : 0;
+            this.doubleValue = value instanceof Number ? ((Number) value).doubleValue() : 0;
+        }
+
+        @Override
+        boolean isNullable() {
+            return value == null;
+        }
+
+        @Override
+        Object get(Object target) {
+            return value;
+        }
+
+        @Override
+        boolean test(Object target) {
+            return booleanValue;
+        }
+
+        @Override
+        long getLong(Object target) {
+            return longValue;
+        }
+
+        @Override
+        double getDouble(Object target) {
+            return doubleValue;
+        }
+    }
+
+    /**
+     * Reads a (nested) field. Primitive fields of the target itself are read without boxing, the type of nested
+     * fields is boxed as any object on the path might be null.
+     */
+    private static class FieldNode extends Node {
+        private final String path;
+        private final MethodHandle[] parents;
+        private final MethodHandle getter;
+        private final MethodHandle booleanGetter;
+        private final MethodHandle longGetter;
+        private final MethodHandle doubleGetter;
+
+        FieldNode(Class<?> targetType, String path) {
+            this(targetType, path, resolve(targetType, Operands.getPathParts(path)));
+        }
+
+        private FieldNode(Class<?> targetType, String path, Field[] fields) {
+            super(fields.length == 1 ? fields[0].getType() : ClassUtils.resolvePrimitiveIfNecessary(fields[fields.length - 1].getType()));
+            this.path = path;
+            this.parents = new MethodHandle[fields.length - 1];
+            for (int i = 0; i < parents.length; ++i) {
+                parents[i] = unreflect(fields[i], Object.class);
+            }
+            Field field = fields[fields.length - 1];
+            this.getter = unreflect(field, Object.class);
+            boolean primitive = type.isPrimitive();
+            this.booleanGetter = primitive && boolean.class.equals(type) ? unreflect(field, boolean.class) : null;
+            this.longGetter = primitive && isIntegral(ClassUtils.resolvePrimitiveIfNecessary(type)) ? unreflect(field, long.class) : null;
+            this.doubleGetter = primitive && (longGetter != null || isFloating(ClassUtils.resolvePrimitiveIfNecessary(type))) ? unreflect(field, double.class) : null;
+        }
+
+        private static Field[] resolve(Class<?> targetType, String[] parts) {
+            Field[] fields = new Field[parts.length];
+            Class<?> current = targetType;
+            for (int i = 0; i < parts.length; ++i) {
+                Field field = ReflectionUtils.findField(current, parts[i]);
+                if (field == null) {
+                    throw new IllegalArgumentException(String.format("field '%s' not found in %s!", parts[i], current.getName()));
+                }
+                fields[i] = field;
+                current = field.getType();
+            }
+            return fields;
+        }
+
+        private static MethodHandle unreflect(Field field, Class<?> returnType) {
+            ReflectionUtils.makeAccessible(field);
+            try {
+                return LOOKUP.unreflectGetter(field).asType(MethodType.methodType(returnType, Object.class));
+            } catch (IllegalAccessException exc) {
+                throw new IllegalArgumentException(String.format("field '%s' is not accessible!", field), exc);
+            }
+        }
+
+        @Override
+        boolean isNullable() {
+            return !type.isPrimitive();
+        }
+
+        @Override
+        Object get(Object target) {
+            try {
+                Object current = target;
+                for (MethodHandle parent : parents) {
+                    current = (Object) parent.invokeExact(current);
+                    if (current == null) {
+                        return null;
+                    }
+                }
+                return (Object) getter.invokeExact(current);
+            } catch (Throwable exc) {
+                throw failed(exc);
+            }
+        }
+
+        @Override
+        boolean test(Object target) {
+            if (booleanGetter == null) {
+                return super.test(target);
+            }
+            try {
+                return (boolean) booleanGetter.invokeExact(target);
+            } catch (Throwable exc) {
+                throw failed(exc);
+            }
+        }
+
+        @Override
+        long getLong(Object target) {
+            if (longGetter == null) {
+                return super.getLong(target);
+            }
+            try {
+                return (long) longGetter.invokeExact(target);
+            } catch (Throwable exc) {
+                throw failed(exc);
+            }
+        }
+
+        @Override
+        double getDouble(Object target) {
+            if (doubleGetter == null) {
+                return super.getDouble(target);
+            }
+            try {
+                return (double) doubleGetter.invokeExact(target);
+            } catch (Throwable exc) {
+                throw failed(exc);
+            }
+        }
+
+        private RuntimeException failed(Throwable exc) {
+            if (exc instanceof RuntimeException) {
+                return (RuntimeException) exc;
+            }
+            if (exc instanceof Error) {
+                throw (Error) exc;
+            }
+            return new IllegalStateException(String.format("reading '%s' failed!", path), exc);
+        }
+    }
+
+    private static class Comparison extends Condition {
+        private static final int LONG = 0;
+        private static final int DOUBLE = 1;
+        private static final int OBJECT = 2;
+
+        private final Relation relation;
+        private final Node left;
+        private final Node right;
+        private final int kind;
+        private final boolean nullable;
+
+        Comparison(Relation relation, Node left, Node right) {
+            this.relation = relation;
+            this.left = left;
+            this.right = right;
+            this.nullable = left.isNullable() || right.isNullable();
+            Class<?> leftType = ClassUtils.resolvePrimitiveIfNecessary(left.type);
+            Class<?> rightType = ClassUtils.resolvePrimitiveIfNecessary(right.type);
+            if (relation.isEquality() && !leftType.equals(rightType)) {
+                // same as Objects.equals
+                this.kind = OBJECT;
+            } else if (isIntegral(leftType) && isIntegral(rightType)) {
+                this.kind = LONG;
+            } else if ((isIntegral(leftType) || isFloating(leftType)) && (isIntegral(rightType) || isFloating(rightType))) {
+                this.kind = DOUBLE;
+            } else {
+                this.kind = OBJECT;
+            }
+        }
+
+        @Override
+        boolean test(Object target) {
+            if (!nullable) {
+                if (kind == LONG) {
+                    return relation.matches(Long.compare(left.getLong(target), right.getLong(target)));
+                }
+                if (kind == DOUBLE) {
+                    return relation.matches(Double.compare(left.getDouble(target), right.getDouble(target)));
+                }
+            }
+            Object leftValue = left.get(target);
+            Object rightValue = right.get(target);
+            if (leftValue == null || rightValue == null) {
+                switch (relation) {
+                    case EQUALS:
+                        return leftValue == rightValue;
+                    case NOT_EQUALS:
+                        return leftValue != rightValue;
+                    default:
+                        return false;
+                }
+            }
+            switch (kind) {
+                case LONG:
+                    return relation.matches(Long.compare(((Number) leftValue).longValue(), ((Number) rightValue).longValue()));
+                case DOUBLE:
+                    return relation.matches(Double.compare(((Number) leftValue).doubleValue(), ((Number) rightValue).doubleValue()));
+                default:
+                    if (relation.isEquality()) {
+                        return relation.matches(leftValue.equals(rightValue) ? 0 : 1);
+                    }
+                    return relation.matches(((Comparable) leftValue).compareTo(rightValue));
+            }
+        }
+    }
+
+    private static class In extends Condition {
+        private final Node needle;
+        private final Set<Object> values;
+
+        In(Node needle, Set<Object> values) {
+            this.needle = needle;
+            this.values = values;
+        }
+
+        @Override
+        boolean test(Object target) {
+            return values.contains(needle.get(target));
+        }
+    }
+
+    private static class Like extends Condition {
+        private final Operators.LikeOperatorBase operator;
+        private final Node left;
+        private final Node right;
+
+        Like(Operators.LikeOperatorBase operator, Node left, Node right) {
+            this.operator = operator;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        boolean test(Object target) {
+            Object leftValue = left.get(target);
+            Object rightValue = right.get(target);
+            return toBoolean(operator.evaluate(leftValue == null ? "" : leftValue.toString(), rightValue == null ? "" : rightValue.toString()));
+        }
+    }
+
+    private static class And extends Condition {
+        private final Node left;
+        private final Node right;
+
+        And(Node left, Node right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        boolean test(Object target) {
+            return left.test(target) && right.test(target);
+        }
+    }
+
+    private static class Or extends Condition {
+        private final Node left;
+        private final Node right;
+
+        Or(Node left, Node right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        boolean test(Object target) {
+            return left.test(target) || right.test(target);
+        }
+    }
+
+    private static class Not extends Condition {
+        private final Node operand;
+
+        Not(Node operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        boolean test(Object target) {
+            return !operand.test(target);
+        }
+    }
+
+    private static class IfElse extends Node {
+        private final Node condition;
+        private final Node ifCase;
+        private final Node elseCase;
+
+        IfElse(Node condition, Node ifCase, Node elseCase) {
+            super(ifCase.type.equals(elseCase.type) ? ifCase.type : Object.class);
+            this.condition = condition;
+            this.ifCase = ifCase;
+            this.elseCase = elseCase;
+        }
+
+        @Override
+        Object get(Object target) {
+            return condition.test(target) ? ifCase.get(target) : elseCase.get(target);
+        }
+    }
+
+    /**
+     * Falls back to {@link Operator#evaluate(Object...)} with the evaluated operands.
+     */
+    private static class OperatorNode extends Node {
+        private final Operator operator;
+        private final Node[] operands;
+
+        OperatorNode(Operator operator, Node... operands) {
+            super(Object.class);
+            this.operator = operator;
+            this.operands = operands;
+        }
+
+        @Override
+        Object get(Object target) {
+            Object[] values = new Object[operands.length];
+            for (int i = 0; i < values.length; ++i) {
+                values[i] = operands[i].get(target);
+            }
+            return operator.evaluate(values);
+        }
+    }
+
+    private static class OperandNode extends Node {
+        private final Operand operand;
+
+        OperandNode(Operand operand) {
+            super(Object.class);
+            this.operand = operand;
+        }
+
+        @Override
+        Object get(Object target) {
+            return operand.evaluate();
+        }
+    }
+}
@@ -3,6 +3,7 @@ package net.seesharpsoft.spring.data.jpa.expression;
 import net.seesharpsoft.spring.data.jpa.CriteriaQueryWrapper;
 import net.seesharpsoft.spring.data.jpa.ExpressionHolder;
 import net.seesharpsoft.spring.data.jpa.JpaVendorUtilProxy;
+import net.seesharpsoft.spring.data.jpa.ParameterBindings;
 import org.springframework.core.convert.ConversionService;
 import org.springframework.core.convert.support.DefaultConversionService;
 import org.springframework.data.jpa.domain.Specification;
@@ -15,6 +16,7 @@ import jakarta.persistence.criteria.*;
 import jakarta.persistence.metamodel.Attribute;
 import java.lang.reflect.Field;
 import java.util.*;
+import java.util.regex.Pattern;
 
 public class Operands {
 
@@ -191,6 +193,30 @@ public class Operands {
         return getPath(from, nameOrAliasOrPath, Collections.emptyList());
     }
 
+    /**
+     * Collects the field references (paths or aliases like "user/name") of the given operand and its operands.
+     *
+     * @param operand the operand
+     * @return the referenced paths
+     */
+    public static Set<String> getReferences(Object operand) {
+        Set<String> references = new LinkedHashSet<>();
+        collectReferences(operand, references);
+        return references;
+    }
+
+    private static void collectReferences(Object operand, Set<String> references) {
+        if (operand instanceof FieldReference) {
+            references.add(((FieldReference) operand).getValue());
+        } else if (operand instanceof Wrapper) {
+            collectReferences(((Wrapper) operand).getValue(), references);
+        } else if (operand instanceof Operation) {
+            ((Operation) operand).getOperands().forEach(child -> collectReferences(child, references));
+        } else if (operand instanceof Iterable) {
+            ((Iterable<?>) operand).forEach(child -> collectReferences(child, references));
+        }
+    }
+
     public static Set<Root<?>> getAllRoots(AbstractQuery query) {
         Set<Root<?>> roots = new HashSet<>();
         roots.addAll(query.getRoots());
@@ -254,14 +280,24 @@ public class Operands {
 
     public static class FieldReference extends Wrapper {
 
+        private static final Pattern LEADING_SEPARATORS = Pattern.compile("^[/.\\\\]*");
+        private static final Pattern TRAILING_SEPARATORS = Pattern.compile("[/.\\\\]*$");
+        private static final Pattern DOUBLE_SEPARATORS = Pattern.compile("[/.\\\\][/.\\\\]");
+
         public FieldReference(String fieldReference) {
-            super(fieldReference
-                    .replaceAll("^[/.\\\\]*", "")
-                    .replaceAll("[/.\\\\]*$", "")
-                    .replaceAll("[/.\\\\][/.\\\\]", "/"));
+            super(normalize(fieldReference));
             Assert.hasText(fieldReference, "fieldReference must not be empty!");
         }
 
+        private static String normalize(String fieldReference) {
+            if (fieldReference.indexOf('/') == -1 && fieldReference.indexOf('.') == -1 && fieldReference.indexOf('\\') == -1) {
+                return fieldReference;
+            }
+            String result = LEADING_SEPARATORS.matcher(fieldReference).replaceAll("");
+            result = TRAILING_SEPARATORS.matcher(result).replaceAll("");
+            return DOUBLE_SEPARATORS.matcher(result).replaceAll("/");
+        }
+
         public Object evaluate(Object obj) {
             Assert.notNull(obj, "input parameter must not be null!");
             Object current = obj;
@@ -341,7 +377,12 @@ public class Operands {
             if (value instanceof Map) {
                 return criteriaBuilder.values((Map) value);
             }
-            return criteriaBuilder.literal(targetType == null || targetType.equals(Void.TYPE) ? getValue() : conversionService.convert(getValue(), targetType));
+            Object literal = targetType == null || targetType.equals(Void.TYPE) ? getValue() : conversionService.convert(getValue(), targetType);
+            ParameterBindings parameterBindings = ParameterBindings.current();
+            if (parameterBindings != null && literal != null) {
+                return parameterBindings.parameter(criteriaBuilder, literal);
+            }
+            return criteriaBuilder.literal(literal);
         }
 
         @Override
@@ -1,7 +1,10 @@
 package net.seesharpsoft.spring.data.jpa.expression;
 
 import net.seesharpsoft.commons.TriFunction;
+import net.seesharpsoft.spring.data.jpa.ParameterBindings;
 import net.seesharpsoft.spring.data.jpa.expression.Operator.NAry;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.DefaultConversionService;
 import org.springframework.util.Assert;
 
 import jakarta.persistence.TupleElement;
@@ -9,10 +12,13 @@ import jakarta.persistence.criteria.*;
 import java.math.BigDecimal;
 import java.math.MathContext;
 import java.math.RoundingMode;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 
@@ -128,25 +134,7 @@ public class Operators {
     public static final Operator LESS_THAN_OR_EQUALS = new Operators.Binary<Comparable, Comparable, Boolean>("<=", 90,
             CriteriaBuilder::lessThanOrEqualTo,
             (x, y) -> compareTo(x, y, r -> r <= 0));
-    public static final Operator IN = new Operators.Binary<>("IN", 90,
-            (criteriaBuilder, left, right) -> criteriaBuilder.in(left).value(right),
-            (Object needle, Object collection) -> {
-                if (collection == null) {
-                    return false;
-                }
-                Iterable iterable = null;
-                if (collection instanceof Iterable) {
-                    iterable = (Iterable)collection;
-                } else {
-                    iterable = Arrays.asList(collection);
-                }
-                for (Object value : iterable) {
-                    if (Objects.equals(needle, value)) {
-                        return true;
-                    }
-                }
-                return false;
-            });
+    public static final Operator IN = new Operators.In("IN", 90, Operators.In.DEFAULT_CHUNK_SIZE);
 
     public static final Operator ADD = new Numerical("+", 110, CriteriaBuilder::sum, BigDecimal::add);
     public static final Operator SUB = new Numerical("-", 110, CriteriaBuilder::diff, BigDecimal::subtract);
@@ -385,6 +373,114 @@ public class Operators {
         }
     }
 
+    /**
+     * IN operator - literal value lists are split into chunks of limited size (combined by OR), databases restrict the
+     * number of IN list elements (e.g. 1000 for Oracle) or slow down on very long lists. Within parameterized
+     * specifications each value becomes a parameter, so the statement only depends on the (padded) number of values.
+     */
+    public static class In extends Operators.Base {
+        public static final int DEFAULT_CHUNK_SIZE = 1000;
+
+        private final int chunkSize;
+
+        public In(String name, int precedence, int chunkSize) {
+            super(name, NAry.BINARY, precedence);
+            Assert.isTrue(chunkSize > 0, "chunkSize must be greater than 0!");
+            this.chunkSize = chunkSize;
+        }
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        @Override
+        public Object evaluate(Object... operands) {
+            Assert.isTrue(operands == null || operands.length == 2, "exactly two operands expected for binary operator!");
+            Operand leftOperand = operands == null ? null : Operands.from(operands[0]);
+            Operand rightOperand = operands == null ? null : Operands.from(operands[1]);
+            Object needle = leftOperand == null ? null : leftOperand.evaluate();
+            Object collection = rightOperand == null ? null : rightOperand.evaluate();
+            if (collection == null) {
+                return false;
+            }
+            for (Object value : asIterable(collection)) {
+                if (Objects.equals(needle, value)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public Expression createExpression(From root, AbstractQuery query, CriteriaBuilder builder, Object... operands) {
+            Assert.isTrue(operands != null && operands.length == 2, "exactly two operands expected for binary operator!");
+            Operand leftOperand = Operands.from(operands[0]);
+            Operand rightOperand = Operands.from(operands[1]);
+            Assert.notNull(leftOperand, "left operand of IN must not be null!");
+            Class targetType = decideTargetJavaClass(root, Operands.getContexts(query), leftOperand, rightOperand);
+            Expression left = leftOperand.asExpression(root, query, builder, targetType);
+
+            if (left instanceof Join) {
+                query.distinct(true);
+            }
+
+            Object values = rightOperand instanceof Operands.Wrapper ? ((Operands.Wrapper) rightOperand).getValue() : null;
+            if (!(values instanceof Iterable || values instanceof Object[])) {
+                Expression right = rightOperand == null ? builder.nullLiteral(void.class) : rightOperand.asExpression(root, query, builder, targetType);
+                return builder.in(left).value(right);
+            }
+            return createExpression(builder, left, convertAll(values, left.getJavaType()));
+        }
+
+        protected Expression createExpression(CriteriaBuilder builder, Expression left, List<Object> values) {
+            if (values.isEmpty()) {
+                return builder.disjunction();
+            }
+            ParameterBindings parameterBindings = ParameterBindings.current();
+            List<Predicate> chunks = new ArrayList<>();
+            for (int start = 0; start < values.size(); start += chunkSize) {
+                List<Object> chunk = values.subList(start, Math.min(start + chunkSize, values.size()));
+                CriteriaBuilder.In in = builder.in(left);
+                if (parameterBindings != null) {
+                    // padding the parameters to the next power of two (repeating the last value) limits the number of
+                    // distinct statements for varying list sizes
+                    int paddedSize = Math.min(Integer.highestOneBit(chunk.size() - 1) << 1, chunkSize);
+                    for (int index = 0; index < Math.max(paddedSize, chunk.size()); ++index) {
+                        in.value(parameterBindings.parameter(builder, chunk.get(Math.min(index, chunk.size() - 1))));
+                    }
+                } else {
+                    chunk.forEach(in::value);
+                }
+                chunks.add(in);
+            }
+            return chunks.size() == 1 ? chunks.get(0) : builder.or(chunks.toArray(new Predicate[0]));
+        }
+
+        private static Iterable asIterable(Object collection) {
+            if (collection instanceof Iterable) {
+                return (Iterable) collection;
+            }
+            if (collection instanceof Object[]) {
+                return Arrays.asList((Object[]) collection);
+            }
+            return Arrays.asList(collection);
+        }
+
+        /**
+         * @return the distinct non-null values converted to the given type - in their original order
+         */
+        private static List<Object> convertAll(Object collection, Class targetType) {
+            ConversionService conversionService = DefaultConversionService.getSharedInstance();
+            Set<Object> values = new LinkedHashSet<>();
+            for (Object value : asIterable(collection)) {
+                if (value != null) {
+                    values.add(targetType == null || Object.class.equals(targetType) ? value : conversionService.convert(value, targetType));
+                }
+            }
+            return new ArrayList<>(values);
+        }
+    }
+
     /**
      * Base class for numerical operations like addition, subtraction, modulo, etc.
      */
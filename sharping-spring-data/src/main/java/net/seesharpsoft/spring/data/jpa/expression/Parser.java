@@ -1,7 +1,10 @@
 package net.seesharpsoft.spring.data.jpa.expression;
 
 import net.seesharpsoft.UnhandledSwitchCaseException;
+import net.seesharpsoft.commons.collection.BoundedCache;
+import net.seesharpsoft.commons.collection.Pair;
 import net.seesharpsoft.commons.util.Lexer;
+import net.seesharpsoft.commons.util.TokenCursor;
 import net.seesharpsoft.commons.util.Tokenizer;
 import net.seesharpsoft.spring.data.jpa.expression.Dialect.Token;
 import org.springframework.core.convert.ConversionService;
@@ -30,6 +33,9 @@ public class Parser {
         DATE("[0-9]{4}[-][0-9]{2}[-][0-9]{2}", LocalDate.class, null),
         DATETIME("(datetime')?[0-9]{4}[-][0-9]{2}[-][0-9]{2}[T ][0-9]{2}[:][0-9]{2}[:][0-9]{2,4}(Z|[+-][0-9]{4})?'?", LocalDateTime.class, source -> source.startsWith("datetime'") ? source.substring("datetime'".length(), source.length() - 1) : source);
 
+        private static final String DATETIME_PREFIX = "datetime'";
+
+        // the pattern defines the primitive - parse() classifies without evaluating the patterns
         final Pattern pattern;
         final Class javaType;
         final Converter<String, String> converter;
@@ -40,13 +46,150 @@ public class Parser {
             this.converter = converter;
         }
 
+        /**
+         * Classifies the input in a single pass over its characters - the result is the first primitive (in
+         * declaration order) whose pattern matches the input.
+         *
+         * @param input the operand text
+         * @return the primitive type or null if none matches
+         */
         public static Primitive parse(String input) {
-            for (Primitive type : Primitive.values()) {
-                if (type.pattern.matcher(input).matches()) {
-                    return type;
+            int length = input.length();
+            if (length == 0) {
+                return null;
+            }
+            char first = input.charAt(0);
+            if (first == '\'') {
+                return isString(input, length) ? STRING : null;
+            }
+            if (isDigit(first) || first == '-' || first == '+' || first == '.') {
+                Primitive number = parseNumber(input, length);
+                if (number != null) {
+                    return number;
                 }
+            } else if ("null".equalsIgnoreCase(input)) {
+                return NULL;
+            } else if ("true".equalsIgnoreCase(input) || "false".equalsIgnoreCase(input)) {
+                return BOOLEAN;
             }
-            return null;
+            if (length == 36 && isGuid(input)) {
+                return GUID;
+            }
+            return parseDate(input, length);
+        }
+
+        private static boolean isDigit(char c) {
+            return c >= '0' && c <= '9';
+        }
+
+        private static boolean isHexDigit(char c) {
+            return isDigit(c) || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+        }
+
+        private static boolean isLineTerminator(char c) {
+            return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+        }
+
+        private static boolean isString(String input, int length) {
+            if (length < 3 || input.charAt(length - 1) != '\'') {
+                return false;
+            }
+            for (int i = 1; i < length - 1; ++i) {
+                if (isLineTerminator(input.charAt(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean isGuid(String input) {
+            for (int i = 0; i < 36; ++i) {
+                char c = input.charAt(i);
+                if (i == 8 || i == 13 || i == 18 || i == 23 ? c != '-' : !isHexDigit(c)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static int skipDigits(String input, int index, int length) {
+            while (index < length && isDigit(input.charAt(index))) {
+                ++index;
+            }
+            return index;
+        }
+
+        private static Primitive parseNumber(String input, int length) {
+            int index = input.charAt(0) == '-' || input.charAt(0) == '+' ? 1 : 0;
+            int integerEnd = skipDigits(input, index, length);
+            boolean hasIntegerDigits = integerEnd > index;
+            if (hasIntegerDigits && integerEnd == length) {
+                return INTEGER;
+            }
+            if (hasIntegerDigits && integerEnd == length - 1 && (input.charAt(integerEnd) == 'L' || input.charAt(integerEnd) == 'l')) {
+                return LONG;
+            }
+            index = integerEnd;
+            if (index < length && input.charAt(index) == '.') {
+                int fractionEnd = skipDigits(input, index + 1, length);
+                if (fractionEnd == index + 1) {
+                    return null;
+                }
+                index = fractionEnd;
+            } else if (!hasIntegerDigits) {
+                return null;
+            }
+            if (index < length && (input.charAt(index) == 'e' || input.charAt(index) == 'E')) {
+                int exponentStart = index + 1;
+                if (exponentStart < length && (input.charAt(exponentStart) == '-' || input.charAt(exponentStart) == '+')) {
+                    ++exponentStart;
+                }
+                index = skipDigits(input, exponentStart, length);
+                if (index == exponentStart) {
+                    return null;
+                }
+            }
+            return index == length ? DOUBLE : null;
+        }
+
+        private static boolean matchesDigits(String input, int index, int count) {
+            for (int i = index; i < index + count; ++i) {
+                if (!isDigit(input.charAt(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static Primitive parseDate(String input, int length) {
+            int index = input.regionMatches(true, 0, DATETIME_PREFIX, 0, DATETIME_PREFIX.length()) ? DATETIME_PREFIX.length() : 0;
+            // yyyy-MM-dd
+            if (length - index < 10 || !matchesDigits(input, index, 4) || input.charAt(index + 4) != '-' ||
+                    !matchesDigits(input, index + 5, 2) || input.charAt(index + 7) != '-' || !matchesDigits(input, index + 8, 2)) {
+                return null;
+            }
+            index += 10;
+            if (index == length) {
+                return index == 10 ? DATE : null;
+            }
+            // [T ]HH:mm:ss with 2 to 4 second digits
+            char separator = input.charAt(index);
+            if (length - index < 9 || (separator != 'T' && separator != 't' && separator != ' ') ||
+                    !matchesDigits(input, index + 1, 2) || input.charAt(index + 3) != ':' ||
+                    !matchesDigits(input, index + 4, 2) || input.charAt(index + 6) != ':' || !matchesDigits(input, index + 7, 2)) {
+                return null;
+            }
+            index = Math.min(skipDigits(input, index + 9, length), index + 11);
+            // optional zone and closing quote
+            if (index < length && (input.charAt(index) == 'Z' || input.charAt(index) == 'z')) {
+                ++index;
+            } else if (index + 5 <= length && (input.charAt(index) == '+' || input.charAt(index) == '-') && matchesDigits(input, index + 1, 4)) {
+                index += 5;
+            }
+            if (index < length && input.charAt(index) == '\'') {
+                ++index;
+            }
+            return index == length ? DATETIME : null;
         }
 
         public Class getJavaType() {
@@ -63,13 +206,15 @@ public class Parser {
     }
 
     private ConversionService conversionService;
+    private BoundedCache<Pair<Dialect, String>, Operand> expressionCache;
     private final Dialect dialect;
-    private Lexer<Token> lexer;
+    private volatile Lexer<Token> lexer;
 
     private static Tokenizer<Token> createTokenizer(Dialect dialect) {
         Tokenizer<Token> tokenizer = new Tokenizer();
         tokenizer.setCaseSensitive(dialect.isCaseSensitive());
         tokenizer.setTrimPattern("\n| ");
+        tokenizer.setCompiled(true);
         for (Token token : Token.values()) {
             String pattern = dialect.getRegexPattern(token);
             if (pattern != null && !pattern.isEmpty()) {
@@ -103,15 +248,35 @@ public class Parser {
     }
 
     protected Lexer<Token> getLexer() {
-        if (this.lexer == null) {
-            this.lexer = createLexer(createTokenizer(dialect));
+        Lexer<Token> result = this.lexer;
+        if (result == null) {
+            synchronized (this) {
+                result = this.lexer;
+                if (result == null) {
+                    result = createLexer(createTokenizer(dialect));
+                    this.lexer = result;
+                }
+            }
         }
-        return this.lexer;
+        return result;
     }
 
     public <T extends Operand> T parseExpression(String expression) throws ParseException {
-        List<Tokenizer.TokenInfo<Token>> rpn = toRPN(tokenize(expression));
-        return (T) evaluateRPN(rpn);
+        BoundedCache<Pair<Dialect, String>, Operand> cache = getExpressionCache();
+        if (cache == null) {
+            return (T) parse(expression);
+        }
+        Pair<Dialect, String> key = Pair.of(dialect, expression);
+        Operand operand = cache.get(key);
+        if (operand == null) {
+            operand = parse(expression);
+            cache.put(key, operand);
+        }
+        return (T) operand;
+    }
+
+    private Operand parse(String expression) throws ParseException {
+        return parse(getLexer().cursor(expression));
     }
 
     public Operand parseValue(String value) {
@@ -134,25 +299,31 @@ public class Parser {
 
     public void setConversionService(ConversionService conversionService) {
         this.conversionService = conversionService;
+        BoundedCache cache = getExpressionCache();
+        if (cache != null) {
+            cache.clear();
+        }
     }
 
-    protected List<Tokenizer.TokenInfo<Token>> tokenize(String input) throws ParseException {
-        return getLexer().tokenize(input);
+    public BoundedCache<Pair<Dialect, String>, Operand> getExpressionCache() {
+        return this.expressionCache;
     }
 
-    private Operand getOperand(Tokenizer.TokenInfo<Token> tokenInfo) {
-        switch (tokenInfo.token()) {
-            case OPERAND:
-                return parseValue(tokenInfo.text());
-            case NULL:
-                return null;
-            default:
-                throw new UnhandledSwitchCaseException(tokenInfo.token());
-        }
+    /**
+     * Sets a cache for parsed expressions - parsed expressions are immutable and can be shared. The cache is keyed by
+     * dialect and expression text, so it must not be shared with parsers using another conversion service.
+     * @param expressionCache the cache to use or null to disable caching
+     */
+    public void setExpressionCache(BoundedCache<Pair<Dialect, String>, Operand> expressionCache) {
+        this.expressionCache = expressionCache;
+    }
+
+    protected List<Tokenizer.TokenInfo<Token>> tokenize(String input) throws ParseException {
+        return getLexer().tokenize(input);
     }
 
-    private static boolean isOperator(Tokenizer.TokenInfo<Token> tokenInfo) {
-        switch (tokenInfo.token()) {
+    private static boolean isOperator(Token token) {
+        switch (token) {
             case UNARY_OPERATOR:
             case BINARY_OPERATOR:
             case UNARY_OPERATOR_METHOD:
@@ -164,8 +335,8 @@ public class Parser {
         }
     }
 
-    private static boolean isMethod(Tokenizer.TokenInfo<Token> tokenInfo) {
-        switch (tokenInfo.token()) {
+    private static boolean isMethod(Token token) {
+        switch (token) {
             case UNARY_OPERATOR_METHOD:
             case BINARY_OPERATOR_METHOD:
             case TERTIARY_OPERATOR_METHOD:
@@ -175,97 +346,154 @@ public class Parser {
         }
     }
 
-    private Operator getOperator(Tokenizer.TokenInfo<Token> tokenInfo) {
-        Assert.isTrue(isOperator(tokenInfo), "operator tokenInfo required!");
-        return dialect.getOperator(tokenInfo.text());
+    private Operator getOperator(TokenCursor<Token> in) {
+        return dialect.getOperator(in.text().toString());
     }
 
-    private List<Tokenizer.TokenInfo<Token>> toRPN(List<Tokenizer.TokenInfo<Token>> inputTokenInfos) throws ParseException {
-        Queue<Tokenizer.TokenInfo<Token>> in = new LinkedList(inputTokenInfos);
-        List<Tokenizer.TokenInfo<Token>> out = new LinkedList();
-        Deque<Tokenizer.TokenInfo> stack = new LinkedList();
+    /**
+     * Shunting-yard on array backed stacks: instead of collecting the operators in reverse polish notation first,
+     * they are applied to the operand stack as soon as they are popped - which results in the same operations.
+     */
+    private Operand parse(TokenCursor<Token> in) {
+        ParseStacks stacks = new ParseStacks();
 
-        while (!in.isEmpty()) {
-            Tokenizer.TokenInfo<Token> tokenInfo = in.poll();
-            switch (tokenInfo.token()) {
+        while (in.next()) {
+            Token token = in.tokenType();
+            switch (token) {
                 case UNARY_OPERATOR:
                 case BINARY_OPERATOR:
-                    Operator operator = getOperator(tokenInfo);
-                    while (!stack.isEmpty() && isOperator(stack.peek())) {
-                        if (!operator.hasHigherPrecedenceThan(getOperator(stack.peek()))) {
-                            out.add(stack.pop());
+                    Operator operator = getOperator(in);
+                    while (stacks.hasOperator() && isOperator(stacks.peekToken())) {
+                        if (!operator.hasHigherPrecedenceThan(stacks.peekOperator())) {
+                            stacks.applyOperator();
                             continue;
                         }
                         break;
                     }
-                    stack.push(tokenInfo);
+                    stacks.pushOperator(token, operator);
                     break;
                 case BRACKET_OPEN:
-                    stack.push(tokenInfo);
+                    stacks.pushOperator(token, null);
                     break;
                 case BRACKET_CLOSE:
-                    while (!stack.isEmpty() && stack.peek().token() != BRACKET_OPEN) {
-                        out.add(stack.pop());
+                    while (stacks.hasOperator() && stacks.peekToken() != BRACKET_OPEN) {
+                        stacks.applyOperator();
                     }
-                    stack.pop();
+                    stacks.popOperator();
                     break;
                 case UNARY_OPERATOR_METHOD:
                 case BINARY_OPERATOR_METHOD:
                 case TERTIARY_OPERATOR_METHOD:
-                    Assert.isTrue(in.peek().token() == BRACKET_OPEN, "opening bracket after method name expected!");
-                    stack.push(in.poll());
-                    stack.push(tokenInfo);
+                    Operator method = getOperator(in);
+                    Assert.isTrue(in.next() && in.tokenType() == BRACKET_OPEN, "opening bracket after method name expected!");
+                    stacks.pushOperator(BRACKET_OPEN, null);
+                    stacks.pushOperator(token, method);
                     break;
                 case METHOD_PARAMETER_SEPARATOR:
-                    while (!stack.isEmpty() && !isMethod(stack.peek())) {
-                        out.add(stack.pop());
+                    while (stacks.hasOperator() && !isMethod(stacks.peekToken())) {
+                        stacks.applyOperator();
                     }
                     break;
                 case OPERAND:
+                    stacks.pushOperand(parseValue(in.text().toString()));
+                    break;
                 case NULL:
-                    out.add(tokenInfo);
+                    stacks.pushOperand(null);
                     break;
                 default:
-                    throw new UnhandledSwitchCaseException(tokenInfo.token());
+                    throw new UnhandledSwitchCaseException(token);
             }
         }
-        while (!stack.isEmpty()) {
-            out.add(stack.pop());
+        while (stacks.hasOperator()) {
+            stacks.applyOperator();
         }
 
-        return out;
+        return stacks.popOperand();
     }
 
-    private Operand evaluateRPN(List<Tokenizer.TokenInfo<Token>> tokenInfos) {
-        Deque<Operand> operands = new LinkedList<>();
-
-        for (Tokenizer.TokenInfo tokenInfo : tokenInfos) {
-            if (isOperator(tokenInfo)) {
-                Operator operator = getOperator(tokenInfo);
-                Operation operation = null;
-                Operand right = operands.pop();
-                switch (operator.getNAry()) {
-                    case UNARY:
-                        operation = new Operations.Unary(operator, right);
-                        break;
-                    case BINARY:
-                        Operand left = operands.pop();
-                        operation = new Operations.Binary(operator, left, right);
-                        break;
-                    case TERTIARY:
-                        Operand second = operands.pop();
-                        Operand first = operands.pop();
-                        operation = new Operations.Tertiary(operator, first, second, right);
-                        break;
-                    default:
-                        throw new UnhandledSwitchCaseException(operator.getNAry());
-                }
-                operands.push(operation);
-            } else {
-                operands.push(getOperand(tokenInfo));
+    private static final class ParseStacks {
+        private static final int INITIAL_CAPACITY = 16;
+
+        private Token[] tokens = new Token[INITIAL_CAPACITY];
+        private Operator[] operators = new Operator[INITIAL_CAPACITY];
+        private int operatorCount;
+
+        private Operand[] operands = new Operand[INITIAL_CAPACITY];
+        private int operandCount;
+
+        boolean hasOperator() {
+            return operatorCount > 0;
+        }
+
+        Token peekToken() {
+            return tokens[operatorCount - 1];
+        }
+
+        Operator peekOperator() {
+            return operators[operatorCount - 1];
+        }
+
+        void pushOperator(Token token, Operator operator) {
+            if (operatorCount == tokens.length) {
+                tokens = Arrays.copyOf(tokens, operatorCount * 2);
+                operators = Arrays.copyOf(operators, operatorCount * 2);
+            }
+            tokens[operatorCount] = token;
+            operators[operatorCount] = operator;
+            ++operatorCount;
+        }
+
+        void popOperator() {
+            if (operatorCount == 0) {
+                throw new NoSuchElementException();
             }
+            --operatorCount;
+            operators[operatorCount] = null;
         }
 
-        return operands.pop();
+        void pushOperand(Operand operand) {
+            if (operandCount == operands.length) {
+                operands = Arrays.copyOf(operands, operandCount * 2);
+            }
+            operands[operandCount++] = operand;
+        }
+
+        Operand popOperand() {
+            if (operandCount == 0) {
+                throw new NoSuchElementException();
+            }
+            Operand operand = operands[--operandCount];
+            operands[operandCount] = null;
+            return operand;
+        }
+
+        /**
+         * Pops the top operator and pushes the operation applying it to the top operands.
+         */
+        void applyOperator() {
+            Token token = peekToken();
+            Operator operator = peekOperator();
+            popOperator();
+            if (!isOperator(token)) {
+                throw new UnhandledSwitchCaseException(token);
+            }
+            Operand right = popOperand();
+            switch (operator.getNAry()) {
+                case UNARY:
+                    pushOperand(new Operations.Unary(operator, right));
+                    break;
+                case BINARY:
+                    Operand left = popOperand();
+                    pushOperand(new Operations.Binary(operator, left, right));
+                    break;
+                case TERTIARY:
+                    Operand second = popOperand();
+                    Operand first = popOperand();
+                    pushOperand(new Operations.Tertiary(operator, first, second, right));
+                    break;
+                default:
+                    throw new UnhandledSwitchCaseException(operator.getNAry());
+            }
+        }
     }
 }
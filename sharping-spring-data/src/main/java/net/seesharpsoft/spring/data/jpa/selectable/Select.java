@@ -11,4 +11,10 @@ public @interface Select {
     String value() default "";
 
     boolean ignore() default false;
+
+    /**
+     * Paths of to-one associations of an entity typed field to be fetched along with the entity (e.g. lazy ones) - eager
+     * to-one associations are fetched anyway.
+     */
+    String[] fetch() default {};
 }
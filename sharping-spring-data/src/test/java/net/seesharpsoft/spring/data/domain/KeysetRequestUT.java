@@ -0,0 +1,89 @@
+package net.seesharpsoft.spring.data.domain;
+
+import org.hamcrest.MatcherAssert;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class KeysetRequestUT {
+
+    private static final Sort SORT = Sort.by(Sort.Order.asc("name"), Sort.Order.desc("created"), Sort.Order.asc("id"));
+
+    @Test
+    public void constructor_should_require_sort() {
+        assertThrows(IllegalArgumentException.class, () -> new KeysetRequest(10, Sort.unsorted()));
+    }
+
+    @Test
+    public void constructor_should_require_value_per_sort_property() {
+        assertThrows(IllegalArgumentException.class, () -> new KeysetRequest(Arrays.asList("a", 1), 10, SORT));
+    }
+
+    @Test
+    public void first_request_should_have_no_continuation_token() {
+        KeysetRequest request = new KeysetRequest(10, SORT);
+
+        MatcherAssert.assertThat(request.getContinuationToken(), nullValue());
+        MatcherAssert.assertThat(request.hasPrevious(), is(false));
+        MatcherAssert.assertThat(KeysetRequest.of(null, 10, SORT), equalTo(request));
+        MatcherAssert.assertThat(KeysetRequest.of("", 10, SORT), equalTo(request));
+    }
+
+    @Test
+    public void continuation_token_should_restore_values_and_sort() {
+        List<Object> values = Arrays.asList("Abby äöü", LocalDateTime.of(2020, 1, 2, 3, 4, 5), 42L);
+        KeysetRequest request = new KeysetRequest(values, 10, SORT);
+
+        String token = request.getContinuationToken();
+
+        MatcherAssert.assertThat(token, matchesPattern("[A-Za-z0-9_-]+"));
+        MatcherAssert.assertThat(KeysetRequest.of(token, 10), equalTo(request));
+        MatcherAssert.assertThat(KeysetRequest.of(token, 10, SORT), equalTo(request));
+        MatcherAssert.assertThat(KeysetRequest.of(token, 10, Sort.unsorted()), equalTo(request));
+    }
+
+    @Test
+    public void continuation_token_should_restore_value_types() {
+        Sort sort = Sort.by("a", "b", "c", "d", "e", "f", "g", "h", "i");
+        List<Object> values = Arrays.asList(null, 1, 2.5d, true, new BigDecimal("1.50"), UUID.randomUUID(), LocalDate.of(2020, 2, 29), Instant.ofEpochSecond(12345), "text");
+
+        KeysetRequest request = KeysetRequest.of(new KeysetRequest(values, 5, sort).getContinuationToken(), 5);
+
+        MatcherAssert.assertThat(request.getLastValues(), equalTo(values));
+    }
+
+    @Test
+    public void continuation_token_should_not_match_other_sort() {
+        String token = new KeysetRequest(Arrays.asList("Abby", LocalDate.of(2020, 1, 2), 42), 10, SORT).getContinuationToken();
+
+        assertThrows(IllegalArgumentException.class, () -> KeysetRequest.of(token, 10, Sort.by("name")));
+    }
+
+    @Test
+    public void invalid_continuation_token_should_be_rejected() {
+        assertThrows(IllegalArgumentException.class, () -> KeysetRequest.of("invalid", 10));
+        assertThrows(IllegalArgumentException.class, () -> KeysetRequest.of("!!", 10));
+    }
+
+    @Test
+    public void after_should_take_sort_values_of_row() {
+        KeysetRequest request = new KeysetRequest(10, Sort.by("name", "id"));
+
+        KeysetRequest next = request.after(new Object[]{"Bob", 2}, (row, property) -> property.equals("name") ? row[0] : row[1]);
+
+        MatcherAssert.assertThat(next.getLastValues(), contains("Bob", 2));
+        MatcherAssert.assertThat(next.getSort(), equalTo(request.getSort()));
+        MatcherAssert.assertThat(next.hasPrevious(), is(true));
+        MatcherAssert.assertThat(next.first(), equalTo(request));
+    }
+}
@@ -1,20 +1,26 @@
 package net.seesharpsoft.spring.data.domain;
 
 import net.seesharpsoft.spring.data.domain.impl.SelectableRepositoryFactoryImpl;
+import net.seesharpsoft.spring.data.domain.impl.SelectableRepositoryImpl;
 import net.seesharpsoft.spring.data.domain.impl.SqlParserImpl;
+import net.seesharpsoft.spring.data.jpa.JpaVendorUtilProxy;
 import net.seesharpsoft.spring.data.jpa.OperationSpecification;
 import net.seesharpsoft.spring.data.jpa.expression.Dialects;
 import net.seesharpsoft.spring.data.jpa.expression.Operands;
 import net.seesharpsoft.spring.data.jpa.expression.Operations;
+import net.seesharpsoft.spring.data.jpa.expression.Operators;
 import net.seesharpsoft.spring.test.ObjectMother;
+import net.seesharpsoft.spring.test.SqlStatementRecorder;
 import net.seesharpsoft.spring.test.TestApplication;
 import net.seesharpsoft.spring.test.model.Country;
 import net.seesharpsoft.spring.test.model.Team;
 import net.seesharpsoft.spring.test.model.Person;
 import net.seesharpsoft.spring.test.selectable.CountryInfo;
+import net.seesharpsoft.spring.test.selectable.CountryPeopleCountInfo;
 import net.seesharpsoft.spring.test.selectable.PersonInfo;
 import net.seesharpsoft.spring.test.selectable.PersonWithCountryInfo;
 import net.seesharpsoft.spring.test.selectable.PersonWithOptionalCountryInfo;
+import net.seesharpsoft.spring.test.selectable.TeamMemberInfo;
 import org.assertj.core.groups.Tuple;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -23,17 +29,27 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.AutoConfigureDataJpa;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
 
 import org.springframework.transaction.annotation.Transactional;
 
 import jakarta.persistence.EntityManager;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @ExtendWith(SpringExtension.class)
 @SpringBootTest(classes = TestApplication.class)
@@ -76,6 +92,12 @@ public class SelectableRepositoryIT {
         return factory.createRepository(selectableClass);
     }
 
+    protected SelectableRepository getSelectableRepository(Class selectableClass, PageTotalMode pageTotalMode) {
+        SelectableRepositoryFactoryImpl factory = new SelectableRepositoryFactoryImpl(entityManager, new SqlParserImpl(Dialects.SQL.getParser()));
+        factory.setPageTotalMode(pageTotalMode);
+        return factory.createRepository(selectableClass);
+    }
+
     @Test
     public void should_simple_find_all() {
         SelectableRepository<PersonInfo> repo = getSelectableRepository(PersonInfo.class);
@@ -253,4 +275,403 @@ public class SelectableRepositoryIT {
 
         assertThat(count).isEqualTo(2);
     }
+
+    @Test
+    public void should_count_with_single_count_statement() {
+        SelectableRepository<CountryInfo> countryRepo = getSelectableRepository(CountryInfo.class);
+        SelectableRepository<PersonInfo> personRepo = getSelectableRepository(PersonInfo.class);
+
+        SqlStatementRecorder.clear();
+        long countryCount = countryRepo.count(
+                new OperationSpecification<>(Operations.equals(Operands.asReference("people.mail"), abby.getMail()), true)
+        );
+        long personCount = personRepo.count(
+                new OperationSpecification<>(Operations.greaterThan(Operands.asReference("id"), 1), true)
+        );
+
+        assertThat(countryCount).isEqualTo(1);
+        assertThat(personCount).isEqualTo(3);
+        assertThat(SqlStatementRecorder.getStatements())
+                .hasSize(2)
+                .allMatch(statement -> statement.toLowerCase().startsWith("select count("));
+    }
+
+    @Test
+    public void should_page_by_keyset() {
+        SelectableRepository<PersonInfo> repo = getSelectableRepository(PersonInfo.class);
+        Specification<PersonInfo> withMail = new OperationSpecification<>(Operations.not(Operations.equals(Operands.asReference("mail"), null)));
+        Sort sort = Sort.by(Sort.Order.desc("fullName"), Sort.Order.asc("id"));
+
+        KeysetSlice<PersonInfo> first = repo.findAll(withMail, new KeysetRequest(2, sort));
+        SqlStatementRecorder.clear();
+        KeysetSlice<PersonInfo> second = repo.findAll(withMail, KeysetRequest.of(first.getContinuationToken(), 2));
+
+        assertThat(first.getContent()).extracting("id").containsExactly(3, 2);
+        assertThat(first.hasNext()).isTrue();
+        assertThat(second.getContent()).extracting("id").containsExactly(1);
+        assertThat(second.hasNext()).isFalse();
+        assertThat(second.getContinuationToken()).isNull();
+        assertThat(SqlStatementRecorder.getStatements()).hasSize(1).allMatch(statement -> !statement.contains("Bob"));
+    }
+
+    @Test
+    public void should_page_by_keyset_through_all_rows() {
+        SelectableRepository<PersonInfo> repo = getSelectableRepository(PersonInfo.class);
+        Sort sort = Sort.by(Sort.Direction.DESC, "id");
+        List<Object> ids = new ArrayList<>();
+
+        KeysetSlice<PersonInfo> slice = repo.findAll(new KeysetRequest(1, sort));
+        ids.add(slice.getContent().get(0).id());
+        while (slice.hasNext()) {
+            slice = repo.findAll((KeysetRequest) slice.nextPageable());
+            slice.forEach(personInfo -> ids.add(personInfo.id()));
+        }
+
+        assertThat(ids).containsExactly(100, 3, 2, 1);
+    }
+
+    @Test
+    public void should_stream_results() {
+        SelectableRepository<PersonInfo> repo = getSelectableRepository(PersonInfo.class);
+
+        try (Stream<PersonInfo> stream = repo.streamAll(null, Sort.by(Sort.Direction.DESC, "id"))) {
+            assertThat(stream.map(PersonInfo::id)).containsExactly(100, 3, 2, 1);
+        }
+    }
+
+    @Test
+    public void should_detach_streamed_entities() {
+        SelectableRepository<TeamMemberInfo> repo = getSelectableRepository(TeamMemberInfo.class);
+        List<Person> members = new ArrayList<>();
+
+        try (Stream<TeamMemberInfo> stream = repo.streamAll(null, null)) {
+            stream.forEach(memberInfo -> {
+                assertThat(entityManager.contains(memberInfo.member())).isTrue();
+                assertThat(members).noneMatch(entityManager::contains);
+                members.add(memberInfo.member());
+            });
+        }
+
+        assertThat(members).hasSize(4).noneMatch(entityManager::contains);
+    }
+
+    @Test
+    public void should_consume_results_in_chunks() {
+        SelectableRepository<PersonInfo> repo = getSelectableRepository(PersonInfo.class);
+        List<List<Integer>> chunks = new ArrayList<>();
+
+        repo.forEachChunk(null, Sort.by("id"), 3, chunk -> chunks.add(chunk.stream().map(PersonInfo::id).collect(Collectors.toList())));
+
+        assertThat(chunks).containsExactly(Arrays.asList(1, 2, 3), Collections.singletonList(100));
+    }
+
+    @Test
+    public void should_not_share_specification_and_sort_between_queries() {
+        SelectableRepository<PersonInfo> repo = getSelectableRepository(PersonInfo.class);
+        Specification<PersonInfo> idGreaterOne = new OperationSpecification<>(Operations.greaterThan(Operands.asReference("id"), 1));
+
+        assertThat(repo.findAll(idGreaterOne, Sort.by(Sort.Direction.DESC, "id"))).extracting("id").containsExactly(100, 3, 2);
+        assertThat(repo.findAll(Sort.by("id"))).extracting("id").containsExactly(1, 2, 3, 100);
+        assertThat(repo.count(idGreaterOne)).isEqualTo(3);
+        assertThat(repo.count()).isEqualTo(4);
+    }
+
+    @Test
+    public void should_skip_count_query_if_page_proves_total() {
+        SelectableRepository<PersonInfo> repo = getSelectableRepository(PersonInfo.class);
+
+        SqlStatementRecorder.clear();
+        Page<PersonInfo> firstPage = repo.findAll(PageRequest.of(0, 10, Sort.by("id")));
+        Page<PersonInfo> lastPage = repo.findAll(PageRequest.of(1, 3, Sort.by("id")));
+
+        assertThat(firstPage.getTotalElements()).isEqualTo(4);
+        assertThat(lastPage.getContent()).extracting("id").containsExactly(100);
+        assertThat(lastPage.getTotalElements()).isEqualTo(4);
+        assertThat(SqlStatementRecorder.getStatements()).hasSize(2);
+
+        SqlStatementRecorder.clear();
+        Page<PersonInfo> page = repo.findAll(PageRequest.of(0, 2, Sort.by("id")));
+
+        assertThat(page.getContent()).extracting("id").containsExactly(1, 2);
+        assertThat(page.getTotalElements()).isEqualTo(4);
+        assertThat(SqlStatementRecorder.getStatements()).hasSize(2);
+    }
+
+    @Test
+    public void should_select_page_total_by_window_function() {
+        SelectableRepository<PersonInfo> repo = getSelectableRepository(PersonInfo.class, PageTotalMode.WINDOW_FUNCTION);
+        Specification<PersonInfo> idGreaterOne = new OperationSpecification<>(Operations.greaterThan(Operands.asReference("id"), 1));
+
+        SqlStatementRecorder.clear();
+        Page<PersonInfo> page = repo.findAll(idGreaterOne, PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "id")));
+
+        assertThat(page.getContent()).extracting("id").containsExactly(100, 3);
+        assertThat(page.getContent()).extracting("fullName").containsExactly(null, "Carla X");
+        assertThat(page.getTotalElements()).isEqualTo(3);
+        assertThat(SqlStatementRecorder.getStatements()).hasSize(1).allMatch(statement -> statement.toLowerCase().contains("over"));
+
+        Page<PersonInfo> emptyPage = repo.findAll(idGreaterOne, PageRequest.of(5, 2));
+
+        assertThat(emptyPage.getContent()).isEmpty();
+        assertThat(emptyPage.getTotalElements()).isEqualTo(3);
+    }
+
+    @Test
+    public void should_select_page_total_of_grouped_selectable_by_window_function() {
+        SelectableRepository<CountryInfo> repo = getSelectableRepository(CountryInfo.class, PageTotalMode.WINDOW_FUNCTION);
+
+        Page<CountryInfo> page = repo.findAll(PageRequest.of(0, 1, Sort.by("name")));
+
+        assertThat(page.getContent()).extracting("name", "peopleCount").containsExactly(Tuple.tuple(france.getName(), 1L));
+        assertThat(page.getTotalElements()).isEqualTo(3);
+    }
+
+    @Test
+    public void should_count_page_total_of_distinct_query() {
+        SelectableRepository<PersonWithOptionalCountryInfo> repo = getSelectableRepository(PersonWithOptionalCountryInfo.class, PageTotalMode.WINDOW_FUNCTION);
+        Specification<PersonWithOptionalCountryInfo> fromGermany = new OperationSpecification<>(Operations.equals(Operands.asReference("personCountry"), germany), true);
+
+        SqlStatementRecorder.clear();
+        Page<PersonWithOptionalCountryInfo> page = repo.findAll(fromGermany, PageRequest.of(0, 1, Sort.by("id")));
+
+        assertThat(page.getContent()).extracting("id").containsExactly(abby.getId());
+        assertThat(page.getTotalElements()).isEqualTo(2);
+        assertThat(SqlStatementRecorder.getStatements()).hasSize(2).noneMatch(statement -> statement.toLowerCase().contains("over"));
+    }
+
+    @Test
+    public void should_find_slice_without_count_query() {
+        SelectableRepository<PersonInfo> repo = getSelectableRepository(PersonInfo.class);
+
+        SqlStatementRecorder.clear();
+        Slice<PersonInfo> first = repo.findSlice(PageRequest.of(0, 2, Sort.by("id")));
+        Slice<PersonInfo> last = repo.findSlice(first.nextPageable());
+
+        assertThat(first.getContent()).extracting("id").containsExactly(1, 2);
+        assertThat(first.hasNext()).isTrue();
+        assertThat(last.getContent()).extracting("id").containsExactly(3, 100);
+        assertThat(last.hasNext()).isFalse();
+        assertThat(SqlStatementRecorder.getStatements()).hasSize(2).noneMatch(statement -> statement.toLowerCase().contains("count("));
+    }
+
+    @Test
+    public void should_find_page_or_slice_depending_on_request() {
+        SelectableRepository<PersonInfo> repo = getSelectableRepository(PersonInfo.class);
+
+        assertThat(repo.findPageOrSlice(null, PageRequest.of(0, 2))).isInstanceOf(Page.class);
+        assertThat(repo.findPageOrSlice(null, SliceRequest.of(PageRequest.of(0, 2)))).isNotInstanceOf(Page.class);
+        assertThat(repo.findPageOrSlice(null, new KeysetRequest(2, Sort.by("id")))).isInstanceOf(KeysetSlice.class);
+    }
+
+    @Test
+    public void should_select_projected_fields_only() {
+        SelectableRepository<PersonWithOptionalCountryInfo> repo = getSelectableRepository(PersonWithOptionalCountryInfo.class);
+
+        SqlStatementRecorder.clear();
+        List<PersonWithOptionalCountryInfo> result = repo.select(Projection.of("id", "fullName")).findAll(Sort.by("id"));
+
+        assertThat(result).extracting("id", "fullName", "country", "countrySharingPeopleCount").containsExactly(
+                Tuple.tuple(1, "Abby Z", null, 0L),
+                Tuple.tuple(2, "Bob Y", null, 0L),
+                Tuple.tuple(3, "Carla X", null, 0L),
+                Tuple.tuple(100, null, null, 0L)
+        );
+        // the join of the unselected (grouped) country is kept, the one of the unselected aggregate is not
+        assertThat(SqlStatementRecorder.getStatements()).hasSize(1)
+                .allMatch(statement -> statement.toLowerCase().split(" join ").length == 2 && !statement.toLowerCase().contains("count("));
+    }
+
+    @Test
+    public void should_keep_joins_and_group_by_of_projected_aggregates() {
+        SelectableRepository<PersonWithOptionalCountryInfo> repo = getSelectableRepository(PersonWithOptionalCountryInfo.class);
+
+        List<PersonWithOptionalCountryInfo> result = repo.select(Projection.of("countrySharingPeopleCount")).findAll(Sort.by("id"));
+
+        assertThat(result).extracting("id", "fullName", "countrySharingPeopleCount").containsExactly(
+                Tuple.tuple(0, null, 2L),
+                Tuple.tuple(0, null, 2L),
+                Tuple.tuple(0, null, 1L),
+                Tuple.tuple(0, null, 0L)
+        );
+        assertThat(repo.select(Projection.of("country")).count()).isEqualTo(4);
+    }
+
+    @Test
+    public void should_keep_rows_of_selectable_grouped_coarser_than_root() {
+        SelectableRepository<CountryPeopleCountInfo> repo = getSelectableRepository(CountryPeopleCountInfo.class);
+
+        assertThat(repo.select(Projection.of("peopleCount")).findAll()).extracting("country", "peopleCount").containsExactlyInAnyOrder(
+                Tuple.tuple(null, 2L),
+                Tuple.tuple(null, 1L),
+                Tuple.tuple(null, 1L)
+        );
+        assertThat(repo.select(Projection.of("country")).findAll()).extracting("country", "peopleCount").containsExactlyInAnyOrder(
+                Tuple.tuple(germany.getName(), 0L),
+                Tuple.tuple(france.getName(), 0L),
+                Tuple.tuple(null, 0L)
+        );
+        assertThat(repo.select(Projection.of("peopleCount")).count()).isEqualTo(3);
+    }
+
+    @Test
+    public void should_reject_unknown_projected_field() {
+        SelectableRepository<PersonInfo> repo = getSelectableRepository(PersonInfo.class);
+
+        assertThatThrownBy(() -> repo.select(Projection.of("unknown"))).isInstanceOf(IllegalArgumentException.class);
+        assertThat(repo.select(null)).isSameAs(repo);
+        assertThat(repo.select(Projection.of("id", "fullName", "mail"))).isSameAs(repo);
+    }
+
+    private <T> int countDistinctStatements(JpaSpecificationExecutor<T> repo, boolean parameterized) {
+        SqlStatementRecorder.clear();
+        for (int id = 0; id < 10; ++id) {
+            repo.findAll(new OperationSpecification<T>(Operations.greaterThan(Operands.asReference("id"), id), parameterized));
+        }
+        // ignore statements loading associations
+        List<String> statements = SqlStatementRecorder.getStatements().stream()
+                .filter(statement -> statement.contains(" from person "))
+                .collect(Collectors.toList());
+        assertThat(statements).hasSize(10);
+        return new HashSet<>(statements).size();
+    }
+
+    @Test
+    public void should_share_statement_for_parameterized_specifications() {
+        SelectableRepository<PersonInfo> repo = getSelectableRepository(PersonInfo.class);
+
+        assertThat(countDistinctStatements(repo, false)).isEqualTo(10);
+        assertThat(countDistinctStatements(repo, true)).isEqualTo(1);
+        assertThat(repo.findAll(new OperationSpecification<>(Operations.greaterThan(Operands.asReference("id"), 2), true)))
+                .extracting("id").containsExactlyInAnyOrder(3, 100);
+    }
+
+    @Test
+    public void should_share_statement_for_parameterized_specifications_of_jpa_repository() {
+        SimpleJpaRepository<Person, Integer> repo = new SimpleJpaRepository<>(Person.class, entityManager);
+
+        assertThat(countDistinctStatements(repo, false)).isEqualTo(10);
+        assertThat(countDistinctStatements(repo, true)).isEqualTo(1);
+        assertThat(repo.findAll(new OperationSpecification<>(Operations.greaterThan(Operands.asReference("id"), 2), true)))
+                .extracting("id").containsExactlyInAnyOrder(3, 100);
+        assertThat(repo.count(new OperationSpecification<>(Operations.in(Operands.asReference("id"), Arrays.asList(1, 2, 42)), true)))
+                .isEqualTo(2);
+    }
+
+    public static class ChunkedSelectableRepository<T> extends SelectableRepositoryImpl<T> {
+        public ChunkedSelectableRepository(JpaVendorUtilProxy jpaVendorUtilProxy, EntityManager entityManager, SqlParser sqlParser, Class<T> selectableClass) {
+            super(jpaVendorUtilProxy, entityManager, sqlParser, selectableClass);
+        }
+
+        @Override
+        protected int getKeyChunkSize() {
+            return 2;
+        }
+    }
+
+    @Test
+    public void should_find_all_by_ids_in_key_order() {
+        SelectableRepository<PersonInfo> repo = getSelectableRepository(PersonInfo.class);
+
+        assertThat(repo.findAllByIds("id", Arrays.asList(3, "1", 42, null, 3, 100L))).extracting("id").containsExactly(3, 1, 100);
+        assertThat(repo.findAllByIds(new OperationSpecification<>(Operations.not(Operations.equals(Operands.asReference("mail"), null))), "id", Arrays.asList(100, 3)))
+                .extracting("id").containsExactly(3);
+        assertThat(repo.findAllByIds("id", Collections.emptyList())).isEmpty();
+        assertThatThrownBy(() -> repo.findAllByIds("unknown", Arrays.asList(1))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void should_find_all_by_ids_in_chunks() {
+        SelectableRepositoryFactory factory = new SelectableRepositoryFactoryImpl(entityManager, new SqlParserImpl(Dialects.SQL.getParser()));
+        SelectableRepository<PersonInfo> repo = factory.createRepository(ChunkedSelectableRepository.class, PersonInfo.class);
+
+        SqlStatementRecorder.clear();
+        List<PersonInfo> result = repo.findAllByIds("id", Arrays.asList(100, 2, 3, 2, 1));
+
+        assertThat(result).extracting("id").containsExactly(100, 2, 3, 1);
+        assertThat(SqlStatementRecorder.getStatements()).hasSize(2);
+    }
+
+    @Test
+    public void should_split_in_list_into_chunks() {
+        SelectableRepository<PersonInfo> repo = getSelectableRepository(PersonInfo.class);
+        Operators.In in = new Operators.In("IN", 90, 2);
+
+        for (boolean parameterized : Arrays.asList(false, true)) {
+            SqlStatementRecorder.clear();
+            List<PersonInfo> result = repo.findAll(new OperationSpecification<>(
+                    new Operations.Binary(in, Operands.asReference("id"), Arrays.asList(1, 2, 3, 42, 2)), parameterized), Sort.by("id"));
+
+            assertThat(result).extracting("id").containsExactly(1, 2, 3);
+            assertThat(SqlStatementRecorder.getStatements()).hasSize(1)
+                    .allMatch(statement -> statement.toLowerCase().split(" in ").length == 3);
+        }
+        assertThat(repo.findAll(new OperationSpecification<>(Operations.in(Operands.asReference("id"), Collections.emptyList())))).isEmpty();
+    }
+
+    @Test
+    // read-write transactions bypass the cache - the test data is flushed explicitly
+    @Transactional(readOnly = true)
+    public void should_cache_results_until_invalidated() {
+        SelectableResultCache cache = new SelectableResultCache(10, null);
+        SelectableRepositoryFactoryImpl factory = new SelectableRepositoryFactoryImpl(entityManager, new SqlParserImpl(Dialects.SQL.getParser()));
+        factory.setResultCache(cache);
+        SelectableRepository<PersonInfo> repo = factory.createRepository(PersonInfo.class);
+        Specification<PersonInfo> spec = new OperationSpecification<>(Operations.greaterThan(Operands.asReference("id"), 1));
+
+        SqlStatementRecorder.clear();
+        for (int i = 0; i < 3; ++i) {
+            assertThat(repo.findAll(spec, Sort.by("id"))).extracting("id").containsExactly(2, 3, 100);
+            assertThat(repo.findAll(spec, PageRequest.of(0, 2)).getTotalElements()).isEqualTo(3);
+            assertThat(repo.count(spec)).isEqualTo(3);
+        }
+        assertThat(SqlStatementRecorder.getStatements()).hasSize(3);
+        assertThat(cache.getMissCount()).isEqualTo(3);
+        // the count of the first page is cached as well
+        assertThat(cache.getHitCount()).isEqualTo(7);
+
+        cache.invalidate(Country.class);
+        repo.count(spec);
+        assertThat(SqlStatementRecorder.getStatements()).hasSize(3);
+
+        cache.invalidate(Person.class);
+        repo.count(spec);
+        assertThat(SqlStatementRecorder.getStatements()).hasSize(4);
+        assertThat(cache.getInvalidationCount()).isEqualTo(3);
+
+        repo.findAll(spec.and(spec));
+        repo.findAll(spec.and(spec));
+        assertThat(SqlStatementRecorder.getStatements()).hasSize(6);
+        assertThat(cache.getBypassCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void should_plan_fetches_of_selected_entities() {
+        SelectableInfo<TeamMemberInfo> selectableInfo = new SelectableInfo<>(new SqlParserImpl(Dialects.SQL.getParser()), TeamMemberInfo.class);
+
+        assertThat(selectableInfo.getFetchPlan()).hasSize(1);
+        assertThat(selectableInfo.getFetchPlan().get(0).getPath()).isEqualTo("member");
+        assertThat(selectableInfo.getFetchPlan().get(0).getFetchPaths()).containsExactly("country");
+        assertThat(new SelectableInfo<>(new SqlParserImpl(Dialects.SQL.getParser()), PersonInfo.class).getFetchPlan()).isEmpty();
+    }
+
+    @Test
+    public void should_fetch_associations_of_selected_entities_in_one_statement() {
+        Team teamA = entityManager.find(Team.class, ObjectMother.getTeamA().getId());
+        for (int index = 0; index < 20; ++index) {
+            Person person = new Person(200 + index, "Member", Integer.toString(index), null);
+            person.setCountry(entityManager.merge(new Country(10 + index, "C" + index, "Country " + index)));
+            person.setTeams(new HashSet<>(Collections.singletonList(teamA)));
+            entityManager.merge(person);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        SelectableRepository<TeamMemberInfo> repo = getSelectableRepository(TeamMemberInfo.class);
+
+        SqlStatementRecorder.clear();
+        List<TeamMemberInfo> result = repo.findAll();
+
+        assertThat(result).hasSize(24);
+        assertThat(result).extracting(memberInfo -> memberInfo.member().getCountry().getName()).contains("Germany", "France", "Country 0", "Country 19");
+        assertThat(SqlStatementRecorder.getStatements()).hasSize(1);
+    }
 }
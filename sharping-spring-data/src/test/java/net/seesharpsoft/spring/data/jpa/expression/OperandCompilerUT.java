@@ -0,0 +1,105 @@
+package net.seesharpsoft.spring.data.jpa.expression;
+
+import org.junit.jupiter.api.Test;
+
+import java.text.ParseException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class OperandCompilerUT {
+
+    public static class Address {
+        private String city;
+
+        public Address(String city) {
+            this.city = city;
+        }
+    }
+
+    public static class Person {
+        private String name;
+        private int age;
+        private Double score;
+        private boolean active;
+        private Address address;
+
+        public Person(String name, int age, Double score, boolean active, Address address) {
+            this.name = name;
+            this.age = age;
+            this.score = score;
+            this.active = active;
+            this.address = address;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    private static final Person ANNA = new Person("Anna", 31, 1.5, true, new Address("Berlin"));
+    private static final Person BOB = new Person("Bob", 25, null, false, null);
+    private static final Person CARL = new Person("Carl", 42, 3.0, true, new Address("Hamburg"));
+
+    private static final List<Person> PEOPLE = Arrays.asList(ANNA, BOB, CARL);
+
+    private final OperandCompiler compiler = new OperandCompiler();
+
+    private List<Person> filter(Dialect dialect, String expression) throws ParseException {
+        Predicate<Person> predicate = compiler.compilePredicate(new Parser(dialect).parseExpression(expression), Person.class);
+        return PEOPLE.stream().filter(predicate).collect(Collectors.toList());
+    }
+
+    @Test
+    public void should_compare_primitive_fields() throws ParseException {
+        assertThat(filter(Dialects.ODATA, "age gt 30"), contains(ANNA, CARL));
+        assertThat(filter(Dialects.ODATA, "age le 31"), contains(ANNA, BOB));
+        assertThat(filter(Dialects.ODATA, "age eq 42L"), contains(CARL));
+        assertThat(filter(Dialects.ODATA, "30.5 lt age"), contains(ANNA, CARL));
+        assertThat(filter(Dialects.ODATA, "active eq true"), contains(ANNA, CARL));
+        assertThat(filter(Dialects.SQL, "NOT (active)"), contains(BOB));
+    }
+
+    @Test
+    public void should_treat_null_like_sql() throws ParseException {
+        assertThat(filter(Dialects.ODATA, "score gt 2"), contains(CARL));
+        assertThat(filter(Dialects.ODATA, "score le 3"), contains(ANNA, CARL));
+        assertThat(filter(Dialects.ODATA, "score eq null"), contains(BOB));
+        assertThat(filter(Dialects.ODATA, "score ne null"), contains(ANNA, CARL));
+        assertThat(filter(Dialects.ODATA, "score eq 1.5"), contains(ANNA));
+    }
+
+    @Test
+    public void should_resolve_nested_fields() throws ParseException {
+        assertThat(filter(Dialects.ODATA, "address/city eq 'Berlin'"), contains(ANNA));
+        assertThat(filter(Dialects.ODATA, "address/city ne 'Berlin'"), contains(BOB, CARL));
+        assertThat(filter(Dialects.SQL, "address.city > 'C'"), contains(CARL));
+    }
+
+    @Test
+    public void should_combine_and_fall_back_to_operator_evaluation() throws ParseException {
+        assertThat(filter(Dialects.ODATA, "(age gt 30 and startswith(tolower(name), 'c')) or name eq 'Bob'"), contains(BOB, CARL));
+        assertThat(filter(Dialects.SQL, "age * 2 > 80 OR endsWith(name, 'na')"), contains(ANNA, CARL));
+        assertThat(compiler.compilePredicate(Operations.in(Operands.asReference("age"), Arrays.asList("25", "42")), Person.class).test(BOB), is(true));
+        assertThat(compiler.compilePredicate(Operations.in(Operands.asReference("age"), Arrays.asList(26L, 41L)), Person.class).test(BOB), is(false));
+    }
+
+    @Test
+    public void should_evaluate_functions() throws ParseException {
+        Function<Person, Object> function = compiler.compileFunction(new Parser(Dialects.SQL).parseExpression("if(age > 30, upper(name), address.city)"), Person.class);
+
+        assertThat(PEOPLE.stream().map(function).collect(Collectors.toList()), contains("ANNA", null, "CARL"));
+    }
+
+    @Test
+    public void should_fail_on_unknown_field() {
+        assertThrows(IllegalArgumentException.class, () -> compiler.compilePredicate(Operations.equals(Operands.asReference("unknown"), 1), Person.class));
+    }
+}
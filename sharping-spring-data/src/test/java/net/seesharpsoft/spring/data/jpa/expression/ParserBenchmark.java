@@ -0,0 +1,87 @@
+package net.seesharpsoft.spring.data.jpa.expression;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.text.ParseException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parse latency and allocation of {@link Parser}. Run after {@code mvn test-compile} with the test classpath:
+ * <pre>
+ * java -cp target/test-classes:target/classes:&lt;test dependencies&gt; net.seesharpsoft.spring.data.jpa.expression.ParserBenchmark
+ * </pre>
+ * Profiled with {@code -prof stack}, about three quarters of the parse time is spent matching the merged token regex
+ * of the lexer states ({@code Pattern$Branch.match}); {@link Parser} itself accounts for about 3%.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParserBenchmark {
+
+    private static final String ODATA_EXPRESSION = "a ne (z div 2) or (endswith(x, abc add 5 sub (2 mul 3))) ne (y gt 5) AND (b sub a gt 0) or 3 mod 5";
+
+    private static final String SQL_EXPRESSION = "name = 'eq lt ne' AND (age < 3 OR score > 1.5e3 OR not (type in [test,test2])) AND startsWith(lower(name), 'abc')";
+
+    private static final String[] VALUES = {
+            "name", "42", "-42L", "1.5e3", "'text'", "true", "null", "2020-01-01", "2020-01-01T10:00:00Z", "123e4567-e89b-12d3-a456-426614174000"
+    };
+
+    private Parser odataParser;
+
+    private Parser sqlParser;
+
+    @Setup
+    public void setup() throws ParseException {
+        odataParser = new Parser(Dialects.ODATA);
+        sqlParser = new Parser(Dialects.SQL);
+        // initialize lexers
+        odataParser.parseExpression(ODATA_EXPRESSION);
+        sqlParser.parseExpression(SQL_EXPRESSION);
+    }
+
+    @Benchmark
+    public Operand parseODataExpression() throws ParseException {
+        return odataParser.parseExpression(ODATA_EXPRESSION);
+    }
+
+    @Benchmark
+    public Operand parseSqlExpression() throws ParseException {
+        return sqlParser.parseExpression(SQL_EXPRESSION);
+    }
+
+    @Benchmark
+    public void classifyPrimitives(Blackhole blackhole) {
+        for (String value : VALUES) {
+            blackhole.consume(Parser.Primitive.parse(value));
+        }
+    }
+
+    @Benchmark
+    public void classifyPrimitivesByPattern(Blackhole blackhole) {
+        for (String value : VALUES) {
+            Parser.Primitive result = null;
+            for (Parser.Primitive type : Parser.Primitive.values()) {
+                if (type.pattern.matcher(value).matches()) {
+                    result = type;
+                    break;
+                }
+            }
+            blackhole.consume(result);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ParserBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -1,11 +1,20 @@
 package net.seesharpsoft.spring.data.jpa.expression;
 
+import net.seesharpsoft.commons.collection.BoundedCache;
+import net.seesharpsoft.commons.collection.Pair;
 import net.seesharpsoft.commons.util.Tokenizer;
 import net.seesharpsoft.spring.data.jpa.expression.Dialect.Token;
 import org.junit.jupiter.api.Test;
 
 import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
@@ -125,4 +134,94 @@ public class ParserUT {
         assertThat(operation, instanceOf(Operation.class));
         assertThat(operation.toString(), is("(lower({a}) includes upper('sub'))"));
     }
+
+    @Test
+    public void shared_parser_should_return_identical_results_when_used_concurrently() throws ParseException, InterruptedException, ExecutionException {
+        Parser parser = Dialects.SQL.getParser();
+        List<String> expressions = Arrays.asList(
+                "a = 'eq lt ne' AND (b < 3 OR c > '123' OR not (a/b in [test,test2]))",
+                "if(a <> (z / 2), abc + 5 - (2 * 3), (b - a) * (3 % 5))",
+                "count_distinct(a) as countA",
+                "startsWith(lower(name), 'abc') AND age >= 18"
+        );
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors());
+        ExecutorService executorService = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < threads * 100; ++i) {
+                String expression = expressions.get(i % expressions.size());
+                results.add(executorService.submit(() -> parser.parseExpression(expression).toString()));
+            }
+            for (int i = 0; i < results.size(); ++i) {
+                String expected = new Parser(Dialects.SQL).parseExpression(expressions.get(i % expressions.size())).toString();
+                assertThat(results.get(i).get(), is(expected));
+            }
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    @Test
+    public void parser_should_return_cached_expression_if_cache_is_set() throws ParseException {
+        Parser parser = new Parser(Dialects.ODATA);
+        BoundedCache<Pair<Dialect, String>, Operand> cache = new BoundedCache<>(10);
+        parser.setExpressionCache(cache);
+
+        Operand first = parser.parseExpression("a eq 1 and b ne 'x'");
+        Operand second = parser.parseExpression("a eq 1 and b ne 'x'");
+        Operand third = parser.parseExpression("a eq 2");
+
+        assertThat(second, sameInstance(first));
+        assertThat(third, not(equalTo(first)));
+        assertThat(cache.getHitCount(), is(1L));
+        assertThat(cache.getMissCount(), is(2L));
+        assertThat(cache.size(), is(2));
+    }
+
+    private static Parser.Primitive parsePrimitiveByPattern(String input) {
+        for (Parser.Primitive type : Parser.Primitive.values()) {
+            if (type.pattern.matcher(input).matches()) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    @Test
+    public void primitive_parse_should_classify_like_patterns() {
+        List<String> inputs = new ArrayList<>(Arrays.asList(
+                "null", "NuLL", "true", "False", "5L", "-5l", "+12", "-0", "1.5", "-.5", "5.", ".", "-", "1e5", "1E-5", "e5", "1.5e+3",
+                "123e4567-e89b-12d3-a456-426614174000", "123E4567-E89B-12D3-A456-42661417400G", "'a'", "''", "'a'b'", "'\n'",
+                "2020-01-01", "2020-01-01T10:00:00", "2020-01-01 10:00:00", "2020-01-01t10:00:0012", "2020-01-01T10:00:00123",
+                "2020-01-01T10:00:00Z", "2020-01-01T10:00:00+0100", "2020-01-01T10:00:00+01", "datetime'2020-01-01T10:00:00'",
+                "DATETIME'2020-01-01T10:00:00", "datetime'2020-01-01", "abc", "a.b", "", "0x10"
+        ));
+        Random random = new Random(42);
+        String alphabet = "0123456789-+.:eEL'TZ afnul\n";
+        for (String seed : new ArrayList<>(inputs)) {
+            for (int i = 0; i < 1000; ++i) {
+                StringBuilder builder = new StringBuilder(seed);
+                int position = seed.isEmpty() ? 0 : random.nextInt(seed.length());
+                char replacement = alphabet.charAt(random.nextInt(alphabet.length()));
+                switch (random.nextInt(3)) {
+                    case 0 -> builder.insert(position, replacement);
+                    case 1 -> builder.setLength(position);
+                    default -> builder.replace(position, Math.min(position + 1, seed.length()), String.valueOf(replacement));
+                }
+                inputs.add(builder.toString());
+            }
+        }
+        for (int i = 0; i < 100000; ++i) {
+            StringBuilder builder = new StringBuilder();
+            int length = random.nextInt(24);
+            for (int j = 0; j < length; ++j) {
+                builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            inputs.add(builder.toString());
+        }
+
+        for (String input : inputs) {
+            assertThat(input, Parser.Primitive.parse(input), is(parsePrimitiveByPattern(input)));
+        }
+    }
 }
@@ -3,11 +3,17 @@ package net.seesharpsoft.spring.test;
 import jakarta.persistence.criteria.Selection;
 import net.seesharpsoft.spring.data.jpa.JpaVendorUtilProxy;
 
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
 import jakarta.persistence.criteria.Expression;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.hibernate.query.criteria.JpaCriteriaQuery;
 import org.hibernate.query.criteria.JpaSelection;
 import org.hibernate.query.sqm.function.FunctionKind;
 import org.hibernate.query.sqm.tree.expression.SqmFunction;
+import org.hibernate.query.sqm.tree.SqmCopyContext;
 import org.hibernate.query.sqm.tree.select.SqmDynamicInstantiation;
+import org.hibernate.query.sqm.tree.select.SqmSelectStatement;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -39,4 +45,25 @@ public class JpaVendorUtilProxyDummy implements JpaVendorUtilProxy {
         }
         return Collections.singletonList(selection);
     }
+
+    @Override
+    public CriteriaQuery<Long> createCountQuery(CriteriaQuery<?> query) {
+        return ((JpaCriteriaQuery<?>) query).createCountQuery();
+    }
+
+    @Override
+    public Expression<Long> createTotalCountExpression(CriteriaBuilder builder) {
+        HibernateCriteriaBuilder hibernateBuilder = (HibernateCriteriaBuilder) builder;
+        return hibernateBuilder.functionAggregate("count", Long.class, hibernateBuilder.createWindow(), hibernateBuilder.literal(1));
+    }
+
+    @Override
+    public <T> Expression<T> createValueParameter(CriteriaBuilder builder, T value) {
+        return ((HibernateCriteriaBuilder) builder).value(value);
+    }
+
+    @Override
+    public <T> CriteriaQuery<T> copyQuery(CriteriaQuery<T> query) {
+        return ((SqmSelectStatement<T>) query).copy(SqmCopyContext.simpleContext());
+    }
 }
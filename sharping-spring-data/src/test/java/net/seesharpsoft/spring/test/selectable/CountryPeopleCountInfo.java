@@ -0,0 +1,25 @@
+package net.seesharpsoft.spring.test.selectable;
+
+import jakarta.persistence.criteria.JoinType;
+import lombok.AllArgsConstructor;
+import net.seesharpsoft.spring.data.jpa.selectable.Join;
+import net.seesharpsoft.spring.data.jpa.selectable.Joins;
+import net.seesharpsoft.spring.data.jpa.selectable.Select;
+import net.seesharpsoft.spring.data.jpa.selectable.Selectable;
+import net.seesharpsoft.spring.test.model.Person;
+
+@Selectable(
+        from = Person.class,
+        joins = @Joins(
+                @Join(value = "country", type = JoinType.LEFT, alias = "personCountry")
+        )
+)
+@AllArgsConstructor
+public class CountryPeopleCountInfo {
+
+    @Select("personCountry/name")
+    private String country;
+
+    @Select("COUNT(id)")
+    private long peopleCount;
+}
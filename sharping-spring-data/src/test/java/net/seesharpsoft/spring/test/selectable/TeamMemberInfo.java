@@ -0,0 +1,22 @@
+package net.seesharpsoft.spring.test.selectable;
+
+import jakarta.persistence.criteria.JoinType;
+import net.seesharpsoft.spring.data.jpa.selectable.Join;
+import net.seesharpsoft.spring.data.jpa.selectable.Joins;
+import net.seesharpsoft.spring.data.jpa.selectable.Select;
+import net.seesharpsoft.spring.data.jpa.selectable.Selectable;
+import net.seesharpsoft.spring.test.model.Person;
+import net.seesharpsoft.spring.test.model.Team;
+
+@Selectable(
+        from = Team.class,
+        joins = @Joins(
+                @Join(value = "people", type = JoinType.INNER, alias = "member")
+        )
+)
+public record TeamMemberInfo(
+        @Select("name")
+        String team,
+        @Select("member")
+        Person member
+) { }
@@ -3,15 +3,26 @@ package net.seesharpsoft.spring.data.jpa.hibernate;
 import jakarta.persistence.criteria.Selection;
 import net.seesharpsoft.spring.data.jpa.JpaVendorUtilProxy;
 
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
 import jakarta.persistence.criteria.Expression;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.hibernate.query.criteria.JpaCriteriaQuery;
 import org.hibernate.query.criteria.JpaSelection;
 import org.hibernate.query.sqm.function.FunctionKind;
 import org.hibernate.query.sqm.tree.expression.SqmFunction;
+import org.hibernate.query.sqm.tree.SqmCopyContext;
 import org.hibernate.query.sqm.tree.select.SqmDynamicInstantiation;
+import org.hibernate.query.sqm.tree.select.SqmSelectStatement;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
 public class JpaVendorUtilProxyHibernate implements JpaVendorUtilProxy {
     @Override
@@ -31,4 +42,36 @@ public class JpaVendorUtilProxyHibernate implements JpaVendorUtilProxy {
         }
         return Collections.singletonList(selection);
     }
+
+    @Override
+    public CriteriaQuery<Long> createCountQuery(CriteriaQuery<?> query) {
+        return ((JpaCriteriaQuery<?>) query).createCountQuery();
+    }
+
+    @Override
+    public Expression<Long> createTotalCountExpression(CriteriaBuilder builder) {
+        HibernateCriteriaBuilder hibernateBuilder = (HibernateCriteriaBuilder) builder;
+        return hibernateBuilder.functionAggregate("count", Long.class, hibernateBuilder.createWindow(), hibernateBuilder.literal(1));
+    }
+
+    @Override
+    public <T> Expression<T> createValueParameter(CriteriaBuilder builder, T value) {
+        return ((HibernateCriteriaBuilder) builder).value(value);
+    }
+
+    @Override
+    public <T> CriteriaQuery<T> copyQuery(CriteriaQuery<T> query) {
+        return ((SqmSelectStatement<T>) query).copy(SqmCopyContext.simpleContext());
+    }
+
+    @Override
+    public boolean registerEntityChangeListener(EntityManagerFactory entityManagerFactory, Consumer<Class<?>> listener) {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        EntityChangeEventListener eventListener = new EntityChangeEventListener(listener);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, eventListener);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, eventListener);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, eventListener);
+        return true;
+    }
 }
@@ -1,8 +1,11 @@
 package net.seesharpsoft.spring.multipart.boot.demo;
 
+import net.seesharpsoft.spring.multipart.batch.BatchMediaType;
+import net.seesharpsoft.spring.multipart.batch.services.BatchRequestProperties;
 import org.apache.tomcat.util.codec.binary.Base64;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import org.springframework.boot.test.context.SpringBootTest;
@@ -19,6 +22,9 @@ import static org.hamcrest.Matchers.equalTo;
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.DEFINED_PORT)
 public class BatchRequestE2ETest {
 
+    @Autowired
+    BatchRequestProperties batchRequestProperties;
+
     HttpHeaders createHeaders(String username, String password){
         return new HttpHeaders() {{
             String auth = username + ":" + password;
@@ -127,4 +133,42 @@ public class BatchRequestE2ETest {
                 "--batch--"));
     }
 
+    @Test
+    public void streamed_batch_response_should_equal_buffered_response() {
+        String batch = "--batch\n" +
+                "Content-Type: application/http\n" +
+                "Content-Transfer-Encoding: binary\n" +
+                "\n" +
+                "GET /hello HTTP/1.1\n" +
+                "--batch\n" +
+                "Content-Type: application/http\n" +
+                "Content-Transfer-Encoding: binary\n" +
+                "\n" +
+                "GET /hello HTTP/1.1\n" +
+                "--batch--";
+        String expectedPart = "--batch\n" +
+                "Content-Type: application/http\n" +
+                "Content-Transfer-Encoding: binary\n" +
+                "\n" +
+                "HTTP/1.1 200 OK\n" +
+                "Content-Type: text/plain;charset=UTF-8\n" +
+                "Content-Length: 27\n" +
+                "\n" +
+                "Greetings from Spring Boot!\n";
+        RestTemplate restTemplate = new RestTemplate();
+
+        batchRequestProperties.setStreamResponse(true);
+        try {
+            ResponseEntity<String> result = restTemplate.exchange(
+                    "http://localhost:8079/my/own/multipart/endpoint",
+                    HttpMethod.POST,
+                    new HttpEntity(batch, createHeaders("user", "password")),
+                    String.class);
+
+            assertThat(result.getHeaders().getContentType(), equalTo(BatchMediaType.MULTIPART_BATCH));
+            assertThat(result.getBody(), equalTo(expectedPart + expectedPart + "--batch--"));
+        } finally {
+            batchRequestProperties.setStreamResponse(false);
+        }
+    }
 }
@@ -5,6 +5,7 @@ import net.seesharpsoft.spring.multipart.batch.BatchMessageConverter;
 import net.seesharpsoft.spring.multipart.batch.BatchMultipartResolver;
 import net.seesharpsoft.spring.multipart.batch.services.BatchRequestProperties;
 import net.seesharpsoft.spring.multipart.batch.services.BatchRequestService;
+import net.seesharpsoft.spring.multipart.batch.services.BatchRequestServiceBase;
 import net.seesharpsoft.spring.multipart.batch.services.RestBatchRequestService;
 import net.seesharpsoft.spring.multipart.boot.services.BootDispatcherBatchRequestService;
 import org.springframework.beans.BeansException;
@@ -18,6 +19,7 @@ import org.springframework.boot.web.servlet.DelegatingFilterProxyRegistrationBea
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Conditional;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.web.multipart.MultipartResolver;
 import org.springframework.web.servlet.DispatcherServlet;
@@ -57,18 +59,24 @@ public class MultipartConfiguration extends WebMvcConfigurationSupport implement
     BatchRequestService batchRequestService(
             @Autowired(required = false) DispatcherServlet dispatcherServlet,
             @Qualifier("securityFilterChainRegistration") @Autowired(required = false) DelegatingFilterProxyRegistrationBean filterProxyRegistrationBean,
+            @Qualifier("applicationTaskExecutor") @Autowired(required = false) TaskExecutor taskExecutor,
             @Autowired BatchRequestProperties batchRequestProperties
     ) {
+        BatchRequestServiceBase batchRequestService;
         switch (properties.getMode()) {
             case None:
                 return null;
             case LocalDispatch:
-                return new BootDispatcherBatchRequestService(batchRequestProperties, dispatcherServlet, filterProxyRegistrationBean);
+                batchRequestService = new BootDispatcherBatchRequestService(batchRequestProperties, dispatcherServlet, filterProxyRegistrationBean);
+                break;
             case HttpRequest:
-                return new RestBatchRequestService(batchRequestProperties);
+                batchRequestService = new RestBatchRequestService(batchRequestProperties);
+                break;
             default:
                 throw new RuntimeException(String.format("mode '%s' not handled", properties.getMode()));
         }
+        batchRequestService.setTaskExecutor(taskExecutor);
+        return batchRequestService;
     }
 
     @Bean
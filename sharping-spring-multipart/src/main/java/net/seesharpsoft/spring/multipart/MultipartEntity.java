@@ -2,6 +2,9 @@ package net.seesharpsoft.spring.multipart;
 
 import org.springframework.http.HttpHeaders;
 
+import java.io.IOException;
+import java.io.OutputStream;
+
 /**
  * Base class for single batch entries. Used for batch-request and -response.
  */
@@ -31,4 +34,26 @@ public class MultipartEntity {
     public void setBody(byte[] body) {
         this.body = body == null ? null : body.clone();
     }
+
+    public boolean hasBody() {
+        return body != null;
+    }
+
+    /**
+     * @return the length of the body - 0 if there is none
+     */
+    public int getBodyLength() {
+        return body == null ? 0 : body.length;
+    }
+
+    /**
+     * Writes the body (if any) without copying it.
+     * @param output the stream to write to
+     * @throws IOException if writing fails
+     */
+    public void writeBody(OutputStream output) throws IOException {
+        if (body != null) {
+            output.write(body);
+        }
+    }
 }
@@ -1,7 +1,6 @@
 package net.seesharpsoft.spring.multipart;
 
 import net.seesharpsoft.spring.multipart.batch.BatchMediaType;
-import net.seesharpsoft.commons.util.SharpIO;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpInputMessage;
 import org.springframework.http.HttpOutputMessage;
@@ -11,12 +10,13 @@ import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.http.converter.HttpMessageNotWritableException;
 
 import java.io.IOException;
-import java.io.OutputStreamWriter;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.charset.Charset;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 /**
  * Converts multipart request messages.
@@ -27,8 +27,10 @@ public class MultipartRfc2046MessageConverter implements HttpMessageConverter {
 
     protected static final String BOUNDARY_BOUNDARY = "--";
     protected static final Charset DEFAULT_CHARSET = Charset.forName("UTF8");
-    protected static final MediaType DEFAULT_BODY_MEDIATYPE = new MediaType("text", "plain", Charset.forName("US-ASCII"));
     protected static final String CRLF = "\n";
+    protected static final byte[] CRLF_BYTES = CRLF.getBytes(DEFAULT_CHARSET);
+    protected static final byte[] DEFAULT_PART_HEADER = (HttpHeaders.CONTENT_TYPE + ": application/http" + CRLF
+            + "Content-Transfer-Encoding: binary" + CRLF).getBytes(DEFAULT_CHARSET);
 
     @Override
     public boolean canRead(Class clazz, MediaType mediaType) {
@@ -47,10 +49,8 @@ public class MultipartRfc2046MessageConverter implements HttpMessageConverter {
 
     @Override
     public Object read(Class clazz, HttpInputMessage inputMessage) throws IOException, HttpMessageNotReadableException {
-        String content = readBody(inputMessage);
         MultipartMessage request = createMultipartMessage();
-        String boundary = getBatchBoundary(inputMessage.getHeaders());
-        request.setParts(parseEntries(inputMessage, content, boundary));
+        readEntities(inputMessage, request::addPart);
         return request;
     }
 
@@ -58,26 +58,28 @@ public class MultipartRfc2046MessageConverter implements HttpMessageConverter {
         return new MultipartMessage();
     }
 
-    private List<MultipartEntity> parseEntries(HttpInputMessage inputMessage, String content, String boundary) {
-        if (content == null) {
-            return Collections.EMPTY_LIST;
+    /**
+     * Parses the parts while reading the body - each part is passed to the consumer as soon as its delimiter is read.
+     */
+    protected void readEntities(HttpInputMessage inputMessage, Consumer<MultipartEntity> consumer) throws IOException {
+        MultipartStreamReader reader = createMultipartStreamReader(inputMessage.getBody(), getBoundary(inputMessage.getHeaders()));
+        byte[] part;
+        while ((part = reader.readPart()) != null) {
+            consumer.accept(parseEntity(inputMessage, part));
         }
-        String[] parts = content.split(getMessageSplitRegex(boundary), -1);
-        parts = Arrays.copyOfRange(parts, 1, parts.length - 1);
+    }
 
-        return Arrays.stream(parts)
-                .map(part -> parseEntity(inputMessage, part))
-                .collect(Collectors.toList());
+    protected MultipartStreamReader createMultipartStreamReader(InputStream body, String boundary) {
+        return new MultipartStreamReader(body, boundary);
     }
 
-    protected MultipartEntity parseEntity(HttpInputMessage inputMessage, String content) {
-        int headerContentSplitIndex = content.startsWith(CRLF) ? -CRLF.length() : content.indexOf(CRLF + CRLF);
-        String headerPart = headerContentSplitIndex < 0 ? "" : content.substring(0, headerContentSplitIndex);
-        String bodyPart = content.substring(headerContentSplitIndex + (CRLF + CRLF).length(), content.length());
+    protected MultipartEntity parseEntity(HttpInputMessage inputMessage, byte[] content) {
+        int emptyLineIndex = indexOfEmptyLine(content, 0);
+        int headerEndIndex = emptyLineIndex == -1 ? content.length : emptyLineIndex;
 
         MultipartEntity entity = createMultipartEntity();
-        applyEntityHeaders(entity, headerPart);
-        applyEntityBody(entity, bodyPart);
+        applyEntityHeaders(entity, new String(content, 0, headerEndIndex, DEFAULT_CHARSET));
+        applyEntityBody(entity, content, emptyLineIndex == -1 ? content.length : skipLineBreak(content, emptyLineIndex));
         return entity;
     }
 
@@ -100,23 +102,35 @@ public class MultipartRfc2046MessageConverter implements HttpMessageConverter {
         entity.setHeaders(headers);
     }
 
-    protected void applyEntityBody(MultipartEntity entity, String part) {
-        MediaType bodyMediaType = entity.getHeaders().getContentType();
-        if (bodyMediaType == null) {
-            bodyMediaType = DEFAULT_BODY_MEDIATYPE;
-        }
-        Charset charset = bodyMediaType.getCharset();
-        if (charset == null) {
-            charset = DEFAULT_BODY_MEDIATYPE.getCharset();
+    /**
+     * Applies the body of the part - the bytes from the given offset to the end of the content are taken as is.
+     */
+    protected void applyEntityBody(MultipartEntity entity, byte[] content, int offset) {
+        entity.setBody(offset == 0 ? content : Arrays.copyOfRange(content, offset, content.length));
+    }
+
+    /**
+     * @return the index of the first empty line (CRLF or LF) starting at or after the given offset, -1 if there is none
+     */
+    protected static int indexOfEmptyLine(byte[] content, int offset) {
+        for (int i = offset; i < content.length; ++i) {
+            if (i == offset || content[i - 1] == '\n') {
+                if (content[i] == '\n' || (content[i] == '\r' && i + 1 < content.length && content[i + 1] == '\n')) {
+                    return i;
+                }
+            }
         }
-        entity.setBody(part.getBytes(charset));
+        return -1;
     }
 
-    private String getMessageSplitRegex(String boundary) {
-        return String.format("(^|%s)%s(%s)? *(%s|$)", CRLF, boundary, BOUNDARY_BOUNDARY, CRLF);
+    /**
+     * @return the index behind the line break (CRLF or LF) at the given index
+     */
+    protected static int skipLineBreak(byte[] content, int index) {
+        return content[index] == '\r' ? index + 2 : index + 1;
     }
 
-    private String getBatchBoundary(HttpHeaders httpHeaders) {
+    private String getBoundary(HttpHeaders httpHeaders) {
         MediaType contentType = httpHeaders.getContentType() == null ? BatchMediaType.MULTIPART_BATCH : httpHeaders.getContentType();
         String boundary = contentType.getParameter("boundary");
         if (boundary == null) {
@@ -125,16 +139,7 @@ public class MultipartRfc2046MessageConverter implements HttpMessageConverter {
         if (boundary.startsWith("\"") && boundary.endsWith("\"")) {
             boundary = boundary.substring(1, boundary.length() - 1);
         }
-        return BOUNDARY_BOUNDARY + boundary;
-    }
-
-    protected String formatMessageInput(String input) {
-        return input == null ? "" : input.replaceAll("\r\n", "\n");
-    }
-
-    private String readBody(HttpInputMessage inputMessage) throws IOException {
-        byte[] buffer = SharpIO.readAsByteArray(inputMessage.getBody());
-        return formatMessageInput(new String(buffer, DEFAULT_CHARSET));
+        return boundary;
     }
 
 
@@ -143,37 +148,34 @@ public class MultipartRfc2046MessageConverter implements HttpMessageConverter {
     @Override
     public void write(Object o, MediaType contentType, HttpOutputMessage outputMessage) throws IOException, HttpMessageNotWritableException {
         MultipartMessage<?> response = (MultipartMessage)o;
-        OutputStreamWriter writer = new OutputStreamWriter(outputMessage.getBody(), DEFAULT_CHARSET);
-        String boundary = getBatchBoundary(outputMessage.getHeaders());
-        for (MultipartEntity entry : response.getParts()) {
-            writer.write(boundary);
-            writer.write(CRLF);
-            writePartHeader(writer, entry);
-            writer.write(CRLF);
-            writePartContent(writer, entry);
+        try (MultipartStreamWriter writer = createStreamWriter(outputMessage, false)) {
+            for (MultipartEntity entry : response.getParts()) {
+                writer.writePart(entry);
+            }
         }
-        writer.write(boundary);
-        writer.write(BOUNDARY_BOUNDARY);
-        writer.flush();
-        writer.close();
-    }
-
-    protected void writePartHeader(OutputStreamWriter writer, MultipartEntity entry) throws IOException {
-        writer.write(HttpHeaders.CONTENT_TYPE);
-        writer.write(": ");
-        writer.write("application/http");
-        writer.write(CRLF);
-        writer.write("Content-Transfer-Encoding");
-        writer.write(": ");
-        writer.write("binary");
-        writer.write(CRLF);
-    }
-
-    protected void writePartContent(OutputStreamWriter writer, MultipartEntity entry) throws IOException {
-        byte[] body = entry.getBody();
-        if (body != null) {
-            writer.write(new String(body, DEFAULT_CHARSET));
-            writer.write(CRLF);
+    }
+
+    /**
+     * Creates a writer to write the parts of a message one by one - each part is flushed as soon as it is written.
+     * @param outputMessage the message to write to - its content type defines the boundary
+     * @return the writer - closing it writes the closing delimiter
+     */
+    public MultipartStreamWriter createStreamWriter(HttpOutputMessage outputMessage) {
+        return createStreamWriter(outputMessage, true);
+    }
+
+    protected MultipartStreamWriter createStreamWriter(HttpOutputMessage outputMessage, boolean flushEachPart) {
+        return new MultipartStreamWriter(this, outputMessage, getBoundary(outputMessage.getHeaders()), flushEachPart);
+    }
+
+    protected void writePartHeader(OutputStream output, MultipartEntity entry) throws IOException {
+        output.write(DEFAULT_PART_HEADER);
+    }
+
+    protected void writePartContent(OutputStream output, MultipartEntity entry) throws IOException {
+        if (entry.hasBody()) {
+            entry.writeBody(output);
+            output.write(CRLF_BYTES);
         }
     }
 }
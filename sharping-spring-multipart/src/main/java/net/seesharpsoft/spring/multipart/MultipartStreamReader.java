@@ -0,0 +1,222 @@
+package net.seesharpsoft.spring.multipart;
+
+import org.springframework.util.Assert;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reads the parts of a multipart body (RFC 2046) from a stream one by one - the body is never buffered as a whole.
+ * Delimiters are searched on the raw bytes (Boyer-Moore-Horspool), line breaks may be CRLF or LF. The content of a
+ * part (headers and body) is returned as is, without any charset conversion.
+ * <p>
+ * The preamble and epilogue are ignored, as is a last part missing its closing delimiter.
+ */
+public class MultipartStreamReader {
+
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private static final int NO_MATCH = -1;
+    private static final int NEED_MORE = -2;
+
+    private static class PartBuffer extends ByteArrayOutputStream {
+
+        private void removeTrailingCarriageReturn() {
+            if (count > 0 && buf[count - 1] == '\r') {
+                --count;
+            }
+        }
+    }
+
+    private final InputStream input;
+
+    // LF + "--" + boundary - the CR of a CRLF line break is handled separately
+    private final byte[] delimiter;
+    private final int[] skipTable = new int[256];
+
+    private byte[] buffer;
+    private int position;
+    private int limit;
+
+    private boolean endOfStream;
+    private boolean started;
+    private boolean finished;
+    private boolean closeDelimiter;
+
+    /**
+     * @param input    the multipart body
+     * @param boundary the boundary as given in the content type, without leading dashes
+     */
+    public MultipartStreamReader(InputStream input, String boundary) {
+        this(input, boundary, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param input      the multipart body
+     * @param boundary   the boundary as given in the content type, without leading dashes
+     * @param bufferSize the initial size of the read buffer
+     */
+    public MultipartStreamReader(InputStream input, String boundary, int bufferSize) {
+        Assert.hasLength(boundary, "boundary must not be empty!");
+        this.input = input;
+        this.delimiter = ("\n--" + boundary).getBytes(StandardCharsets.US_ASCII);
+        Arrays.fill(skipTable, delimiter.length);
+        for (int i = 0; i < delimiter.length - 1; ++i) {
+            skipTable[delimiter[i] & 0xff] = delimiter.length - 1 - i;
+        }
+        this.buffer = new byte[Math.max(bufferSize, delimiter.length * 2)];
+        // virtual line break - a delimiter at the very beginning has no preceding line break
+        this.buffer[0] = '\n';
+        this.limit = 1;
+        this.endOfStream = input == null;
+    }
+
+    /**
+     * @return the content of the next part - null if there are no more parts
+     * @throws IOException if reading the stream fails
+     */
+    public byte[] readPart() throws IOException {
+        if (finished) {
+            return null;
+        }
+        if (!started) {
+            started = true;
+            if (!readToDelimiter(null) || closeDelimiter) {
+                finished = true;
+                return null;
+            }
+        }
+        PartBuffer part = new PartBuffer();
+        if (!readToDelimiter(part)) {
+            finished = true;
+            return null;
+        }
+        finished = closeDelimiter;
+        return part.toByteArray();
+    }
+
+    /**
+     * Moves behind the next delimiter line, passing the bytes before it to the given part.
+     */
+    private boolean readToDelimiter(PartBuffer part) throws IOException {
+        while (true) {
+            int index = indexOfDelimiter(position, limit);
+            if (index < 0) {
+                // the last bytes might be the beginning of a delimiter
+                int keep = Math.min(limit - position, delimiter.length - 1);
+                write(part, limit - keep);
+                if (!fill()) {
+                    return false;
+                }
+                continue;
+            }
+            int end = matchDelimiterLineEnd(index + delimiter.length);
+            if (end == NEED_MORE) {
+                write(part, index);
+                fill();
+            } else if (end == NO_MATCH) {
+                write(part, index + 1);
+            } else {
+                write(part, index);
+                if (part != null) {
+                    part.removeTrailingCarriageReturn();
+                }
+                position = end;
+                return true;
+            }
+        }
+    }
+
+    private int indexOfDelimiter(int from, int to) {
+        int last = delimiter.length - 1;
+        int index = from;
+        while (index + last < to) {
+            byte current = buffer[index + last];
+            if (current == delimiter[last] && matchesDelimiterAt(index)) {
+                return index;
+            }
+            index += skipTable[current & 0xff];
+        }
+        return -1;
+    }
+
+    private boolean matchesDelimiterAt(int index) {
+        for (int i = delimiter.length - 2; i >= 0; --i) {
+            if (buffer[index + i] != delimiter[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Matches the optional close marker, transport padding and line break following a delimiter.
+     * @return the index behind the delimiter line, {@link #NO_MATCH} if it is no delimiter or {@link #NEED_MORE} if
+     * more bytes are required to decide
+     */
+    private int matchDelimiterLineEnd(int from) {
+        int index = from;
+        closeDelimiter = false;
+        if (index < limit && buffer[index] == '-') {
+            if (index + 1 == limit) {
+                return endOfStream ? NO_MATCH : NEED_MORE;
+            }
+            if (buffer[index + 1] != '-') {
+                return NO_MATCH;
+            }
+            closeDelimiter = true;
+            index += 2;
+        }
+        while (index < limit && (buffer[index] == ' ' || buffer[index] == '\t')) {
+            ++index;
+        }
+        if (index == limit) {
+            return endOfStream ? index : NEED_MORE;
+        }
+        if (buffer[index] == '\n') {
+            return index + 1;
+        }
+        if (buffer[index] == '\r') {
+            if (index + 1 == limit) {
+                return endOfStream ? index + 1 : NEED_MORE;
+            }
+            return buffer[index + 1] == '\n' ? index + 2 : NO_MATCH;
+        }
+        return NO_MATCH;
+    }
+
+    private void write(PartBuffer part, int to) {
+        if (part != null) {
+            part.write(buffer, position, to - position);
+        }
+        position = to;
+    }
+
+    /**
+     * Moves the remaining bytes to the beginning of the buffer (growing it if full) and reads more bytes.
+     * @return false if the end of the stream is reached
+     */
+    private boolean fill() throws IOException {
+        if (endOfStream) {
+            return false;
+        }
+        if (position > 0) {
+            System.arraycopy(buffer, position, buffer, 0, limit - position);
+            limit -= position;
+            position = 0;
+        }
+        if (limit == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        int read = input.read(buffer, limit, buffer.length - limit);
+        if (read < 0) {
+            endOfStream = true;
+            return false;
+        }
+        limit += read;
+        return true;
+    }
+}
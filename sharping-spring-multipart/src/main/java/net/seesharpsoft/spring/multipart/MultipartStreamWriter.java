@@ -0,0 +1,99 @@
+package net.seesharpsoft.spring.multipart;
+
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.util.Assert;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes the parts of a multipart message (RFC 2046) one by one - part bodies are written as is, without any charset
+ * conversion. The body of the output message is requested on the first write, so headers of the output message can
+ * be changed until then.
+ * <p>
+ * Closing the writer writes the closing delimiter, the output stream itself is flushed but not closed.
+ */
+public class MultipartStreamWriter implements Closeable {
+
+    private final MultipartRfc2046MessageConverter converter;
+    private final HttpOutputMessage outputMessage;
+    private final boolean flushEachPart;
+
+    private final byte[] delimiter;
+    private final byte[] closeDelimiter;
+
+    private OutputStream output;
+    private int partCount;
+    private boolean closed;
+
+    /**
+     * @param converter     the converter writing the header and content of single parts
+     * @param outputMessage the message to write to
+     * @param boundary      the boundary as given in the content type, without leading dashes
+     * @param flushEachPart true if the output should be flushed after each part
+     */
+    public MultipartStreamWriter(MultipartRfc2046MessageConverter converter, HttpOutputMessage outputMessage, String boundary, boolean flushEachPart) {
+        Assert.notNull(converter, "converter must not be null!");
+        Assert.notNull(outputMessage, "outputMessage must not be null!");
+        Assert.hasLength(boundary, "boundary must not be empty!");
+        this.converter = converter;
+        this.outputMessage = outputMessage;
+        this.flushEachPart = flushEachPart;
+        this.delimiter = (MultipartRfc2046MessageConverter.BOUNDARY_BOUNDARY + boundary + MultipartRfc2046MessageConverter.CRLF)
+                .getBytes(MultipartRfc2046MessageConverter.DEFAULT_CHARSET);
+        this.closeDelimiter = (MultipartRfc2046MessageConverter.BOUNDARY_BOUNDARY + boundary + MultipartRfc2046MessageConverter.BOUNDARY_BOUNDARY)
+                .getBytes(MultipartRfc2046MessageConverter.DEFAULT_CHARSET);
+    }
+
+    private OutputStream getOutput() throws IOException {
+        if (output == null) {
+            output = outputMessage.getBody();
+        }
+        return output;
+    }
+
+    /**
+     * Writes the given part (and flushes it if configured).
+     * @param part the part
+     * @throws IOException if writing fails
+     */
+    public void writePart(MultipartEntity part) throws IOException {
+        Assert.state(!closed, "writer is closed already!");
+        OutputStream output = getOutput();
+        output.write(delimiter);
+        converter.writePartHeader(output, part);
+        output.write(MultipartRfc2046MessageConverter.CRLF_BYTES);
+        converter.writePartContent(output, part);
+        if (flushEachPart) {
+            output.flush();
+        }
+        ++partCount;
+    }
+
+    /**
+     * @return the number of parts written so far
+     */
+    public int getPartCount() {
+        return partCount;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Writes the closing delimiter and flushes the output - subsequent calls have no effect.
+     * @throws IOException if writing fails
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        OutputStream output = getOutput();
+        output.write(closeDelimiter);
+        output.flush();
+    }
+}
@@ -19,6 +19,8 @@ import java.util.*;
  */
 public class BatchHttpServletResponse implements HttpServletResponse {
 
+    private static final Set<String> BODY_HEADERS = new HashSet<>(Arrays.asList("content-type", "content-length", "transfer-encoding"));
+
     private PrintWriter writer;
 
     private ByteArrayServletOutputStream outputStream;
@@ -36,11 +38,13 @@ public class BatchHttpServletResponse implements HttpServletResponse {
     private boolean isCommited;
 
     private void initAdditionalRequestInformation(HttpServletResponse response) {
-        // copy headers
+        // copy headers - except those describing the body of the batch response (which might be written already)
         this.headers = new HttpHeaders();
         Collection<String> headerNames = response.getHeaderNames();
         for(String header : headerNames) {
-            this.headers.put(header, new ArrayList<>(response.getHeaders(header)));
+            if (!BODY_HEADERS.contains(header.toLowerCase(Locale.ROOT))) {
+                this.headers.put(header, new ArrayList<>(response.getHeaders(header)));
+            }
         }
         this.charset = response.getCharacterEncoding();
         this.locale = response.getLocale();
@@ -6,7 +6,9 @@ import net.seesharpsoft.spring.multipart.MultipartRfc2046MessageConverter;
 import org.springframework.http.*;
 
 import java.io.IOException;
-import java.io.OutputStreamWriter;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class BatchMessageConverter extends MultipartRfc2046MessageConverter {
 
@@ -31,20 +33,19 @@ public class BatchMessageConverter extends MultipartRfc2046MessageConverter {
     }
 
     @Override
-    protected void applyEntityBody(MultipartEntity entity, String part) {
-        int headerContentSplitIndex = part.indexOf(CRLF + CRLF);
-        boolean hasBody = headerContentSplitIndex != -1;
-        String headerPart = !hasBody ? part : part.substring(0, headerContentSplitIndex);
-        String bodyPart = !hasBody ? "" : part.substring(headerContentSplitIndex + (CRLF + CRLF).length(), part.length());
-
-        applyBodyHeader((BatchRequest.Entity)entity, headerPart);
-        super.applyEntityBody(entity, bodyPart);
+    protected void applyEntityBody(MultipartEntity entity, byte[] content, int offset) {
+        int emptyLineIndex = indexOfEmptyLine(content, offset);
+        boolean hasBody = emptyLineIndex != -1;
+        int headerEndIndex = hasBody ? emptyLineIndex : content.length;
+
+        applyBodyHeader((BatchRequest.Entity)entity, new String(content, offset, headerEndIndex - offset, DEFAULT_CHARSET));
+        super.applyEntityBody(entity, content, hasBody ? skipLineBreak(content, emptyLineIndex) : content.length);
     }
 
     protected void applyBodyHeader(BatchRequest.Entity entity, String content) {
         int headerContentSplitIndex = content.indexOf(CRLF);
         boolean hasHeader = headerContentSplitIndex != -1;
-        String urlPart = hasHeader ? content.substring(0, headerContentSplitIndex) : content;
+        String urlPart = (hasHeader ? content.substring(0, headerContentSplitIndex) : content).trim();
         String[] targetUrlParts = urlPart.split(" ");
         entity.setMethod(HttpMethod.valueOf(targetUrlParts[0]));
         entity.setUrl(targetUrlParts[1]);
@@ -54,50 +55,74 @@ public class BatchMessageConverter extends MultipartRfc2046MessageConverter {
 
     /******************************** RESPONSE ***************************/
 
+    private static final byte[] STATUS_LINE_PREFIX = "HTTP/1.1 ".getBytes(DEFAULT_CHARSET);
+    private static final byte[] CONTENT_TYPE_PREFIX = (HttpHeaders.CONTENT_TYPE + ": ").getBytes(DEFAULT_CHARSET);
+    private static final byte[] CONTENT_LENGTH_PREFIX = (HttpHeaders.CONTENT_LENGTH + ": ").getBytes(DEFAULT_CHARSET);
+    private static final byte[] RETRY_AFTER_PREFIX = (HttpHeaders.RETRY_AFTER + ": ").getBytes(DEFAULT_CHARSET);
+    private static final byte[] CONTENT_ID_PREFIX = (BatchRequest.CONTENT_ID + ": ").getBytes(DEFAULT_CHARSET);
+
+    // encoded status code and reason phrase (including line break) - status codes are limited to three digits
+    private static final Map<HttpStatusCode, byte[]> STATUS_LINES = new ConcurrentHashMap<>();
+
     @Override
-    protected void writePartContent(OutputStreamWriter writer, MultipartEntity entry) throws IOException {
-        writeResponseStatus(writer, (BatchResponse.Entity)entry);
-        byte[] body = entry.getBody();
-        if (body != null) {
-            writePartContentHeader(writer, entry.getHeaders(), body.length);
-            writer.write(CRLF);
-            writer.write(new String(body, DEFAULT_CHARSET));
-            writer.write(CRLF);
+    protected void writePartHeader(OutputStream output, MultipartEntity entry) throws IOException {
+        super.writePartHeader(output, entry);
+        String contentId = ((BatchResponse.Entity)entry).getContentId();
+        if (contentId != null) {
+            output.write(CONTENT_ID_PREFIX);
+            output.write(contentId.getBytes(DEFAULT_CHARSET));
+            output.write(CRLF_BYTES);
         }
     }
 
-    protected void writeResponseStatus(OutputStreamWriter writer, BatchResponse.Entity entry) throws IOException {
+    @Override
+    protected void writePartContent(OutputStream output, MultipartEntity entry) throws IOException {
+        writeResponseStatus(output, (BatchResponse.Entity)entry);
+        if (entry.hasBody()) {
+            writePartContentHeader(output, entry.getHeaders(), entry.getBodyLength());
+            output.write(CRLF_BYTES);
+            entry.writeBody(output);
+            output.write(CRLF_BYTES);
+        }
+    }
+
+    protected void writeResponseStatus(OutputStream output, BatchResponse.Entity entry) throws IOException {
         HttpStatusCode status = entry.getStatus();
 
         if (status == null) {
             status = HttpStatus.UNPROCESSABLE_ENTITY;
         }
 
-        writer.write("HTTP/1.1 ");
-        writer.write(status.value() + "");
-        writer.write(" ");
-        writer.write(status instanceof HttpStatus ? ((HttpStatus)status).getReasonPhrase() : status.toString());
-        writer.write(CRLF);
+        output.write(STATUS_LINE_PREFIX);
+        output.write(STATUS_LINES.computeIfAbsent(status, statusCode ->
+                (statusCode.value() + " " + (statusCode instanceof HttpStatus ? ((HttpStatus)statusCode).getReasonPhrase() : statusCode.toString()) + CRLF)
+                        .getBytes(DEFAULT_CHARSET)));
     }
 
-    protected void writePartContentHeader(OutputStreamWriter writer, HttpHeaders headers, int contentLength) throws IOException {
+    protected void writePartContentHeader(OutputStream output, HttpHeaders headers, int contentLength) throws IOException {
         MediaType contentType = MediaType.ALL;
+        String retryAfter = null;
 
         if (headers != null) {
             contentType = headers.getContentType();
+            retryAfter = headers.getFirst(HttpHeaders.RETRY_AFTER);
 
             if (contentType == null) {
                 contentType = MediaType.ALL;
             }
         }
 
-        writer.write(HttpHeaders.CONTENT_TYPE);
-        writer.write(": ");
-        writer.write(contentType.toString());
-        writer.write(CRLF);
-        writer.write(HttpHeaders.CONTENT_LENGTH);
-        writer.write(": ");
-        writer.write(contentLength + "");
-        writer.write(CRLF);
+        if (retryAfter != null) {
+            output.write(RETRY_AFTER_PREFIX);
+            output.write(retryAfter.getBytes(DEFAULT_CHARSET));
+            output.write(CRLF_BYTES);
+        }
+
+        output.write(CONTENT_TYPE_PREFIX);
+        output.write(contentType.toString().getBytes(DEFAULT_CHARSET));
+        output.write(CRLF_BYTES);
+        output.write(CONTENT_LENGTH_PREFIX);
+        output.write(Integer.toString(contentLength).getBytes(DEFAULT_CHARSET));
+        output.write(CRLF_BYTES);
     }
 }
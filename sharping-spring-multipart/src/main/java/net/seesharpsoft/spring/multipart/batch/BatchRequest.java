@@ -2,6 +2,7 @@ package net.seesharpsoft.spring.multipart.batch;
 
 import net.seesharpsoft.spring.multipart.MultipartEntity;
 import net.seesharpsoft.spring.multipart.MultipartMessage;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 
 /**
@@ -9,6 +10,11 @@ import org.springframework.http.HttpMethod;
  */
 public class BatchRequest extends MultipartMessage<BatchRequest.Entity> {
 
+    /**
+     * Part header identifying a single request - echoed by the corresponding response part.
+     */
+    public static final String CONTENT_ID = "Content-ID";
+
     /**
      * Single request entry.
      */
@@ -33,6 +39,14 @@ public class BatchRequest extends MultipartMessage<BatchRequest.Entity> {
         public void setMethod(HttpMethod method) {
             this.method = method;
         }
+
+        /**
+         * @return the Content-ID header of the request part - null if not given
+         */
+        public String getContentId() {
+            HttpHeaders headers = getHeaders();
+            return headers == null ? null : headers.getFirst(CONTENT_ID);
+        }
     }
 
 }
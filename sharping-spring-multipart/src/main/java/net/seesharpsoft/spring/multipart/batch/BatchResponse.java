@@ -23,5 +23,18 @@ public class BatchResponse extends MultipartMessage<BatchResponse.Entity> {
         public void setStatus(HttpStatusCode status) {
             this.status = status;
         }
+
+        String contentId;
+
+        /**
+         * @return the Content-ID of the request part this is the response to - null if unknown
+         */
+        public String getContentId() {
+            return contentId;
+        }
+
+        public void setContentId(String contentId) {
+            this.contentId = contentId;
+        }
     }
 }
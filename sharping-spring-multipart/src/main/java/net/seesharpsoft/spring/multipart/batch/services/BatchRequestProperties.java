@@ -9,6 +9,14 @@ public class BatchRequestProperties {
             this.setIncludeOriginalHeader(original.getIncludeOriginalHeader());
             this.setParallelProcessing(original.isParallelProcessing());
             this.setThreadPoolSize(original.getThreadPoolSize());
+            this.setStreamResponse(original.isStreamResponse());
+            this.setOutOfOrderResponse(original.isOutOfOrderResponse());
+            this.setExecutorMode(original.getExecutorMode());
+            this.setMaxConcurrencyPerBatch(original.getMaxConcurrencyPerBatch());
+            this.setMaxConcurrency(original.getMaxConcurrency());
+            this.setMaxQueueSize(original.getMaxQueueSize());
+            this.setMaxQueueSizePerBatch(original.getMaxQueueSizePerBatch());
+            this.setRetryAfterSeconds(original.getRetryAfterSeconds());
         }
     }
 
@@ -18,6 +26,22 @@ public class BatchRequestProperties {
 
     private int threadPoolSize = 10;
 
+    private ExecutorMode executorMode = ExecutorMode.FixedPool;
+
+    private int maxConcurrencyPerBatch = 0;
+
+    private int maxConcurrency = 0;
+
+    private int maxQueueSize = 0;
+
+    private int maxQueueSizePerBatch = 0;
+
+    private int retryAfterSeconds = 1;
+
+    private boolean streamResponse = false;
+
+    private boolean outOfOrderResponse = false;
+
     public void setIncludeOriginalHeader(boolean includeOriginalHeader) {
         this.includeOriginalHeader = includeOriginalHeader;
     }
@@ -41,4 +65,96 @@ public class BatchRequestProperties {
     public void setThreadPoolSize(int threadPoolSize) {
         this.threadPoolSize = threadPoolSize;
     }
+
+    public ExecutorMode getExecutorMode() {
+        return executorMode;
+    }
+
+    public void setExecutorMode(ExecutorMode executorMode) {
+        this.executorMode = executorMode;
+    }
+
+    public int getMaxConcurrencyPerBatch() {
+        return maxConcurrencyPerBatch;
+    }
+
+    /**
+     * @param maxConcurrencyPerBatch maximum number of single requests of one batch processed at the same time - 0 for
+     *                               no limit
+     */
+    public void setMaxConcurrencyPerBatch(int maxConcurrencyPerBatch) {
+        this.maxConcurrencyPerBatch = maxConcurrencyPerBatch;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * @param maxConcurrency maximum number of single requests of all batches processed at the same time - 0 for no limit
+     */
+    public void setMaxConcurrency(int maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    public int getMaxQueueSize() {
+        return maxQueueSize;
+    }
+
+    /**
+     * @param maxQueueSize maximum number of single requests of all batches waiting to be processed - further requests
+     *                     are answered with 503 (Service Unavailable), 0 for no limit
+     */
+    public void setMaxQueueSize(int maxQueueSize) {
+        this.maxQueueSize = maxQueueSize;
+    }
+
+    public int getMaxQueueSizePerBatch() {
+        return maxQueueSizePerBatch;
+    }
+
+    /**
+     * @param maxQueueSizePerBatch maximum number of single requests of one batch waiting to be processed - further
+     *                             requests are answered with 429 (Too Many Requests), 0 for no limit
+     */
+    public void setMaxQueueSizePerBatch(int maxQueueSizePerBatch) {
+        this.maxQueueSizePerBatch = maxQueueSizePerBatch;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    /**
+     * @param retryAfterSeconds the Retry-After of rejected single requests
+     */
+    public void setRetryAfterSeconds(int retryAfterSeconds) {
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * @param streamResponse true if single responses should be written (and flushed) as soon as they and all responses
+     *                       before them are available - instead of writing the whole batch response at the end
+     */
+    public void setStreamResponse(boolean streamResponse) {
+        this.streamResponse = streamResponse;
+    }
+
+    public boolean isStreamResponse() {
+        return streamResponse;
+    }
+
+    /**
+     * @param outOfOrderResponse true if single responses processed in parallel should be handled in order of their
+     *                           completion - each response part carries the Content-ID of its request part then (the
+     *                           position of the request part, starting with 1, if it has none). Meant to be combined
+     *                           with {@link #setStreamResponse(boolean)}.
+     */
+    public void setOutOfOrderResponse(boolean outOfOrderResponse) {
+        this.outOfOrderResponse = outOfOrderResponse;
+    }
+
+    public boolean isOutOfOrderResponse() {
+        return outOfOrderResponse;
+    }
 }
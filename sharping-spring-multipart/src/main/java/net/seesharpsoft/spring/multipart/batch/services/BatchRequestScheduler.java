@@ -0,0 +1,289 @@
+package net.seesharpsoft.spring.multipart.batch.services;
+
+import net.seesharpsoft.spring.multipart.batch.BatchResponse;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+/**
+ * Admission control for single requests of batches processed in parallel - shared by all batches of a service.
+ * <p>
+ * At most {@link BatchRequestProperties#getMaxConcurrency()} single requests run at the same time, at most
+ * {@link BatchRequestProperties#getMaxConcurrencyPerBatch()} of them from the same batch. Waiting requests are queued
+ * per batch and batches take turns (round robin) whenever a request finishes, so a large batch can not starve small ones.
+ * <p>
+ * Requests exceeding the queue are rejected right away: with 429 (Too Many Requests) if the batch already holds
+ * {@link BatchRequestProperties#getMaxQueueSizePerBatch()} waiting requests, with 503 (Service Unavailable) if the
+ * queue is full ({@link BatchRequestProperties#getMaxQueueSize()}).
+ * <p>
+ * Limits of 0 mean no limit.
+ */
+public class BatchRequestScheduler {
+
+    private static class Pending {
+        private final BatchQueue batch;
+        private final int index;
+        private final Supplier<BatchResponse.Entity> task;
+        private final CompletableFuture<BatchResponse.Entity> future;
+        private final long queuedAt;
+
+        private Pending(BatchQueue batch, int index, Supplier<BatchResponse.Entity> task, CompletableFuture<BatchResponse.Entity> future) {
+            this.batch = batch;
+            this.index = index;
+            this.task = task;
+            this.future = future;
+            this.queuedAt = System.nanoTime();
+        }
+    }
+
+    private class BatchQueue {
+        private final Executor executor;
+        private final Deque<Pending> pending = new ArrayDeque<>();
+        private int inFlight;
+        private boolean inRotation;
+
+        private BatchQueue(Executor executor) {
+            this.executor = executor;
+        }
+
+        private boolean mayStart() {
+            return !pending.isEmpty() && (maxConcurrencyPerBatch <= 0 || inFlight < maxConcurrencyPerBatch);
+        }
+    }
+
+    private final int maxConcurrency;
+    private final int maxConcurrencyPerBatch;
+    private final int maxQueueSize;
+    private final int maxQueueSizePerBatch;
+
+    private final Object lock = new Object();
+
+    // batches with requests that may start - in order of their turn
+    private final Deque<BatchQueue> rotation = new ArrayDeque<>();
+
+    // requests to start by the start loop running further up the stack of the current thread - if any
+    private final ThreadLocal<Deque<Pending>> startQueue = new ThreadLocal<>();
+
+    private int inFlight;
+    private int queued;
+
+    private long startedCount;
+    private long rejectedCount;
+    private long totalWaitNanos;
+    private long maxWaitNanos;
+
+    public BatchRequestScheduler(BatchRequestProperties batchRequestProperties) {
+        this.maxConcurrency = batchRequestProperties.getMaxConcurrency();
+        this.maxConcurrencyPerBatch = batchRequestProperties.getMaxConcurrencyPerBatch();
+        this.maxQueueSize = batchRequestProperties.getMaxQueueSize();
+        this.maxQueueSizePerBatch = batchRequestProperties.getMaxQueueSizePerBatch();
+    }
+
+    /**
+     * Submits the single requests of a batch.
+     * @param tasks    the single requests in order of the batch
+     * @param executor the executor to run the requests with
+     * @param rejector creates the response of a rejected request - called with its index and the rejection status
+     * @return the responses in order of the batch
+     */
+    public List<CompletableFuture<BatchResponse.Entity>> submit(List<Supplier<BatchResponse.Entity>> tasks,
+                                                                Executor executor,
+                                                                BiFunction<Integer, HttpStatus, BatchResponse.Entity> rejector) {
+        BatchQueue batch = new BatchQueue(executor);
+        List<CompletableFuture<BatchResponse.Entity>> futures = new ArrayList<>(tasks.size());
+        List<Pending> rejected = new ArrayList<>();
+        List<HttpStatus> rejections = new ArrayList<>();
+        List<Pending> startable = new ArrayList<>();
+
+        synchronized (lock) {
+            for (int index = 0; index < tasks.size(); ++index) {
+                Pending pending = new Pending(batch, index, tasks.get(index), new CompletableFuture<>());
+                futures.add(pending.future);
+
+                HttpStatus rejection = admit(batch);
+                if (rejection != null) {
+                    ++rejectedCount;
+                    rejected.add(pending);
+                    rejections.add(rejection);
+                    continue;
+                }
+                batch.pending.add(pending);
+                ++queued;
+                addToRotation(batch);
+                dispatch(startable);
+            }
+        }
+
+        for (int i = 0; i < rejected.size(); ++i) {
+            Pending pending = rejected.get(i);
+            pending.future.complete(rejector.apply(pending.index, rejections.get(i)));
+        }
+        startAll(startable);
+        return futures;
+    }
+
+    /**
+     * @return null if the next request of the batch can be queued, the rejection status otherwise
+     */
+    private HttpStatus admit(BatchQueue batch) {
+        boolean startsImmediately = rotation.isEmpty() && hasFreeSlot()
+                && (maxConcurrencyPerBatch <= 0 || batch.inFlight < maxConcurrencyPerBatch);
+        if (startsImmediately) {
+            return null;
+        }
+        if (maxQueueSizePerBatch > 0 && batch.pending.size() >= maxQueueSizePerBatch) {
+            return HttpStatus.TOO_MANY_REQUESTS;
+        }
+        if (maxQueueSize > 0 && queued >= maxQueueSize) {
+            return HttpStatus.SERVICE_UNAVAILABLE;
+        }
+        return null;
+    }
+
+    private boolean hasFreeSlot() {
+        return maxConcurrency <= 0 || inFlight < maxConcurrency;
+    }
+
+    private void addToRotation(BatchQueue batch) {
+        if (!batch.inRotation && batch.mayStart()) {
+            batch.inRotation = true;
+            rotation.add(batch);
+        }
+    }
+
+    /**
+     * Takes requests to start from the batches in turn while slots are free.
+     */
+    private void dispatch(List<Pending> startable) {
+        while (!rotation.isEmpty() && hasFreeSlot()) {
+            BatchQueue batch = rotation.poll();
+            batch.inRotation = false;
+            Pending pending = batch.pending.poll();
+            --queued;
+            ++inFlight;
+            ++batch.inFlight;
+            ++startedCount;
+            long waitNanos = System.nanoTime() - pending.queuedAt;
+            totalWaitNanos += waitNanos;
+            maxWaitNanos = Math.max(maxWaitNanos, waitNanos);
+            startable.add(pending);
+            addToRotation(batch);
+        }
+    }
+
+    /**
+     * Starts the given requests. A synchronous executor completes a request within {@link #start(Pending)}, which
+     * releases its slot and starts the next requests - these are handed to the loop already running on this thread
+     * instead of recursing once per request.
+     */
+    private void startAll(List<Pending> startable) {
+        Deque<Pending> queue = startQueue.get();
+        if (queue != null) {
+            queue.addAll(startable);
+            return;
+        }
+        queue = new ArrayDeque<>(startable);
+        startQueue.set(queue);
+        try {
+            Pending pending;
+            while ((pending = queue.poll()) != null) {
+                start(pending);
+            }
+        } finally {
+            startQueue.remove();
+        }
+    }
+
+    private void start(Pending pending) {
+        try {
+            CompletableFuture.supplyAsync(pending.task, pending.batch.executor).whenComplete((singleResponse, exc) -> {
+                // free the slot before handing on the response
+                release(pending.batch);
+                if (exc == null) {
+                    pending.future.complete(singleResponse);
+                } else {
+                    pending.future.completeExceptionally(exc);
+                }
+            });
+        } catch (RuntimeException e) {
+            // e.g. rejected by the executor
+            release(pending.batch);
+            pending.future.completeExceptionally(e);
+        }
+    }
+
+    private void release(BatchQueue batch) {
+        List<Pending> startable = new ArrayList<>();
+        synchronized (lock) {
+            --inFlight;
+            --batch.inFlight;
+            addToRotation(batch);
+            dispatch(startable);
+        }
+        startAll(startable);
+    }
+
+    /**
+     * @return number of single requests waiting to be started
+     */
+    public int getQueueSize() {
+        synchronized (lock) {
+            return queued;
+        }
+    }
+
+    /**
+     * @return number of single requests running
+     */
+    public int getInFlightCount() {
+        synchronized (lock) {
+            return inFlight;
+        }
+    }
+
+    public long getStartedCount() {
+        synchronized (lock) {
+            return startedCount;
+        }
+    }
+
+    public long getRejectedCount() {
+        synchronized (lock) {
+            return rejectedCount;
+        }
+    }
+
+    /**
+     * @return average time single requests waited in the queue before being started
+     */
+    public Duration getAverageWaitTime() {
+        synchronized (lock) {
+            return Duration.ofNanos(startedCount == 0 ? 0 : totalWaitNanos / startedCount);
+        }
+    }
+
+    /**
+     * @return maximum time a single request waited in the queue before being started
+     */
+    public Duration getMaxWaitTime() {
+        synchronized (lock) {
+            return Duration.ofNanos(maxWaitNanos);
+        }
+    }
+
+    @Override
+    public String toString() {
+        synchronized (lock) {
+            return String.format("BatchRequestScheduler(queued=%s, inFlight=%s, started=%s, rejected=%s, averageWait=%s, maxWait=%s)",
+                    queued, inFlight, startedCount, rejectedCount, getAverageWaitTime(), getMaxWaitTime());
+        }
+    }
+}
@@ -16,7 +16,7 @@ public interface BatchRequestService {
      * @param batchRequest the batch request entity
      * @param servletRequest the original request
      * @param servletResponse the original response
-     * @return a batch response
+     * @return a batch response - null if the response was written to the servlet response already (streaming)
      * @throws IOException if an input or output error occurs while processing the request
      * @throws ServletException if the servlet request cannot be handled
      */
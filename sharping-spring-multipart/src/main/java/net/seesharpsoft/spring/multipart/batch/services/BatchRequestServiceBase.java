@@ -1,12 +1,18 @@
 package net.seesharpsoft.spring.multipart.batch.services;
 
 import jakarta.annotation.PreDestroy;
+import net.seesharpsoft.spring.multipart.MultipartStreamWriter;
 import net.seesharpsoft.spring.multipart.batch.BatchMediaType;
+import net.seesharpsoft.spring.multipart.batch.BatchMessageConverter;
 import net.seesharpsoft.spring.multipart.batch.BatchRequest;
 import net.seesharpsoft.spring.multipart.batch.BatchResponse;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.util.Assert;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import jakarta.servlet.ServletException;
@@ -23,25 +29,52 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Enumeration;
 import java.util.List;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 public abstract class BatchRequestServiceBase implements BatchRequestService {
 
     protected final ExecutorService executorService;
+    protected final BatchRequestScheduler scheduler;
     protected BatchRequestProperties batchRequestProperties;
+    protected BatchMessageConverter messageConverter = new BatchMessageConverter();
+    protected TaskExecutor taskExecutor;
 
     public BatchRequestServiceBase(BatchRequestProperties batchRequestProperties) {
         this.batchRequestProperties = batchRequestProperties;
 
-        // Initialize thread pool if parallel processing is enabled
+        // Initialize executor if parallel processing is enabled
         if (batchRequestProperties.isParallelProcessing()) {
-            int threadPoolSize = batchRequestProperties.getThreadPoolSize();
-            this.executorService = Executors.newFixedThreadPool(threadPoolSize);
+            this.executorService = createExecutorService(batchRequestProperties);
+            this.scheduler = new BatchRequestScheduler(batchRequestProperties);
         } else {
             this.executorService = null;
+            this.scheduler = null;
+        }
+    }
+
+    private static ExecutorService createExecutorService(BatchRequestProperties batchRequestProperties) {
+        switch (batchRequestProperties.getExecutorMode()) {
+            case FixedPool:
+                return Executors.newFixedThreadPool(batchRequestProperties.getThreadPoolSize());
+            case VirtualThreads:
+                try {
+                    // not available before Java 21
+                    return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+                } catch (ReflectiveOperationException e) {
+                    throw new IllegalStateException("executor mode 'VirtualThreads' requires Java 21 or later!", e);
+                }
+            case TaskExecutor:
+                return null;
+            default:
+                throw new RuntimeException(String.format("executor mode '%s' not handled", batchRequestProperties.getExecutorMode()));
         }
     }
 
@@ -60,30 +93,107 @@ public abstract class BatchRequestServiceBase implements BatchRequestService {
         }
     }
 
+    /**
+     * Receives single responses - in the order of the batch request unless out of order responses are enabled.
+     */
+    @FunctionalInterface
+    protected interface SingleResponseHandler {
+        void handle(BatchResponse.Entity singleResponse) throws IOException;
+    }
+
+    public TaskExecutor getTaskExecutor() {
+        return taskExecutor;
+    }
+
+    /**
+     * @param taskExecutor the executor used for single requests in executor mode {@link ExecutorMode#TaskExecutor}
+     */
+    public void setTaskExecutor(TaskExecutor taskExecutor) {
+        this.taskExecutor = taskExecutor;
+    }
+
+    /**
+     * @return the executor for single requests processed in parallel
+     */
+    protected Executor getExecutor() {
+        if (batchRequestProperties.getExecutorMode() == ExecutorMode.TaskExecutor) {
+            Assert.state(taskExecutor != null, "executor mode 'TaskExecutor' requires a task executor!");
+            return taskExecutor;
+        }
+        return executorService;
+    }
+
+    /**
+     * @return the scheduler of single requests processed in parallel (e.g. for its metrics) - null if parallel
+     * processing is disabled
+     */
+    public BatchRequestScheduler getScheduler() {
+        return scheduler;
+    }
+
+    public BatchMessageConverter getMessageConverter() {
+        return messageConverter;
+    }
+
+    /**
+     * @param messageConverter the converter used to write streamed responses
+     */
+    public void setMessageConverter(BatchMessageConverter messageConverter) {
+        this.messageConverter = messageConverter;
+    }
+
     @Override
     public BatchResponse process(BatchRequest batchRequest,
                                  HttpServletRequest servletRequest,
                                  HttpServletResponse servletResponse) throws ServletException, IOException {
 
+        if (batchRequestProperties.isStreamResponse()) {
+            processStreaming(batchRequest, servletRequest, servletResponse);
+            return null;
+        }
+
         BatchResponse batchResponse = new BatchResponse();
 
+        processRequests(batchRequest, servletRequest, servletResponse, batchResponse::addPart);
+
+        servletResponse.setHeader(HttpHeaders.CONTENT_TYPE, BatchMediaType.MULTIPART_BATCH_VALUE);
+        return batchResponse;
+    }
+
+    /**
+     * Writes each single response to the servlet response as soon as it (and all responses before it) is available.
+     */
+    protected void processStreaming(BatchRequest batchRequest,
+                                    HttpServletRequest servletRequest,
+                                    HttpServletResponse servletResponse) throws ServletException, IOException {
+        ServletServerHttpResponse outputMessage = new ServletServerHttpResponse(servletResponse);
+        outputMessage.getHeaders().setContentType(BatchMediaType.MULTIPART_BATCH);
+
+        try (MultipartStreamWriter responseWriter = messageConverter.createStreamWriter(outputMessage)) {
+            processRequests(batchRequest, servletRequest, servletResponse, responseWriter::writePart);
+        }
+    }
+
+    protected void processRequests(BatchRequest batchRequest,
+                                   HttpServletRequest servletRequest,
+                                   HttpServletResponse servletResponse,
+                                   SingleResponseHandler responseHandler) throws ServletException, IOException {
         boolean parallelProcessing = batchRequestProperties.isParallelProcessing();
 
-        if (parallelProcessing && executorService != null) {
-            processInParallel(batchRequest, servletRequest, servletResponse, batchResponse);
+        if (parallelProcessing && getExecutor() != null) {
+            processInParallel(batchRequest, servletRequest, servletResponse, responseHandler);
         } else {
-            processSequentially(batchRequest, servletRequest, servletResponse, batchResponse);
+            processSequentially(batchRequest, servletRequest, servletResponse, responseHandler);
         }
-
-        servletResponse.setHeader(HttpHeaders.CONTENT_TYPE, BatchMediaType.MULTIPART_BATCH_VALUE);
-        return batchResponse;
     }
 
     private void processSequentially(BatchRequest batchRequest,
                                      HttpServletRequest servletRequest,
                                      HttpServletResponse servletResponse,
-                                     BatchResponse batchResponse) throws ServletException, IOException {
-        for (BatchRequest.Entity singleRequest : batchRequest.getParts()) {
+                                     SingleResponseHandler responseHandler) throws ServletException, IOException {
+        List<BatchRequest.Entity> parts = batchRequest.getParts();
+        for (int index = 0; index < parts.size(); ++index) {
+            BatchRequest.Entity singleRequest = parts.get(index);
             HttpHeaders httpHeaders = prepareHeaders(servletRequest, singleRequest);
 
             BatchResponse.Entity singleResponse = processSingleRequest(
@@ -93,23 +203,26 @@ public abstract class BatchRequestServiceBase implements BatchRequestService {
                     singleRequest.getBody(),
                     servletRequest,
                     servletResponse);
-            batchResponse.addPart(singleResponse);
+            responseHandler.handle(applyContentId(singleResponse, singleRequest, index));
         }
     }
 
     private void processInParallel(BatchRequest batchRequest,
                                    HttpServletRequest servletRequest,
                                    HttpServletResponse servletResponse,
-                                   BatchResponse batchResponse) throws ServletException, IOException {
+                                   SingleResponseHandler responseHandler) throws ServletException, IOException {
         List<BatchRequest.Entity> parts = batchRequest.getParts();
-        List<CompletableFuture<BatchResponse.Entity>> futures = new ArrayList<>();
+        List<Supplier<BatchResponse.Entity>> tasks = new ArrayList<>();
 
-        for (BatchRequest.Entity singleRequest : parts) {
+        for (int index = 0; index < parts.size(); ++index) {
+            BatchRequest.Entity singleRequest = parts.get(index);
+            int partIndex = index;
             HttpHeaders httpHeaders = prepareHeaders(servletRequest, singleRequest);
 
-            CompletableFuture<BatchResponse.Entity> future = CompletableFuture.supplyAsync(() -> {
+            tasks.add(() -> {
+                BatchResponse.Entity singleResponse;
                 try {
-                    return processSingleRequest(
+                    singleResponse = processSingleRequest(
                             getSingleRequestUri(singleRequest, servletRequest),
                             singleRequest.getMethod(),
                             httpHeaders,
@@ -117,24 +230,76 @@ public abstract class BatchRequestServiceBase implements BatchRequestService {
                             servletRequest,
                             servletResponse);
                 } catch (Exception e) {
-                    return createErrorResponse(singleRequest, e);
+                    singleResponse = createErrorResponse(singleRequest, e);
                 }
-            }, executorService);
+                return applyContentId(singleResponse, singleRequest, partIndex);
+            });
+        }
 
-            futures.add(future);
+        List<CompletableFuture<BatchResponse.Entity>> futures = scheduler.submit(tasks, getExecutor(),
+                (index, status) -> applyContentId(createRejectedResponse(status), parts.get(index), index));
+
+        if (batchRequestProperties.isOutOfOrderResponse()) {
+            handleInCompletionOrder(futures, responseHandler);
+        } else {
+            handleInRequestOrder(futures, responseHandler);
         }
+    }
 
-        try {
-            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+    /**
+     * Handles the responses in order, each as soon as it (and all responses before it) is available.
+     */
+    private void handleInRequestOrder(List<CompletableFuture<BatchResponse.Entity>> futures,
+                                      SingleResponseHandler responseHandler) throws ServletException, IOException {
+        for (CompletableFuture<BatchResponse.Entity> future : futures) {
+            BatchResponse.Entity singleResponse;
+            try {
+                singleResponse = future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServletException("Error processing batch requests in parallel", e);
+            } catch (ExecutionException e) {
+                throw new ServletException("Error processing batch requests in parallel", e);
+            }
+            responseHandler.handle(singleResponse);
+        }
+    }
 
-            for (CompletableFuture<BatchResponse.Entity> future : futures) {
-                batchResponse.addPart(future.get());
+    /**
+     * Handles each response as soon as it is available - the handler is always called by the requesting thread.
+     */
+    private void handleInCompletionOrder(List<CompletableFuture<BatchResponse.Entity>> futures,
+                                         SingleResponseHandler responseHandler) throws ServletException, IOException {
+        BlockingQueue<CompletableFuture<BatchResponse.Entity>> completed = new LinkedBlockingQueue<>();
+        futures.forEach(future -> future.whenComplete((singleResponse, exc) -> completed.add(future)));
+
+        for (int i = 0; i < futures.size(); ++i) {
+            BatchResponse.Entity singleResponse;
+            try {
+                singleResponse = completed.take().get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServletException("Error processing batch requests in parallel", e);
+            } catch (ExecutionException e) {
+                throw new ServletException("Error processing batch requests in parallel", e);
             }
-        } catch (Exception e) {
-            throw new ServletException("Error processing batch requests in parallel", e);
+            responseHandler.handle(singleResponse);
         }
     }
 
+    /**
+     * Sets the Content-ID of the request part on its response - the position of the request part (starting with 1)
+     * is used if it has none and responses are handled out of order.
+     */
+    protected BatchResponse.Entity applyContentId(BatchResponse.Entity singleResponse, BatchRequest.Entity singleRequest, int index) {
+        String contentId = singleRequest.getContentId();
+        if (contentId == null && batchRequestProperties.isOutOfOrderResponse()) {
+            contentId = Integer.toString(index + 1);
+        }
+        singleResponse.setContentId(contentId);
+        return singleResponse;
+    }
+
     private HttpHeaders prepareHeaders(HttpServletRequest servletRequest,
                                        BatchRequest.Entity singleRequest) {
         HttpHeaders httpHeaders = new HttpHeaders();
@@ -158,6 +323,17 @@ public abstract class BatchRequestServiceBase implements BatchRequestService {
         return errorResponse;
     }
 
+    protected BatchResponse.Entity createRejectedResponse(HttpStatus status) {
+        BatchResponse.Entity rejectedResponse = new BatchResponse.Entity();
+        rejectedResponse.setStatus(status);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.TEXT_PLAIN);
+        headers.set(HttpHeaders.RETRY_AFTER, Integer.toString(batchRequestProperties.getRetryAfterSeconds()));
+        rejectedResponse.setHeaders(headers);
+        rejectedResponse.setBody(("Request rejected: " + status.getReasonPhrase()).getBytes(StandardCharsets.UTF_8));
+        return rejectedResponse;
+    }
+
     protected Charset getUrlEncoding() {
         return StandardCharsets.UTF_8;
     }
@@ -0,0 +1,19 @@
+package net.seesharpsoft.spring.multipart.batch.services;
+
+/**
+ * Defines how single requests of a batch are executed if processed in parallel.
+ */
+public enum ExecutorMode {
+    /**
+     * Pool of {@link BatchRequestProperties#getThreadPoolSize()} threads shared by all batches.
+     */
+    FixedPool,
+    /**
+     * A new virtual thread per single request - requires Java 21 or later.
+     */
+    VirtualThreads,
+    /**
+     * The task executor given to the batch request service.
+     */
+    TaskExecutor
+}
@@ -1,6 +1,7 @@
 package net.seesharpsoft.spring.multipart;
 
 import net.seesharpsoft.spring.multipart.test.util.HttpInputMessageDummy;
+import net.seesharpsoft.spring.multipart.test.util.HttpOutputMessageDummy;
 import net.seesharpsoft.commons.util.SharpIO;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -9,6 +10,7 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpInputMessage;
 import org.springframework.http.MediaType;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
@@ -17,8 +19,10 @@ import java.util.HashMap;
 import java.util.Map;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.endsWith;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.nullValue;
 
 public class MultipartRfc2046MessageConverterUT {
 
@@ -144,5 +148,72 @@ public class MultipartRfc2046MessageConverterUT {
         assertThat(secondEntity.getBody(), equalTo( readResource("input/rfc2046_simplemessage_2.txt")));
     }
 
+    @Test
+    public void read_should_keep_crlf_and_binary_bodies() throws IOException {
+        byte[] binary = new byte[256];
+        for (int i = 0; i < binary.length; ++i) {
+            binary[i] = (byte) i;
+        }
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        body.write("preamble\r\n--simple boundary\r\nContent-Type: application/octet-stream\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+        body.write(binary);
+        body.write("\r\n--simple boundary  \r\n\r\nfirst line\r\n--simple boundaryX\r\n\r\n--simple boundary--\r\nepilogue".getBytes(StandardCharsets.US_ASCII));
+        HttpInputMessage inputMessage = new HttpInputMessageDummy(createHttpHeaders("\"simple boundary\""), body.toByteArray());
+
+        MultipartMessage<MultipartEntity> result = (MultipartMessage)messageConverter.read(MultipartMessage.class, inputMessage);
 
+        assertThat(result.getParts().size(), equalTo(2));
+        assertThat(result.getParts().get(0).getHeaders().getContentType(), equalTo(MediaType.APPLICATION_OCTET_STREAM));
+        assertThat(result.getParts().get(0).getBody(), equalTo(binary));
+        assertThat(result.getParts().get(1).getHeaders().size(), equalTo(0));
+        assertThat(new String(result.getParts().get(1).getBody(), StandardCharsets.US_ASCII), equalTo("first line\r\n--simple boundaryX\r\n"));
+    }
+
+    /**************** WRITE TESTS ****************/
+
+    private MultipartEntity createEntity(byte[] body) {
+        MultipartEntity entity = new MultipartEntity();
+        entity.setHeaders(new HttpHeaders());
+        entity.setBody(body);
+        return entity;
+    }
+
+    @Test
+    public void write_should_keep_binary_bodies() throws IOException {
+        byte[] binary = new byte[256];
+        for (int i = 0; i < binary.length; ++i) {
+            binary[i] = (byte) i;
+        }
+        MultipartMessage<MultipartEntity> message = new MultipartMessage<>();
+        message.addPart(createEntity(binary));
+        message.addPart(createEntity("text".getBytes(StandardCharsets.UTF_8)));
+        HttpOutputMessageDummy outputMessage = new HttpOutputMessageDummy(createHttpHeaders("b"));
+
+        messageConverter.write(message, null, outputMessage);
+
+        MultipartMessage<MultipartEntity> result = (MultipartMessage)messageConverter.read(MultipartMessage.class,
+                new HttpInputMessageDummy(createHttpHeaders("b"), outputMessage.getBodyAsBytes()));
+        assertThat(result.getParts().size(), equalTo(2));
+        assertThat(result.getParts().get(0).getHeaders().getContentType(), equalTo(new MediaType("application", "http")));
+        assertThat(result.getParts().get(0).getBody(), equalTo(binary));
+        assertThat(result.getParts().get(1).getBody(), equalTo("text".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void stream_writer_should_flush_each_part() throws IOException {
+        HttpOutputMessageDummy outputMessage = new HttpOutputMessageDummy(createHttpHeaders("b"));
+
+        try (MultipartStreamWriter writer = messageConverter.createStreamWriter(outputMessage)) {
+            assertThat(outputMessage.getBodyAsBytes(), nullValue());
+            writer.writePart(createEntity("first".getBytes(StandardCharsets.UTF_8)));
+            assertThat(outputMessage.getFlushCount(), equalTo(1));
+            assertThat(new String(outputMessage.getBodyAsBytes(), StandardCharsets.UTF_8),
+                    equalTo("--b\nContent-Type: application/http\nContent-Transfer-Encoding: binary\n\nfirst\n"));
+            writer.writePart(createEntity(null));
+            assertThat(outputMessage.getFlushCount(), equalTo(2));
+            assertThat(writer.getPartCount(), equalTo(2));
+        }
+
+        assertThat(new String(outputMessage.getBodyAsBytes(), StandardCharsets.UTF_8), endsWith("\n--b\nContent-Type: application/http\nContent-Transfer-Encoding: binary\n\n--b--"));
+    }
 }
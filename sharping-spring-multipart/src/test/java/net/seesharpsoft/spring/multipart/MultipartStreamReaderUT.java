@@ -0,0 +1,69 @@
+package net.seesharpsoft.spring.multipart;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+
+public class MultipartStreamReaderUT {
+
+    private static final String MESSAGE = "preamble\r\n--batch\r\nA: 1\r\n\r\nfirst\r\n-- batch\r\n--batch\n\nsecond\n--batch-\n--batch--  \r\n--batch\r\nepilogue";
+
+    /**
+     * Returns at most one byte per read.
+     */
+    private static class TrickleInputStream extends ByteArrayInputStream {
+        TrickleInputStream(byte[] bytes) {
+            super(bytes);
+        }
+
+        @Override
+        public synchronized int read(byte[] bytes, int offset, int length) {
+            return super.read(bytes, offset, Math.min(length, 1));
+        }
+    }
+
+    private List<String> readParts(InputStream input, String boundary, int bufferSize) throws IOException {
+        MultipartStreamReader reader = new MultipartStreamReader(input, boundary, bufferSize);
+        List<String> parts = new ArrayList<>();
+        byte[] part;
+        while ((part = reader.readPart()) != null) {
+            parts.add(new String(part, StandardCharsets.US_ASCII));
+        }
+        return parts;
+    }
+
+    @Test
+    public void should_read_parts_between_delimiters() throws IOException {
+        assertThat(readParts(new ByteArrayInputStream(MESSAGE.getBytes(StandardCharsets.US_ASCII)), "batch", 8192),
+                contains("A: 1\r\n\r\nfirst\r\n-- batch", "\nsecond\n--batch-"));
+    }
+
+    @Test
+    public void should_read_parts_across_buffer_boundaries() throws IOException {
+        for (int bufferSize = 1; bufferSize < 20; ++bufferSize) {
+            assertThat(readParts(new TrickleInputStream(MESSAGE.getBytes(StandardCharsets.US_ASCII)), "batch", bufferSize),
+                    contains("A: 1\r\n\r\nfirst\r\n-- batch", "\nsecond\n--batch-"));
+        }
+    }
+
+    @Test
+    public void should_accept_delimiter_at_start_and_end_of_stream() throws IOException {
+        assertThat(readParts(new ByteArrayInputStream("--b\r\n\r\nbody\r\n--b--".getBytes(StandardCharsets.US_ASCII)), "b", 8192),
+                contains("\r\nbody"));
+    }
+
+    @Test
+    public void should_ignore_part_without_closing_delimiter() throws IOException {
+        assertThat(readParts(new ByteArrayInputStream("--b\r\n\r\nbody".getBytes(StandardCharsets.US_ASCII)), "b", 8192), empty());
+        assertThat(readParts(new ByteArrayInputStream("no delimiter".getBytes(StandardCharsets.US_ASCII)), "b", 8192), empty());
+    }
+}
@@ -0,0 +1,257 @@
+package net.seesharpsoft.spring.multipart.batch.services;
+
+import net.seesharpsoft.spring.multipart.batch.BatchRequest;
+import net.seesharpsoft.spring.multipart.batch.BatchResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class BatchRequestServiceBaseUT {
+
+    /**
+     * Answers with the requested delay (in ms) as body after waiting for it.
+     */
+    private static class DelayBatchRequestService extends BatchRequestServiceBase {
+
+        private final AtomicInteger running = new AtomicInteger();
+        private final AtomicInteger maxRunning = new AtomicInteger();
+
+        DelayBatchRequestService(BatchRequestProperties batchRequestProperties) {
+            super(batchRequestProperties);
+        }
+
+        @Override
+        protected BatchResponse.Entity processSingleRequest(URI targetUri, HttpMethod httpMethod, HttpHeaders httpHeaders, byte[] body,
+                                                            HttpServletRequest servletRequest, HttpServletResponse servletResponse) {
+            String delay = targetUri.getPath().substring(1);
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(Long.parseLong(delay));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                running.decrementAndGet();
+            }
+            BatchResponse.Entity entity = new BatchResponse.Entity();
+            entity.setStatus(HttpStatus.OK);
+            entity.setBody(delay.getBytes(StandardCharsets.UTF_8));
+            return entity;
+        }
+    }
+
+    private DelayBatchRequestService service;
+
+    @AfterEach
+    public void afterEach() {
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    private BatchRequest createBatchRequest(String contentIdHeader, int... delays) {
+        BatchRequest batchRequest = new BatchRequest();
+        for (int delay : delays) {
+            BatchRequest.Entity entity = new BatchRequest.Entity();
+            entity.setMethod(HttpMethod.GET);
+            entity.setUrl("http://localhost/" + delay);
+            HttpHeaders headers = new HttpHeaders();
+            if (contentIdHeader != null) {
+                headers.add(BatchRequest.CONTENT_ID, contentIdHeader + delay);
+            }
+            entity.setHeaders(headers);
+            batchRequest.addPart(entity);
+        }
+        return batchRequest;
+    }
+
+    private BatchRequestProperties createProperties(boolean outOfOrderResponse) {
+        BatchRequestProperties properties = new BatchRequestProperties();
+        properties.setIncludeOriginalHeader(false);
+        properties.setOutOfOrderResponse(outOfOrderResponse);
+        return properties;
+    }
+
+    private List<BatchResponse.Entity> processWith(DelayBatchRequestService service, BatchRequest batchRequest) throws Exception {
+        List<BatchResponse.Entity> handled = new ArrayList<>();
+        service.processRequests(batchRequest, null, null, handled::add);
+        return handled;
+    }
+
+    private List<String> process(boolean outOfOrderResponse, BatchRequest batchRequest) throws Exception {
+        return process(createProperties(outOfOrderResponse), null, batchRequest);
+    }
+
+    private List<String> process(BatchRequestProperties properties, TaskExecutor taskExecutor, BatchRequest batchRequest) throws Exception {
+        if (service != null) {
+            service.shutdown();
+        }
+        service = new DelayBatchRequestService(properties);
+        service.setTaskExecutor(taskExecutor);
+
+        List<String> handled = new ArrayList<>();
+        service.processRequests(batchRequest, null, null, singleResponse ->
+                handled.add(singleResponse.getContentId() + ":" + new String(singleResponse.getBody(), StandardCharsets.UTF_8)));
+        return handled;
+    }
+
+    @Test
+    public void should_handle_responses_in_request_order() throws Exception {
+        assertThat(process(false, createBatchRequest(null, 400, 0, 200)), contains("null:400", "null:0", "null:200"));
+    }
+
+    @Test
+    public void should_echo_content_id_of_request() throws Exception {
+        assertThat(process(false, createBatchRequest("id-", 200, 0)), contains("id-200:200", "id-0:0"));
+    }
+
+    @Test
+    public void should_handle_responses_in_completion_order() throws Exception {
+        assertThat(process(true, createBatchRequest(null, 400, 0, 200)), contains("2:0", "3:200", "1:400"));
+        assertThat(process(true, createBatchRequest("id-", 400, 0, 200)), contains("id-0:0", "id-200:200", "id-400:400"));
+    }
+
+    @Test
+    public void should_limit_concurrency_per_batch() throws Exception {
+        BatchRequestProperties properties = createProperties(false);
+        properties.setMaxConcurrencyPerBatch(2);
+
+        assertThat(process(properties, null, createBatchRequest(null, 50, 50, 50, 50, 50, 0)),
+                contains("null:50", "null:50", "null:50", "null:50", "null:50", "null:0"));
+        assertThat(service.maxRunning.get(), equalTo(2));
+    }
+
+    @Test
+    public void should_use_given_task_executor() throws Exception {
+        BatchRequestProperties properties = createProperties(true);
+        properties.setExecutorMode(ExecutorMode.TaskExecutor);
+        properties.setMaxConcurrencyPerBatch(3);
+
+        assertThat(process(properties, new SimpleAsyncTaskExecutor(), createBatchRequest(null, 200, 0, 100)), contains("2:0", "3:100", "1:200"));
+        assertThrows(IllegalStateException.class, () -> process(properties, null, createBatchRequest(null, 0)));
+    }
+
+    @Test
+    @EnabledForJreRange(min = JRE.JAVA_21)
+    public void should_use_virtual_threads() throws Exception {
+        BatchRequestProperties properties = createProperties(false);
+        properties.setExecutorMode(ExecutorMode.VirtualThreads);
+
+        assertThat(process(properties, null, createBatchRequest(null, 100, 0)), contains("null:100", "null:0"));
+    }
+
+    @Test
+    @EnabledForJreRange(max = JRE.JAVA_20)
+    public void should_fail_on_virtual_threads_before_java_21() {
+        BatchRequestProperties properties = createProperties(false);
+        properties.setExecutorMode(ExecutorMode.VirtualThreads);
+
+        assertThrows(IllegalStateException.class, () -> new DelayBatchRequestService(properties));
+    }
+
+    @Test
+    public void should_reject_requests_exceeding_queue_of_batch() throws Exception {
+        BatchRequestProperties properties = createProperties(false);
+        properties.setMaxConcurrency(1);
+        properties.setMaxQueueSizePerBatch(2);
+        properties.setRetryAfterSeconds(5);
+        service = new DelayBatchRequestService(properties);
+
+        List<BatchResponse.Entity> responses = processWith(service, createBatchRequest(null, 50, 0, 0, 0, 0));
+
+        assertThat(responses.stream().map(BatchResponse.Entity::getStatus).toList(), contains(HttpStatus.OK, HttpStatus.OK, HttpStatus.OK,
+                HttpStatus.TOO_MANY_REQUESTS, HttpStatus.TOO_MANY_REQUESTS));
+        assertThat(responses.get(3).getHeaders().getFirst(HttpHeaders.RETRY_AFTER), equalTo("5"));
+        assertThat(service.getScheduler().getRejectedCount(), equalTo(2L));
+        assertThat(service.getScheduler().getStartedCount(), equalTo(3L));
+    }
+
+    @Test
+    public void should_reject_requests_exceeding_queue() throws Exception {
+        BatchRequestProperties properties = createProperties(true);
+        properties.setMaxConcurrency(1);
+        properties.setMaxQueueSize(1);
+        service = new DelayBatchRequestService(properties);
+
+        List<BatchResponse.Entity> responses = processWith(service, createBatchRequest(null, 50, 0, 0));
+
+        assertThat(responses.stream().map(BatchResponse.Entity::getContentId).toList(), contains("3", "1", "2"));
+        assertThat(responses.get(0).getStatus(), equalTo(HttpStatus.SERVICE_UNAVAILABLE));
+        assertThat(responses.get(0).getHeaders().getFirst(HttpHeaders.RETRY_AFTER), equalTo("1"));
+        assertThat(service.getScheduler().getQueueSize(), equalTo(0));
+        assertThat(service.getScheduler().getInFlightCount(), equalTo(0));
+    }
+
+    @Test
+    public void should_not_let_large_batch_starve_small_batch() {
+        BatchRequestProperties properties = createProperties(false);
+        properties.setMaxConcurrency(2);
+        BatchRequestScheduler scheduler = new BatchRequestScheduler(properties);
+        // runs the started requests only when told to
+        Deque<Runnable> executor = new ArrayDeque<>();
+        List<String> started = new ArrayList<>();
+
+        scheduler.submit(createTasks("large-", 10, started), executor::add, (index, status) -> null);
+        scheduler.submit(createTasks("small-", 2, started), executor::add, (index, status) -> null);
+        Runnable next;
+        while ((next = executor.poll()) != null) {
+            next.run();
+        }
+
+        // batches take turns whenever a slot gets free
+        assertThat(started, contains("large-0", "large-1", "large-2", "small-0", "large-3", "small-1",
+                "large-4", "large-5", "large-6", "large-7", "large-8", "large-9"));
+        assertThat(scheduler.getStartedCount(), equalTo(12L));
+        assertThat(scheduler.getInFlightCount(), equalTo(0));
+    }
+
+    @Test
+    @Timeout(10)
+    public void should_not_recurse_with_synchronous_executor() throws Exception {
+        BatchRequestProperties properties = createProperties(false);
+        properties.setExecutorMode(ExecutorMode.TaskExecutor);
+        properties.setMaxConcurrency(1);
+        properties.setMaxConcurrencyPerBatch(1);
+        int[] delays = new int[5000];
+
+        List<String> handled = process(properties, Runnable::run, createBatchRequest(null, delays));
+
+        assertThat(handled.size(), equalTo(5000));
+        assertThat(service.getScheduler().getStartedCount(), equalTo(5000L));
+        assertThat(service.getScheduler().getInFlightCount(), equalTo(0));
+    }
+
+    private List<Supplier<BatchResponse.Entity>> createTasks(String prefix, int count, List<String> started) {
+        List<Supplier<BatchResponse.Entity>> tasks = new ArrayList<>();
+        for (int index = 0; index < count; ++index) {
+            String name = prefix + index;
+            tasks.add(() -> {
+                started.add(name);
+                return new BatchResponse.Entity();
+            });
+        }
+        return tasks;
+    }
+}
@@ -0,0 +1,46 @@
+package net.seesharpsoft.spring.multipart.test.util;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+
+public class HttpOutputMessageDummy implements HttpOutputMessage {
+
+    private HttpHeaders headers;
+
+    private ByteArrayOutputStream body;
+
+    private int flushCount;
+
+    public HttpOutputMessageDummy(HttpHeaders headers) {
+        this.headers = headers;
+    }
+
+    @Override
+    public OutputStream getBody() {
+        if (this.body == null) {
+            this.body = new ByteArrayOutputStream() {
+                @Override
+                public void flush() {
+                    ++flushCount;
+                }
+            };
+        }
+        return this.body;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        return this.headers;
+    }
+
+    public byte[] getBodyAsBytes() {
+        return this.body == null ? null : this.body.toByteArray();
+    }
+
+    public int getFlushCount() {
+        return this.flushCount;
+    }
+}
@@ -11,14 +11,22 @@ public class ConfigurationProperties {
     public static final String WEB_RESOLVER_ROOT = WEB_ROOT + ".resolver";
     public static final String WEB_RESOLVER_SPECIFICATION = WEB_RESOLVER_ROOT + ".specification";
     public static final String WEB_RESOLVER_LIMIT_OFFSET = WEB_RESOLVER_ROOT + ".pageable";
+    public static final String WEB_RESOLVER_PROJECTION = WEB_RESOLVER_ROOT + ".projection";
+    public static final String WEB_RESOLVER_KEYSET = WEB_RESOLVER_ROOT + ".keyset";
     
     public static final String EXPRESSION_ROOT = PROPERTIES_ROOT + ".expression";
     public static final String EXPRESSION_DIALECT = EXPRESSION_ROOT + ".dialect";
+    public static final String EXPRESSION_CACHE_SIZE = EXPRESSION_ROOT + ".cache-size";
+    public static final String EXPRESSION_CACHE_TIME_TO_LIVE = EXPRESSION_ROOT + ".cache-time-to-live";
+    public static final String EXPRESSION_PARAMETERIZED = EXPRESSION_ROOT + ".parameterized";
 
     public static final String SELECTABLE_ROOT = PROPERTIES_ROOT + ".selectable";
     public static final String SELECTABLE_ENABLED = SELECTABLE_ROOT + ".enabled";
     public static final String SELECTABLE_IMPL_CLASS = SELECTABLE_ROOT + ".repositoryBaseClass";
     public static final String SELECTABLE_BASE_PACKAGES = SELECTABLE_ROOT + ".packages";
+    public static final String SELECTABLE_PAGE_TOTAL_MODE = SELECTABLE_ROOT + ".page-total-mode";
+    public static final String SELECTABLE_RESULT_CACHE_SIZE = SELECTABLE_ROOT + ".result-cache-size";
+    public static final String SELECTABLE_RESULT_CACHE_TIME_TO_LIVE = SELECTABLE_ROOT + ".result-cache-time-to-live";
 
     private ExpressionDialect expressionDialect = ExpressionDialect.OData;
     private boolean specificationHandlerEnabled = false;
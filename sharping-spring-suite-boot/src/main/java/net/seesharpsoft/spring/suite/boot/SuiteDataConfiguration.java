@@ -1,14 +1,20 @@
 package net.seesharpsoft.spring.suite.boot;
 
 import net.seesharpsoft.UnhandledSwitchCaseException;
+import net.seesharpsoft.commons.collection.BoundedCache;
+import net.seesharpsoft.spring.data.domain.PageTotalMode;
 import net.seesharpsoft.spring.data.domain.SelectableRepositoryFactory;
+import net.seesharpsoft.spring.data.domain.SelectableResultCache;
 import net.seesharpsoft.spring.data.domain.SqlParser;
 import net.seesharpsoft.spring.data.domain.impl.SelectableRepositoryFactoryImpl;
 import net.seesharpsoft.spring.data.domain.impl.SqlParserImpl;
 import net.seesharpsoft.spring.data.jpa.SpecificationConverter;
+import net.seesharpsoft.spring.data.jpa.expression.Dialect;
 import net.seesharpsoft.spring.data.jpa.expression.Dialects;
 import net.seesharpsoft.spring.data.jpa.expression.Parser;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
@@ -24,6 +30,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import jakarta.persistence.EntityManager;
+import java.time.Duration;
 
 @Configuration
 @EnableConfigurationProperties(ConfigurationProperties.class)
@@ -34,6 +41,26 @@ public class SuiteDataConfiguration {
     @Autowired
     ConfigurationProperties properties;
 
+    @Autowired
+    Environment environment;
+
+    private Parser createParser(Dialect dialect, ConversionService conversionService) {
+        Parser parser = new Parser(dialect, conversionService);
+        int cacheSize = environment.getProperty(ConfigurationProperties.EXPRESSION_CACHE_SIZE, Integer.class, 0);
+        if (cacheSize > 0) {
+            Duration timeToLive = environment.getProperty(ConfigurationProperties.EXPRESSION_CACHE_TIME_TO_LIVE, Duration.class);
+            LOGGER.debug("Enabling expression cache with size={} and timeToLive={}", cacheSize, timeToLive);
+            parser.setExpressionCache(new BoundedCache<>(cacheSize, timeToLive));
+        }
+        return parser;
+    }
+
+    private SpecificationConverter createSpecificationConverter(Dialect dialect, ConversionService conversionService) {
+        SpecificationConverter specificationConverter = new SpecificationConverter(createParser(dialect, conversionService));
+        specificationConverter.setParameterized(environment.getProperty(ConfigurationProperties.EXPRESSION_PARAMETERIZED, Boolean.class, false));
+        return specificationConverter;
+    }
+
     @Bean
     @ConditionalOnMissingBean
     @Conditional(SpecificationConverterEnabledCondition.class)
@@ -43,13 +70,13 @@ public class SuiteDataConfiguration {
         switch (properties.getExpressionDialect()) {
             case Sql:
                 LOGGER.trace("Using SQL dialect for SpecificationConverter");
-                return new SpecificationConverter(Dialects.SQL, conversionService);
+                return createSpecificationConverter(Dialects.SQL, conversionService);
             case OData:
                 LOGGER.trace("Using OData dialect for SpecificationConverter");
-                return new SpecificationConverter(Dialects.ODATA, conversionService);
+                return createSpecificationConverter(Dialects.ODATA, conversionService);
             case Default:
                 LOGGER.trace("Using default (JAVA) dialect for SpecificationConverter");
-                return new SpecificationConverter(Dialects.JAVA, conversionService);
+                return createSpecificationConverter(Dialects.JAVA, conversionService);
             case None:
                 LOGGER.warn("ExpressionDialect.NONE configured - SpecificationConverter cannot be created");
                 throw new UnsupportedOperationException();
@@ -65,16 +92,30 @@ public class SuiteDataConfiguration {
     SqlParser sqlParser(@Lazy ConversionService conversionService) {
         LOGGER.debug("Creating SqlParser bean (selectable enabled: {})",
                 properties.isSelectableRepositoryEnabled());
-        return new SqlParserImpl(new Parser(Dialects.SQL, conversionService));
+        return new SqlParserImpl(createParser(Dialects.SQL, conversionService));
     }
 
     @Bean
     @ConditionalOnMissingBean
     @ConditionalOnProperty(name = ConfigurationProperties.SELECTABLE_ENABLED)
-    SelectableRepositoryFactory selectableRepositoryFactory(EntityManager entityManager, SqlParser parser) {
-        LOGGER.debug("Creating SelectableRepositoryFactory bean with EntityManager={} and SqlParser={}",
-                entityManager, parser);
-        return new SelectableRepositoryFactoryImpl(entityManager, parser);
+    SelectableRepositoryFactory selectableRepositoryFactory(EntityManager entityManager, SqlParser parser, ObjectProvider<SelectableResultCache> resultCache) {
+        PageTotalMode pageTotalMode = environment.getProperty(ConfigurationProperties.SELECTABLE_PAGE_TOTAL_MODE, PageTotalMode.class, PageTotalMode.COUNT_QUERY);
+        LOGGER.debug("Creating SelectableRepositoryFactory bean with EntityManager={}, SqlParser={} and pageTotalMode={}",
+                entityManager, parser, pageTotalMode);
+        SelectableRepositoryFactoryImpl selectableRepositoryFactory = new SelectableRepositoryFactoryImpl(entityManager, parser);
+        selectableRepositoryFactory.setPageTotalMode(pageTotalMode);
+        selectableRepositoryFactory.setResultCache(resultCache.getIfAvailable());
+        return selectableRepositoryFactory;
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnExpression("${" + ConfigurationProperties.SELECTABLE_RESULT_CACHE_SIZE + ":0} > 0")
+    SelectableResultCache selectableResultCache() {
+        int size = environment.getProperty(ConfigurationProperties.SELECTABLE_RESULT_CACHE_SIZE, Integer.class, 0);
+        Duration timeToLive = environment.getProperty(ConfigurationProperties.SELECTABLE_RESULT_CACHE_TIME_TO_LIVE, Duration.class);
+        LOGGER.debug("Enabling selectable result cache with size={} and timeToLive={}", size, timeToLive);
+        return new SelectableResultCache(size, timeToLive);
     }
 
     @Bean
@@ -1,6 +1,8 @@
 package net.seesharpsoft.spring.suite.boot;
 
+import net.seesharpsoft.spring.data.web.KeysetPageHandlerMethodArgumentResolver;
 import net.seesharpsoft.spring.data.web.OffsetLimitPageHandlerMethodArgumentResolver;
+import net.seesharpsoft.spring.data.web.ProjectionHandlerMethodArgumentResolver;
 import net.seesharpsoft.spring.data.web.SpecificationHandlerMethodArgumentResolver;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
@@ -11,6 +13,7 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.core.convert.converter.Converter;
+import org.springframework.core.env.Environment;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.web.SortHandlerMethodArgumentResolver;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurationSupport;
@@ -27,6 +30,9 @@ public class SuiteWebConfiguration extends WebMvcConfigurationSupport {
     @Autowired
     ConfigurationProperties properties;
 
+    @Autowired
+    Environment environment;
+
     @Bean
     @ConditionalOnMissingBean
     @ConditionalOnProperty(name = ConfigurationProperties.WEB_RESOLVER_SPECIFICATION)
@@ -39,6 +45,16 @@ public class SuiteWebConfiguration extends WebMvcConfigurationSupport {
         return new SpecificationHandlerMethodArgumentResolver(specificationConverter);
     }
 
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = ConfigurationProperties.WEB_RESOLVER_PROJECTION)
+    ProjectionHandlerMethodArgumentResolver projectionHandlerMethodArgumentResolver() {
+
+        LOGGER.debug("Creating ProjectionHandlerMethodArgumentResolver bean");
+
+        return new ProjectionHandlerMethodArgumentResolver();
+    }
+
     @Bean
     @ConditionalOnMissingBean
     @ConditionalOnProperty(name = ConfigurationProperties.WEB_RESOLVER_LIMIT_OFFSET)
@@ -58,9 +74,14 @@ public class SuiteWebConfiguration extends WebMvcConfigurationSupport {
     OffsetLimitPageHandlerMethodArgumentResolver pageableHandlerMethodArgumentResolver(
             @Lazy SortHandlerMethodArgumentResolver sortHandlerMethodArgumentResolver) {
 
-        LOGGER.debug("Creating OffsetLimitPageHandlerMethodArgumentResolver bean using SortHandlerMethodArgumentResolver: {}",
-                sortHandlerMethodArgumentResolver);
+        boolean keyset = environment.getProperty(ConfigurationProperties.WEB_RESOLVER_KEYSET, Boolean.class, false);
+
+        LOGGER.debug("Creating OffsetLimitPageHandlerMethodArgumentResolver bean using SortHandlerMethodArgumentResolver: {} (keyset: {})",
+                sortHandlerMethodArgumentResolver, keyset);
 
+        if (keyset) {
+            return new KeysetPageHandlerMethodArgumentResolver(sortHandlerMethodArgumentResolver);
+        }
         return new OffsetLimitPageHandlerMethodArgumentResolver(sortHandlerMethodArgumentResolver);
     }
 }
\ No newline at end of file
@@ -0,0 +1,114 @@
+package net.seesharpsoft.spring.suite.boot;
+
+import net.seesharpsoft.spring.data.domain.SelectableRepository;
+import net.seesharpsoft.spring.data.domain.SelectableResultCache;
+import net.seesharpsoft.spring.data.domain.impl.SelectableRepositoryFactoryImpl;
+import net.seesharpsoft.spring.suite.test.TestApplication;
+import net.seesharpsoft.spring.suite.test.model.Person;
+import net.seesharpsoft.spring.suite.test.selectable.SimpleUser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.persistence.EntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(classes = { TestApplication.class }, properties = ConfigurationProperties.SELECTABLE_RESULT_CACHE_SIZE + "=10")
+public class SelectableResultCacheIT {
+
+    @Autowired
+    private SelectableResultCache resultCache;
+
+    // the test application defines its own factory
+    @Autowired
+    private SelectableRepositoryFactoryImpl selectableRepositoryFactory;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private SelectableRepository<SimpleUser> createRepository() {
+        resultCache.clear();
+        selectableRepositoryFactory.setResultCache(resultCache);
+        return selectableRepositoryFactory.createRepository(SimpleUser.class);
+    }
+
+    private Person createPerson(int id) {
+        Person person = new Person();
+        ReflectionTestUtils.setField(person, "id", id);
+        return person;
+    }
+
+    @Test
+    public void should_invalidate_results_on_commit() {
+        SelectableRepository<SimpleUser> repository = createRepository();
+        long count = repository.count();
+        assertThat(repository.count()).isEqualTo(count);
+        assertThat(resultCache.size()).isEqualTo(1);
+
+        transactionTemplate.executeWithoutResult(status -> entityManager.persist(createPerson(4711)));
+
+        assertThat(resultCache.size()).isEqualTo(0);
+        assertThat(resultCache.getInvalidationCount()).isEqualTo(1);
+        assertThat(repository.count()).isEqualTo(count + 1);
+    }
+
+    @Test
+    public void should_read_own_writes_in_transaction() {
+        SelectableRepository<SimpleUser> repository = createRepository();
+        long count = repository.count();
+        long bypasses = resultCache.getBypassCount();
+        long hits = resultCache.getHitCount();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.persist(createPerson(4712));
+            entityManager.flush();
+            assertThat(repository.count()).isEqualTo(count + 1);
+            status.setRollbackOnly();
+        });
+
+        assertThat(resultCache.getBypassCount()).isEqualTo(bypasses + 1);
+        assertThat(repository.count()).isEqualTo(count);
+        assertThat(resultCache.getHitCount()).isEqualTo(hits + 1);
+    }
+
+    @Test
+    public void should_not_cache_results_of_rolled_back_transaction() {
+        SelectableRepository<SimpleUser> repository = createRepository();
+        long count = repository.count();
+        resultCache.clear();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.persist(createPerson(4713));
+            entityManager.flush();
+            assertThat(repository.count()).isEqualTo(count + 1);
+            status.setRollbackOnly();
+        });
+
+        assertThat(resultCache.size()).isEqualTo(0);
+        assertThat(repository.count()).isEqualTo(count);
+    }
+
+    @Test
+    public void should_cache_results_of_read_only_transaction() {
+        SelectableRepository<SimpleUser> repository = createRepository();
+        TransactionTemplate readOnlyTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnlyTemplate.setReadOnly(true);
+
+        long hits = resultCache.getHitCount();
+
+        long count = readOnlyTemplate.execute(status -> repository.count());
+
+        assertThat(resultCache.size()).isEqualTo(1);
+        assertThat(repository.count()).isEqualTo(count);
+        assertThat(resultCache.getHitCount()).isEqualTo(hits + 1);
+    }
+}
@@ -0,0 +1,105 @@
+package net.seesharpsoft.spring.data.web;
+
+import net.seesharpsoft.spring.data.domain.KeysetRequest;
+import org.springframework.core.MethodParameter;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.SortArgumentResolver;
+import org.springframework.data.web.SortHandlerMethodArgumentResolver;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Resolves a {@link KeysetRequest} if the continuation parameter is given - an empty value requests the first page,
+ * e.g. {@code ?continue=&limit=20&sort=name&sort=id}. The sort is restored from the token for following pages, e.g.
+ * {@code ?continue=AQACAQAE...&limit=20}. Other requests are resolved as offset-limit or page request. Invalid tokens,
+ * tokens not matching the given sort and first pages without sort are rejected as bad request.
+ */
+public class KeysetPageHandlerMethodArgumentResolver extends OffsetLimitPageHandlerMethodArgumentResolver {
+
+    private static final String DEFAULT_CONTINUATION_PARAMETER = "continue";
+
+    private String continuationParameterName = DEFAULT_CONTINUATION_PARAMETER;
+
+    private final SortArgumentResolver sortArgumentResolver;
+
+    /**
+     * Constructs an instance of this resolved with a default {@link SortHandlerMethodArgumentResolver}.
+     */
+    public KeysetPageHandlerMethodArgumentResolver() {
+        this((SortArgumentResolver) null);
+    }
+
+    /**
+     * Constructs an instance of this resolver with the specified {@link SortHandlerMethodArgumentResolver}.
+     *
+     * @param sortArgumentResolver the sort resolver to use
+     */
+    public KeysetPageHandlerMethodArgumentResolver(SortHandlerMethodArgumentResolver sortArgumentResolver) {
+        this((SortArgumentResolver) sortArgumentResolver);
+    }
+
+    /**
+     * Constructs an instance of this resolver with the specified {@link SortArgumentResolver}.
+     *
+     * @param sortArgumentResolver the sort resolver to use
+     */
+    public KeysetPageHandlerMethodArgumentResolver(SortArgumentResolver sortArgumentResolver) {
+        super(sortArgumentResolver);
+        this.sortArgumentResolver = sortArgumentResolver == null ? new SortHandlerMethodArgumentResolver() : sortArgumentResolver;
+    }
+
+    /**
+     * Configures the parameter name to be used to find the continuation token in the request. Defaults to {@code continue}.
+     *
+     * @param continuationParameterName the parameter name to be used, must not be {@literal null} or empty.
+     */
+    public void setContinuationParameterName(String continuationParameterName) {
+
+        Assert.hasText(continuationParameterName, "Continuation parameter name must not be null or empty!");
+        this.continuationParameterName = continuationParameterName;
+    }
+
+    /**
+     * Retrieves the parameter name to be used to find the continuation token in the request. Defaults to {@code continue}.
+     *
+     * @return the parameter name to be used, never {@literal null} or empty.
+     */
+    public String getContinuationParameterName() {
+        return this.continuationParameterName;
+    }
+
+    @Override
+    public Pageable resolveArgument(MethodParameter methodParameter, ModelAndViewContainer mavContainer,
+                                    NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+
+        String continuationToken = webRequest.getParameter(getParameterNameToUse(continuationParameterName, methodParameter));
+
+        if (continuationToken == null) {
+            return super.resolveArgument(methodParameter, mavContainer, webRequest, binderFactory);
+        }
+
+        String limitString = webRequest.getParameter(getParameterNameToUse(getLimitParameterName(), methodParameter));
+        int limit = getMaxPageSize();
+        if (StringUtils.hasText(limitString)) {
+            try {
+                limit = Math.min(Math.max(Integer.parseInt(limitString), 1), getMaxPageSize());
+            } catch (NumberFormatException exc) {
+                // keep max page size
+            }
+        }
+        Sort sort = sortArgumentResolver.resolveArgument(methodParameter, mavContainer, webRequest, binderFactory);
+
+        try {
+            return KeysetRequest.of(continuationToken, limit, sort);
+        } catch (IllegalArgumentException exc) {
+            // malformed token, token not matching the sort or first page without sort
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, exc.getMessage(), exc);
+        }
+    }
+}
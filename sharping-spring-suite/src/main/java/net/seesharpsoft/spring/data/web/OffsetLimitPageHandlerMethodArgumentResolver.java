@@ -1,6 +1,7 @@
 package net.seesharpsoft.spring.data.web;
 
 import net.seesharpsoft.spring.data.domain.OffsetLimitRequest;
+import net.seesharpsoft.spring.data.domain.SliceRequest;
 import org.springframework.core.MethodParameter;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.SortArgumentResolver;
@@ -17,9 +18,11 @@ public class OffsetLimitPageHandlerMethodArgumentResolver extends org.springfram
     
     private static final String DEFAULT_OFFSET_PARAMETER = "offset";
     private static final String DEFAULT_LIMIT_PARAMETER = "limit";
+    private static final String DEFAULT_SLICE_PARAMETER = "slice";
 
     private String offsetParameterName = DEFAULT_OFFSET_PARAMETER;
     private String limitParameterName = DEFAULT_LIMIT_PARAMETER;
+    private String sliceParameterName = DEFAULT_SLICE_PARAMETER;
     
     private final SortArgumentResolver sortArgumentResolver;
 
@@ -88,6 +91,27 @@ public class OffsetLimitPageHandlerMethodArgumentResolver extends org.springfram
         return this.limitParameterName;
     }
 
+    /**
+     * Configures the parameter name to be used to request a {@link SliceRequest} (no total count), e.g.
+     * {@code ?offset=20&limit=10&slice=true}. Defaults to {@code slice}.
+     *
+     * @param sliceParameterName the parameter name to be used, must not be {@literal null} or empty.
+     */
+    public void setSliceParameterName(String sliceParameterName) {
+
+        Assert.hasText(sliceParameterName, "Slice parameter name must not be null or empty!");
+        this.sliceParameterName = sliceParameterName;
+    }
+
+    /**
+     * Retrieves the parameter name to be used to request a {@link SliceRequest}. Defaults to {@code slice}.
+     *
+     * @return the parameter name to be used, never {@literal null} or empty.
+     */
+    public String getSliceParameterName() {
+        return this.sliceParameterName;
+    }
+
     @Override
     public Pageable resolveArgument(MethodParameter methodParameter, ModelAndViewContainer mavContainer,
                                     NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
@@ -97,14 +121,21 @@ public class OffsetLimitPageHandlerMethodArgumentResolver extends org.springfram
 
         boolean offsetAndLimitGiven = StringUtils.hasText(offsetString) && StringUtils.hasText(limitString);
 
+        Pageable pageable;
         if (!offsetAndLimitGiven) {
-            return super.resolveArgument(methodParameter, mavContainer, webRequest, binderFactory);
+            pageable = super.resolveArgument(methodParameter, mavContainer, webRequest, binderFactory);
+        } else {
+            int offset = tryParseInteger(offsetString, 0);
+            int limit = tryParseInteger(limitString, getMaxPageSize());
+
+            pageable = new OffsetLimitRequest(offset, limit, sortArgumentResolver.resolveArgument(methodParameter, mavContainer, webRequest, binderFactory));
         }
 
-        int offset = tryParseInteger(offsetString, 0);
-        int limit = tryParseInteger(limitString, getMaxPageSize());
+        String sliceParameter = getParameterNameToUse(sliceParameterName, methodParameter);
+        // a given parameter without value (e.g. '?slice') requests a slice as well
+        boolean sliceRequested = webRequest.getParameterMap().containsKey(sliceParameter) && !"false".equalsIgnoreCase(webRequest.getParameter(sliceParameter));
 
-        return new OffsetLimitRequest(offset, limit, sortArgumentResolver.resolveArgument(methodParameter, mavContainer, webRequest, binderFactory));
+        return sliceRequested && pageable.isPaged() ? SliceRequest.of(pageable) : pageable;
     }
     
     private int tryParseInteger(String intString, int defaultValue) {
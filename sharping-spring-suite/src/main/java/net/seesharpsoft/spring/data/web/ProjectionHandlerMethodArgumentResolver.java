@@ -0,0 +1,70 @@
+package net.seesharpsoft.spring.data.web;
+
+import net.seesharpsoft.spring.data.domain.Projection;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.MethodParameter;
+import org.springframework.util.Assert;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * Resolves a {@link Projection} from the select parameter, e.g. {@code ?select=id,fullName} - null if not given.
+ */
+public class ProjectionHandlerMethodArgumentResolver implements HandlerMethodArgumentResolver {
+
+    private static final String DEFAULT_SELECT_PARAMETER = "select";
+    private static final String DEFAULT_QUALIFIER_DELIMITER = "_";
+
+    private String selectParameterName = DEFAULT_SELECT_PARAMETER;
+    private String qualifierDelimiter = DEFAULT_QUALIFIER_DELIMITER;
+
+    /**
+     * Configures the parameter name to be used to find the selected fields in the request. Defaults to {@code select}.
+     *
+     * @param selectParameterName the parameter name to be used, must not be {@literal null} or empty.
+     */
+    public void setSelectParameterName(String selectParameterName) {
+
+        Assert.hasText(selectParameterName, "Select parameter name must not be null or empty!");
+        this.selectParameterName = selectParameterName;
+    }
+
+    /**
+     * Retrieves the parameter name to be used to find the selected fields in the request. Defaults to {@code select}.
+     *
+     * @return the parameter name to be used, never {@literal null} or empty.
+     */
+    public String getSelectParameterName() {
+        return this.selectParameterName;
+    }
+
+    /**
+     * The delimiter to be used between the qualifier and the actual select parameter. Defaults to {@code _}. So a
+     * qualifier of {@code foo} will result in a select parameter of {@code foo_select}.
+     *
+     * @param qualifierDelimiter the delimiter to be used or {@literal null} to reset to the default.
+     */
+    public void setQualifierDelimiter(String qualifierDelimiter) {
+        this.qualifierDelimiter = qualifierDelimiter == null ? DEFAULT_QUALIFIER_DELIMITER : qualifierDelimiter;
+    }
+
+    protected String getParameterNameToUse(String source, MethodParameter methodParameter) {
+        if (methodParameter != null && methodParameter.hasParameterAnnotation(Qualifier.class)) {
+            return methodParameter.getParameterAnnotation(Qualifier.class).value() + qualifierDelimiter + source;
+        }
+        return source;
+    }
+
+    @Override
+    public boolean supportsParameter(MethodParameter methodParameter) {
+        return Projection.class.equals(methodParameter.getParameterType());
+    }
+
+    @Override
+    public Projection resolveArgument(MethodParameter methodParameter, ModelAndViewContainer modelAndViewContainer,
+                                      NativeWebRequest nativeWebRequest, WebDataBinderFactory webDataBinderFactory) {
+        return Projection.parse(nativeWebRequest.getParameterValues(getParameterNameToUse(getSelectParameterName(), methodParameter)));
+    }
+}
@@ -0,0 +1,93 @@
+package net.seesharpsoft.spring.data.web;
+
+import net.seesharpsoft.spring.data.domain.KeysetRequest;
+import net.seesharpsoft.spring.data.domain.OffsetLimitRequest;
+import net.seesharpsoft.spring.test.controller.SimpleControllerDummy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.Arrays;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class KeysetPageHandlerMethodArgumentResolverUT {
+
+    private static final int MAX_PAGE_SIZE = 14;
+
+    private static final Sort SORT = Sort.by(new Sort.Order(Sort.Direction.DESC, "name"), new Sort.Order(Sort.Direction.ASC, "id"));
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    public void setup() {
+        KeysetPageHandlerMethodArgumentResolver argumentResolver = new KeysetPageHandlerMethodArgumentResolver();
+        argumentResolver.setMaxPageSize(MAX_PAGE_SIZE);
+
+        mockMvc = MockMvcBuilders.standaloneSetup(new SimpleControllerDummy())
+                .setCustomArgumentResolvers(argumentResolver)
+                .build();
+    }
+
+    @Test
+    public void handler_should_resolve_empty_continuation_as_first_KeysetRequest() throws Exception {
+        mockMvc.perform(get("/pageable?continue=&limit=5&sort=name,desc&sort=id"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(new KeysetRequest(5, SORT).toString()));
+    }
+
+    @Test
+    public void handler_should_resolve_continuation_token_with_sort_of_token() throws Exception {
+        KeysetRequest request = new KeysetRequest(Arrays.asList("Bob", 2), 5, SORT);
+
+        mockMvc.perform(get("/pageable?limit=5&continue=" + request.getContinuationToken()))
+                .andExpect(status().isOk())
+                .andExpect(content().string(request.toString()));
+    }
+
+    @Test
+    public void handler_should_resolve_incorrect_limit_parameter_with_max_page_size() throws Exception {
+        mockMvc.perform(get("/pageable?continue=&limit=3a4&sort=name,desc&sort=id"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(new KeysetRequest(MAX_PAGE_SIZE, SORT).toString()));
+    }
+
+    @Test
+    public void handler_should_reject_malformed_continuation_token() throws Exception {
+        mockMvc.perform(get("/pageable?limit=5&continue=not-a-token"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void handler_should_reject_tampered_continuation_token() throws Exception {
+        String token = new KeysetRequest(Arrays.asList("Bob", 2), 5, SORT).getContinuationToken();
+
+        mockMvc.perform(get("/pageable?limit=5&continue=" + token.substring(0, token.length() - 4)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void handler_should_reject_continuation_token_not_matching_sort() throws Exception {
+        KeysetRequest request = new KeysetRequest(Arrays.asList("Bob", 2), 5, SORT);
+
+        mockMvc.perform(get("/pageable?limit=5&sort=id&continue=" + request.getContinuationToken()))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void handler_should_reject_empty_continuation_without_sort() throws Exception {
+        mockMvc.perform(get("/pageable?continue=&limit=5"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void handler_should_resolve_parameter_without_continuation_as_OffsetLimitRequest() throws Exception {
+        mockMvc.perform(get("/pageable?offset=1&limit=5"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(new OffsetLimitRequest(1, 5).toString()));
+    }
+}
@@ -1,6 +1,7 @@
 package net.seesharpsoft.spring.data.web;
 
 import net.seesharpsoft.spring.data.domain.OffsetLimitRequest;
+import net.seesharpsoft.spring.data.domain.SliceRequest;
 import net.seesharpsoft.spring.test.controller.SimpleControllerDummy;
 import org.junit.jupiter.api.Test;
 import org.mockito.internal.matchers.StartsWith;
@@ -127,5 +128,23 @@ public class OffsetLimitPageHandlerMethodArgumentResolverUT {
                 .andExpect(status().isOk())
                 .andExpect(content().string(new OffsetLimitRequest(1, MAX_PAGE_SIZE).toString()));
     }
-    
+
+    @Test
+    public void handler_should_resolve_slice_parameter_as_SliceRequest() throws Exception {
+        setup();
+        mockMvc.perform(get("/pageable?offset=1&limit=5&slice=true"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(new SliceRequest(new OffsetLimitRequest(1, 5)).toString()));
+        mockMvc.perform(get("/pageable?page=1&size=5&slice"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(new SliceRequest(PageRequest.of(1, 5)).toString()));
+    }
+
+    @Test
+    public void handler_should_ignore_false_slice_parameter() throws Exception {
+        setup();
+        mockMvc.perform(get("/pageable?page=1&size=5&slice=false"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(PageRequest.of(1, 5).toString()));
+    }
 }
@@ -0,0 +1,41 @@
+package net.seesharpsoft.spring.data.web;
+
+import net.seesharpsoft.spring.data.domain.Projection;
+import net.seesharpsoft.spring.test.controller.SimpleControllerDummy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class ProjectionHandlerMethodArgumentResolverUT {
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    public void setup() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new SimpleControllerDummy())
+                .setCustomArgumentResolvers(new ProjectionHandlerMethodArgumentResolver())
+                .build();
+    }
+
+    @Test
+    public void handler_should_resolve_missing_parameter_as_null() throws Exception {
+        mockMvc.perform(get("/projection"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(SimpleControllerDummy.NULL_STRING));
+        mockMvc.perform(get("/projection?select="))
+                .andExpect(status().isOk())
+                .andExpect(content().string(SimpleControllerDummy.NULL_STRING));
+    }
+
+    @Test
+    public void handler_should_resolve_comma_separated_and_repeated_fields() throws Exception {
+        mockMvc.perform(get("/projection?select=name, id&select=mail"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(Projection.of("id", "mail", "name").toString()));
+    }
+}
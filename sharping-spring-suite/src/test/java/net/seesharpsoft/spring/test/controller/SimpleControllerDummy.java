@@ -1,5 +1,6 @@
 package net.seesharpsoft.spring.test.controller;
 
+import net.seesharpsoft.spring.data.domain.Projection;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
@@ -26,4 +27,9 @@ public class SimpleControllerDummy {
     public String pageable(Pageable pageable) {
         return pageable == null ? NULL_STRING : pageable.toString();
     }
+
+    @RequestMapping(value = "/projection", produces = MediaType.TEXT_PLAIN_VALUE)
+    public String projection(Projection projection) {
+        return projection == null ? NULL_STRING : projection.toString();
+    }
 }